@@ -0,0 +1,101 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of Extract, Filter and SocialNetwork over synthetic tweets
+ * made by TweetGenerator, at 10^3 to 10^7 tweets. Run with "-prof gc" to
+ * report the allocation rate along with throughput; see README.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx16g" })
+public class AnalysisBenchmark {
+
+    private static final long SEED = 6005;
+
+    @Param({ "1000", "10000", "100000", "1000000", "10000000" })
+    public int tweetCount;
+
+    private List<Tweet> tweets;
+    private Map<String, Set<String>> followsGraph;
+    private Timespan middleQuarter;
+    private String popularAuthor;
+    private List<String> words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // users and vocabulary grow with the sample, as they do in real streams
+        int userCount = Math.max(100, tweetCount / 10);
+        tweets = new TweetGenerator(SEED, userCount, 50_000).tweets(tweetCount);
+        followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+        middleQuarter = new Timespan(TweetGenerator.START.plus(Duration.ofMinutes(22)),
+                TweetGenerator.START.plus(Duration.ofMinutes(37)));
+        popularAuthor = TweetGenerator.username(3).toUpperCase();
+        words = Arrays.asList(TweetGenerator.word(40), TweetGenerator.word(900), TweetGenerator.word(20_000));
+    }
+
+    @Benchmark
+    public Timespan getTimespan() {
+        return Extract.getTimespan(tweets);
+    }
+
+    @Benchmark
+    public Set<String> getMentionedUsers() {
+        return Extract.getMentionedUsers(tweets);
+    }
+
+    @Benchmark
+    public List<Tweet> writtenBy() {
+        return Filter.writtenBy(tweets, popularAuthor);
+    }
+
+    @Benchmark
+    public List<Tweet> inTimespan() {
+        return Filter.inTimespan(tweets, middleQuarter);
+    }
+
+    @Benchmark
+    public List<Tweet> containing() {
+        return Filter.containing(tweets, words);
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> guessFollowsGraph() {
+        return SocialNetwork.guessFollowsGraph(tweets);
+    }
+
+    @Benchmark
+    public List<String> influencers() {
+        return SocialNetwork.influencers(followsGraph);
+    }
+
+    @Benchmark
+    public List<String> topInfluencers() {
+        return SocialNetwork.influencers(followsGraph, 10);
+    }
+}
@@ -0,0 +1,113 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * TweetGenerator makes synthetic tweets for benchmarks. Authors, mentions and
+ * words are drawn from Zipf distributions, so a few users and words are very
+ * common and most are rare, as in real samples. The same seed always makes
+ * the same tweets.
+ */
+public class TweetGenerator {
+
+    /** Start of the hour over which timestamps are spread. */
+    public static final Instant START = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000;
+
+    private final Random random;
+    private final Zipf users;
+    private final Zipf words;
+
+    /*
+     * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent,
+     * by binary search over the cumulative distribution.
+     */
+    private static class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+        }
+    }
+
+    /**
+     * Make a generator.
+     *
+     * @param seed seed of the random choices
+     * @param userCount number of distinct usernames, requires userCount >= 1
+     * @param vocabularySize number of distinct words, requires vocabularySize >= 1
+     */
+    public TweetGenerator(long seed, int userCount, int vocabularySize) {
+        this.random = new Random(seed);
+        this.users = new Zipf(userCount, 1.1);
+        this.words = new Zipf(vocabularySize, 1.0);
+    }
+
+    /**
+     * @param rank a user rank
+     * @return username of the user with that rank; rank 0 is the most common
+     */
+    public static String username(int rank) {
+        return "user" + rank;
+    }
+
+    /**
+     * @param rank a word rank
+     * @return the word with that rank; rank 0 is the most common
+     */
+    public static String word(int rank) {
+        return "w" + Integer.toString(rank, 36);
+    }
+
+    /**
+     * Make tweets with distinct ids 0..count-1, timestamps spread uniformly
+     * over the hour from START, 4 to 15 words of text each, and 0 to 3
+     * mentions each.
+     *
+     * @param count number of tweets, requires count >= 0
+     * @return a new list of count tweets
+     */
+    public List<Tweet> tweets(int count) {
+        List<Tweet> tweets = new ArrayList<>(count);
+        StringBuilder text = new StringBuilder();
+        for (int id = 0; id < count; id++) {
+            text.setLength(0);
+            int wordCount = 4 + random.nextInt(12);
+            int mentionCount = random.nextInt(4);
+            for (int w = 0; w < wordCount; w++) {
+                if (w > 0) {
+                    text.append(' ');
+                }
+                if (w < mentionCount) {
+                    text.append('@').append(username(users.sample(random)));
+                } else {
+                    text.append(word(words.sample(random)));
+                }
+            }
+            Instant timestamp = START.plusMillis((long) (random.nextDouble() * HOUR_MILLIS));
+            tweets.add(new Tweet(id, username(users.sample(random)), text.toString(), timestamp));
+        }
+        return tweets;
+    }
+}
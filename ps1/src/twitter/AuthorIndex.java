@@ -0,0 +1,165 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AuthorIndex is a mutable index from authors to the tweets they wrote,
+ * built once over a corpus of tweets and extended by appending more tweets.
+ *
+ * Authors are interned in a UsernameDictionary, which may be shared with
+ * other code, so each tweet's author is a dense int id and each author id
+ * maps to a posting list of the positions of that author's tweets. Lookups
+ * are not case-sensitive.
+ *
+ * AuthorIndex is not safe for use by multiple threads while tweets are being
+ * added.
+ */
+public class AuthorIndex {
+
+    private final UsernameDictionary dictionary;
+    private final List<Tweet> tweets = new ArrayList<>();
+    private final IntList authorIds = new IntList();
+    private final List<IntList> postings = new ArrayList<>();
+    /* Rep invariant:
+     *    authorIds.size() == tweets.size()
+     *    authorIds[p] == dictionary.idOf(tweets[p].author) for all positions p
+     *    postings.size() <= dictionary.size()
+     *    position p is in postings[a] iff authorIds[p] == a,
+     *      and every posting list is strictly increasing
+     * Abstraction function:
+     *    represents the corpus tweets, in the order they were added, indexed
+     *    by their authors' ids in dictionary.
+     */
+
+    /**
+     * Make an empty AuthorIndex with its own dictionary.
+     */
+    public AuthorIndex() {
+        this(new UsernameDictionary());
+    }
+
+    /**
+     * Make an AuthorIndex over a list of tweets, with its own dictionary.
+     *
+     * @param tweets tweets to add to the corpus, in order; not modified by
+     *               this constructor.
+     */
+    public AuthorIndex(List<Tweet> tweets) {
+        this(new UsernameDictionary());
+        addAll(tweets);
+    }
+
+    /**
+     * Make an empty AuthorIndex that interns authors in a given dictionary.
+     *
+     * @param dictionary dictionary of usernames, shared with the caller
+     */
+    public AuthorIndex(UsernameDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Append a tweet to the corpus.
+     *
+     * @param tweet tweet to add; its position is the current size()
+     */
+    public void add(Tweet tweet) {
+        int position = tweets.size();
+        int id = dictionary.intern(tweet.getAuthor());
+        tweets.add(tweet);
+        authorIds.add(id);
+        while (postings.size() <= id) {
+            postings.add(null);
+        }
+        if (postings.get(id) == null) {
+            postings.set(id, new IntList());
+        }
+        postings.get(id).add(position);
+    }
+
+    /**
+     * Append tweets to the corpus.
+     *
+     * @param tweets tweets to add, in order; not modified by this method.
+     */
+    public void addAll(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * @return number of tweets in the corpus
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @return the dictionary in which authors are interned
+     */
+    public UsernameDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @param position requires 0 <= position < size()
+     * @return dictionary id of the author of the tweet at position
+     */
+    public int authorId(int position) {
+        return authorIds.get(position);
+    }
+
+    /**
+     * @param username Twitter username
+     * @return number of tweets in the corpus written by username, ignoring case
+     */
+    public int count(String username) {
+        IntList list = postingsOf(username);
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * Find tweets written by a particular user.
+     *
+     * @param username Twitter username, required to be a valid Twitter
+     *                 username as defined by Tweet.getAuthor()'s spec.
+     * @return a new list of all and only the tweets in the corpus whose author
+     *         is username, ignoring case, in the order they were added.
+     */
+    public List<Tweet> writtenBy(String username) {
+        return new ArrayList<>(writtenByView(username));
+    }
+
+    /**
+     * Find tweets written by a particular user, without copying them.
+     *
+     * @param username Twitter username, required to be a valid Twitter
+     *                 username as defined by Tweet.getAuthor()'s spec.
+     * @return an unmodifiable view of all and only the tweets in the corpus
+     *         whose author is username, ignoring case, in the order they were
+     *         added. The view does not include tweets added later.
+     */
+    public List<Tweet> writtenByView(String username) {
+        return new PositionList(tweets, positionsWrittenBy(username));
+    }
+
+    /**
+     * @param username Twitter username
+     * @return strictly increasing positions of the tweets written by username,
+     *         ignoring case
+     */
+    int[] positionsWrittenBy(String username) {
+        IntList list = postingsOf(username);
+        return list == null ? new int[0] : list.toArray();
+    }
+
+    private IntList postingsOf(String username) {
+        int id = dictionary.idOf(username);
+        return id < 0 || id >= postings.size() ? null : postings.get(id);
+    }
+}
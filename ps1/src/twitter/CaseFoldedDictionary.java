@@ -0,0 +1,211 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * CaseFoldedDictionary is a mutable dictionary that assigns dense int ids
+ * 0, 1, 2, ... to strings, such as usernames or hashtags, ignoring case.
+ *
+ * Strings that are the same ignoring case (like "jbieber" and "JBieBer")
+ * get the same id, so code that has interned its strings can compare ints
+ * instead of case-folding strings. Each id remembers the spelling it was
+ * first interned with.
+ *
+ * Strings can be looked up as a region of a larger CharSequence (such as
+ * the text of a tweet), without allocating a String unless the string is
+ * new to the dictionary.
+ *
+ * CaseFoldedDictionary is not safe for use by multiple threads while strings
+ * are being interned.
+ */
+public class CaseFoldedDictionary {
+
+    private static final int EMPTY = -1;
+
+    private String[] names = new String[16];
+    private int[] hashes = new int[16];
+    private int[] slots = newSlots(32);
+    private int size = 0;
+    /* Rep invariant:
+     *    0 <= size <= names.length == hashes.length
+     *    no two of names[0..size) are equal ignoring case
+     *    hashes[id] == foldedHash(names[id]) for all 0 <= id < size
+     *    slots.length is a power of two, and size < slots.length / 2
+     *    each id in 0..size-1 appears exactly once in slots, reachable by
+     *      linear probing from slot hashes[id] & (slots.length - 1);
+     *      every other slot is EMPTY
+     * Abstraction function:
+     *    represents the map from each string s, ignoring case, to the id i
+     *    such that names[i] equals s ignoring case; names[i] is the spelling
+     *    s was first interned with.
+     */
+
+    /**
+     * Make an empty CaseFoldedDictionary.
+     */
+    public CaseFoldedDictionary() {
+    }
+
+    /**
+     * @return number of distinct strings (ignoring case) in this dictionary
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the id of a string, adding it to the dictionary if needed.
+     *
+     * @param string a string
+     * @return id of string, in 0..size()-1
+     */
+    public int intern(String string) {
+        return intern(string, 0, string.length());
+    }
+
+    /**
+     * Get the id of a string found in a region of text, adding it to the
+     * dictionary if needed.
+     *
+     * @param text text containing a string
+     * @param start index of the first character of the string
+     * @param end index just after the last character of the string,
+     *            requires start < end <= text.length()
+     * @return id of the string text[start..end), in 0..size()-1
+     */
+    public int intern(CharSequence text, int start, int end) {
+        int hash = foldedHash(text, start, end);
+        int slot = find(text, start, end, hash);
+        if (slots[slot] != EMPTY) {
+            return slots[slot];
+        }
+
+        int id = size;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        names[id] = text.subSequence(start, end).toString();
+        hashes[id] = hash;
+        slots[slot] = id;
+        size++;
+        if (size * 2 >= slots.length) {
+            rehash(slots.length * 2);
+        }
+        return id;
+    }
+
+    /**
+     * @param string a string
+     * @return id of string, or -1 if it is not in this dictionary
+     */
+    public int idOf(String string) {
+        return idOf(string, 0, string.length());
+    }
+
+    /**
+     * @param text text containing a string
+     * @param start index of the first character of the string
+     * @param end index just after the last character of the string,
+     *            requires start < end <= text.length()
+     * @return id of the string text[start..end), or -1 if it is not in
+     *         this dictionary
+     */
+    public int idOf(CharSequence text, int start, int end) {
+        return slots[find(text, start, end, foldedHash(text, start, end))];
+    }
+
+    /**
+     * @param id requires 0 <= id < size()
+     * @return the spelling the string with this id was first interned with
+     */
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id " + id + ", size " + size);
+        }
+        return names[id];
+    }
+
+    /**
+     * @param string a string
+     * @return the case-folded form of string, equal for strings that are
+     *         the same ignoring case
+     */
+    public static String fold(String string) {
+        char[] folded = new char[string.length()];
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = foldChar(string.charAt(i));
+        }
+        return new String(folded);
+    }
+
+    /*
+     * @return index of the slot holding the id of text[start..end), or of the
+     *         empty slot where it belongs
+     */
+    private int find(CharSequence text, int start, int end, int hash) {
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot];
+            if (id == EMPTY || (hashes[id] == hash && equalsIgnoreCase(names[id], text, start, end))) {
+                return slot;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        slots = newSlots(capacity);
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static boolean equalsIgnoreCase(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (foldChar(name.charAt(i)) != foldChar(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param text text containing a string
+     * @param start index of the first character of the string
+     * @param end index just after the last character of the string
+     * @return hash of the string text[start..end), equal for strings that
+     *         are the same ignoring case
+     */
+    static int foldedHash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + foldChar(text.charAt(i));
+        }
+        // spread the high bits into the low bits used to pick a slot
+        return hash ^ (hash >>> 16);
+    }
+
+    /*
+     * Fold a character the same way String.equalsIgnoreCase() compares them.
+     */
+    static char foldChar(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
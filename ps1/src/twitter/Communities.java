@@ -0,0 +1,485 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Communities clusters the users of a social network into communities by
+ * label propagation, treating a follow in either direction as a link.
+ *
+ * Every user starts in a community of their own. In each iteration, every user
+ * in turn joins the community most common among their links, keeping their
+ * own when it is among the most common, and otherwise breaking ties by a
+ * seeded hash. Users update in place, so later users see earlier updates
+ * (asynchronous propagation), until an iteration changes nothing.
+ *
+ * The update order is a seeded shuffle of the users, greedily colored so that
+ * no two linked users share a color, and then grouped by color. Users of one
+ * color have no links among them, so each color is updated by multiple threads
+ * at once with the same result as one thread: communities depend only on the
+ * network and the seed. Beyond the network itself, memory is a few ints per
+ * user plus one count table per thread sized to the largest degree.
+ */
+public class Communities {
+
+    /** Default seed for the update order and tie breaking. */
+    public static final long DEFAULT_SEED = 6005;
+
+    /** Default maximum number of iterations. */
+    public static final int DEFAULT_MAX_ITERATIONS = 50;
+
+    /* Smallest number of users of one color split across threads. */
+    private static final int PARALLEL_THRESHOLD = 1 << 10;
+
+    private final CsrGraph graph;
+    private final int[] communityOf;
+    private final int[] memberStarts;
+    private final int[] members;
+    private final long[] internalLinks;
+    private final int iterations;
+    private final boolean converged;
+    /* Rep invariant:
+     *    graph is undirected
+     *    communityOf.length == members.length == graph.vertexCount()
+     *    memberStarts.length == internalLinks.length + 1, memberStarts[0] == 0,
+     *      memberStarts is strictly increasing, and its last element is members.length
+     *    members[memberStarts[c]..memberStarts[c+1]) are the users v with
+     *      communityOf[v] == c, in increasing order of id
+     *    communities are numbered by decreasing size
+     *    internalLinks[c] == number of links of graph between members of c
+     *    iterations >= 0
+     * Abstraction function:
+     *    represents the partition of the users graph.name(v) into communities,
+     *    with v in community communityOf[v], found after the given number of
+     *    iterations, which changed nothing in the last one iff converged.
+     */
+
+    private Communities(CsrGraph graph, int[] labels, int iterations, boolean converged) {
+        this.graph = graph;
+        this.iterations = iterations;
+        this.converged = converged;
+        int n = labels.length;
+
+        // number the communities by decreasing size, then by smallest username ignoring case
+        int[] labelSizes = new int[n];
+        String[] smallestName = new String[n];
+        for (int v = 0; v < n; v++) {
+            int label = labels[v];
+            labelSizes[label]++;
+            String name = UsernameDictionary.fold(graph.name(v));
+            if (smallestName[label] == null || name.compareTo(smallestName[label]) < 0) {
+                smallestName[label] = name;
+            }
+        }
+        List<Integer> used = new ArrayList<>();
+        for (int label = 0; label < n; label++) {
+            if (labelSizes[label] > 0) {
+                used.add(label);
+            }
+        }
+        used.sort((a, b) -> {
+            int bySize = Integer.compare(labelSizes[b], labelSizes[a]);
+            return bySize != 0 ? bySize : smallestName[a].compareTo(smallestName[b]);
+        });
+        int[] communityOfLabel = labelSizes; // reused: sizes are not needed past here
+        this.memberStarts = new int[used.size() + 1];
+        for (int c = 0; c < used.size(); c++) {
+            memberStarts[c + 1] = memberStarts[c] + labelSizes[used.get(c)];
+        }
+        for (int c = 0; c < used.size(); c++) {
+            communityOfLabel[used.get(c)] = c;
+        }
+
+        this.communityOf = new int[n];
+        this.members = new int[n];
+        int[] fill = Arrays.copyOf(memberStarts, used.size());
+        for (int v = 0; v < n; v++) {
+            int c = communityOfLabel[labels[v]];
+            communityOf[v] = c;
+            members[fill[c]++] = v;
+        }
+
+        this.internalLinks = new long[used.size()];
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (targets[e] > v && communityOf[targets[e]] == communityOf[v]) {
+                    internalLinks[communityOf[v]]++;
+                }
+            }
+        }
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert memberStarts.length == internalLinks.length + 1;
+        assert memberStarts[0] == 0 && memberStarts[memberStarts.length - 1] == members.length;
+        for (int c = 0; c + 1 < internalLinks.length; c++) {
+            assert size(c) >= size(c + 1);
+        }
+    }
+
+    /**
+     * Find the communities of a social network with the default parameters,
+     * using all available processors.
+     *
+     * @param followsGraph a social network, as defined by SocialNetwork
+     * @return communities of every distinct username in followsGraph
+     */
+    public static Communities detect(Map<String, Set<String>> followsGraph) {
+        return detect(new CsrGraph(followsGraph), DEFAULT_SEED, DEFAULT_MAX_ITERATIONS,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Find the communities of a graph by label propagation.
+     *
+     * @param graph graph in which an edge from A to B means A follows B
+     * @param seed seed for the update order and tie breaking; the result
+     *             depends only on graph and seed
+     * @param maxIterations propagation stops after this many iterations even
+     *                      if labels are still changing, requires maxIterations >= 1
+     * @param threads number of threads to use, requires threads >= 1
+     * @return communities of every user in graph
+     */
+    public static Communities detect(CsrGraph graph, long seed, int maxIterations, int threads) {
+        if (maxIterations < 1 || threads < 1) {
+            throw new IllegalArgumentException("requires maxIterations >= 1, threads >= 1");
+        }
+        CsrGraph links = graph.undirected();
+        int n = links.vertexCount();
+        int[] offsets = links.offsets();
+        int[] targets = links.targets();
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++) {
+            maxDegree = Math.max(maxDegree, links.outDegree(v));
+        }
+
+        int[] colorStarts = new int[maxDegree + 2];
+        int[] schedule = schedule(links, maxDegree, seed, colorStarts);
+        int colorCount = colorStarts.length - 1;
+        while (colorCount > 0 && colorStarts[colorCount - 1] == n) {
+            colorCount--;
+        }
+        int[] labels = new int[n];
+        for (int v = 0; v < n; v++) {
+            labels[v] = v;
+        }
+        LabelCounter[] counters = new LabelCounter[threads];
+        for (int t = 0; t < threads; t++) {
+            counters[t] = new LabelCounter(maxDegree);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            int iterations = 0;
+            boolean converged = false;
+            while (iterations < maxIterations && !converged) {
+                long changed = 0;
+                for (int color = 0; color < colorCount; color++) {
+                    changed += updateColor(pool, counters, offsets, targets, labels, seed, schedule,
+                            colorStarts[color], colorStarts[color + 1]);
+                }
+                iterations++;
+                converged = changed == 0;
+            }
+            return new Communities(links, labels, iterations, converged);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /*
+     * Order the users of graph: shuffle them with seed, greedily color them in
+     * that order, and group them by color, keeping the shuffled order within
+     * each color.
+     *
+     * @param colorStarts set so that the users of color c are at
+     *                    [colorStarts[c], colorStarts[c+1]) of the result;
+     *                    length must be maxDegree + 2
+     * @return every user, ordered by color
+     */
+    private static int[] schedule(CsrGraph graph, int maxDegree, long seed, int[] colorStarts) {
+        int n = graph.vertexCount();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+
+        // a user has at most maxDegree neighbors, so some color <= maxDegree is free
+        int[] colors = new int[n];
+        Arrays.fill(colors, -1);
+        int[] usedBy = new int[maxDegree + 1];
+        Arrays.fill(usedBy, -1);
+        for (int v : order) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int neighborColor = colors[targets[e]];
+                if (neighborColor >= 0) {
+                    usedBy[neighborColor] = v;
+                }
+            }
+            int color = 0;
+            while (usedBy[color] == v) {
+                color++;
+            }
+            colors[v] = color;
+            colorStarts[color + 1]++;
+        }
+        for (int c = 0; c + 1 < colorStarts.length; c++) {
+            colorStarts[c + 1] += colorStarts[c];
+        }
+        int[] schedule = new int[n];
+        int[] fill = Arrays.copyOf(colorStarts, colorStarts.length - 1);
+        for (int v : order) {
+            schedule[fill[colors[v]]++] = v;
+        }
+        return schedule;
+    }
+
+    /*
+     * Update the labels of the users schedule[from..to), which are all of one
+     * color, splitting them across threads when there are enough.
+     *
+     * @return number of labels changed
+     */
+    private static long updateColor(ForkJoinPool pool, LabelCounter[] counters, int[] offsets, int[] targets,
+            int[] labels, long seed, int[] schedule, int from, int to) {
+        int threads = counters.length;
+        if (threads == 1 || to - from < PARALLEL_THRESHOLD) {
+            return update(counters[0], offsets, targets, labels, seed, schedule, from, to);
+        }
+        List<Callable<Long>> tasks = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            LabelCounter counter = counters[t];
+            int start = from + (int) ((long) (to - from) * t / threads);
+            int end = from + (int) ((long) (to - from) * (t + 1) / threads);
+            tasks.add(() -> update(counter, offsets, targets, labels, seed, schedule, start, end));
+        }
+        long changed = 0;
+        try {
+            for (Future<Long> result : pool.invokeAll(tasks)) {
+                changed += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("label propagation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("label propagation failed", e.getCause());
+        }
+        return changed;
+    }
+
+    /*
+     * Move each user schedule[from..to) to the label most common among its
+     * neighbors: its own if that is among the most common, otherwise the one
+     * with the smallest seeded hash among the most common.
+     *
+     * @return number of labels changed
+     */
+    private static long update(LabelCounter counter, int[] offsets, int[] targets, int[] labels, long seed,
+            int[] schedule, int from, int to) {
+        long changed = 0;
+        for (int i = from; i < to; i++) {
+            int v = schedule[i];
+            if (offsets[v] == offsets[v + 1]) {
+                continue;
+            }
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                counter.add(labels[targets[e]]);
+            }
+            int label = counter.best(labels[v], seed);
+            counter.clear();
+            if (label != labels[v]) {
+                labels[v] = label;
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /*
+     * Mutable count of labels among the neighbors of one user, as an
+     * open-addressing table sized for the largest degree, cleared in time
+     * proportional to the number of labels added.
+     */
+    private static class LabelCounter {
+        private final int[] keys;
+        private final int[] counts;
+        private final int[] used;
+        private int size = 0;
+        /* Rep invariant:
+         *    keys.length == counts.length is a power of 2, more than twice the
+         *      largest number of labels ever added between clears
+         *    keys[s] == -1 iff counts[s] == 0
+         *    used[0..size) are the slots with keys[s] != -1, each once
+         */
+
+        LabelCounter(int maxDegree) {
+            int capacity = Integer.highestOneBit(Math.max(1, maxDegree)) << 2;
+            this.keys = new int[capacity];
+            this.counts = new int[capacity];
+            this.used = new int[maxDegree];
+            Arrays.fill(keys, -1);
+        }
+
+        void add(int label) {
+            int slot = slot(label);
+            if (keys[slot] == -1) {
+                keys[slot] = label;
+                used[size++] = slot;
+            }
+            counts[slot]++;
+        }
+
+        int count(int label) {
+            int slot = slot(label);
+            return keys[slot] == -1 ? 0 : counts[slot];
+        }
+
+        int best(int current, long seed) {
+            int maxCount = 0;
+            for (int i = 0; i < size; i++) {
+                maxCount = Math.max(maxCount, counts[used[i]]);
+            }
+            if (count(current) == maxCount) {
+                return current;
+            }
+            int best = -1;
+            long bestHash = 0;
+            for (int i = 0; i < size; i++) {
+                int slot = used[i];
+                if (counts[slot] == maxCount) {
+                    long hash = mix(seed ^ keys[slot]);
+                    if (best == -1 || Long.compareUnsigned(hash, bestHash) < 0
+                            || (hash == bestHash && keys[slot] < best)) {
+                        best = keys[slot];
+                        bestHash = hash;
+                    }
+                }
+            }
+            return best;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                keys[used[i]] = -1;
+                counts[used[i]] = 0;
+            }
+            size = 0;
+        }
+
+        private int slot(int label) {
+            int mask = keys.length - 1;
+            int slot = (int) mix(label) & mask;
+            while (keys[slot] != -1 && keys[slot] != label) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        // MurmurHash3 finalizer
+        private static long mix(long x) {
+            x ^= x >>> 33;
+            x *= 0xff51afd7ed558ccdL;
+            x ^= x >>> 33;
+            x *= 0xc4ceb9fe1a85ec53L;
+            x ^= x >>> 33;
+            return x;
+        }
+    }
+
+    /**
+     * @return number of iterations of label propagation run
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * @return true iff the last iteration changed no labels
+     */
+    public boolean converged() {
+        return converged;
+    }
+
+    /**
+     * @return number of communities, each with at least one user
+     */
+    public int count() {
+        return internalLinks.length;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return index of the community of username, ignoring case, in
+     *         0..count()-1, or -1 if it is not in the graph. Communities are
+     *         numbered by decreasing size, ties ordered by their smallest
+     *         username ignoring case.
+     */
+    public int communityOf(String username) {
+        int id = graph.idOf(username);
+        return id < 0 ? -1 : communityOf[id];
+    }
+
+    /**
+     * @param community requires 0 <= community < count()
+     * @return number of users in community
+     */
+    public int size(int community) {
+        return memberStarts[community + 1] - memberStarts[community];
+    }
+
+    /**
+     * @param community requires 0 <= community < count()
+     * @return usernames of the users in community, ordered ignoring case
+     */
+    public List<String> members(int community) {
+        List<String> names = new ArrayList<>(size(community));
+        for (int i = memberStarts[community]; i < memberStarts[community + 1]; i++) {
+            names.add(graph.name(members[i]));
+        }
+        names.sort(String.CASE_INSENSITIVE_ORDER);
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * @param community requires 0 <= community < count()
+     * @return number of pairs of users in community where at least one
+     *         follows the other
+     */
+    public long internalLinks(int community) {
+        return internalLinks[community];
+    }
+
+    /**
+     * @param community requires 0 <= community < count()
+     * @return internalLinks(community) as a fraction of the pairs of users in
+     *         community, or 0 if it has fewer than two users
+     */
+    public double density(int community) {
+        long size = size(community);
+        return size < 2 ? 0 : internalLinks[community] / (size * (size - 1) / 2.0);
+    }
+}
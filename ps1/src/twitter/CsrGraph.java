@@ -0,0 +1,229 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CsrGraph is an immutable directed graph over Twitter usernames, stored in
+ * compressed sparse row (CSR) form: users are dense int ids, and the
+ * out-neighbors of user v are targets[offsets[v] .. offsets[v+1]), sorted in
+ * increasing order.
+ *
+ * A social network, as defined by SocialNetwork, converts to a CsrGraph with
+ * an edge from A to B iff A follows B. Usernames are compared ignoring case.
+ */
+public class CsrGraph {
+
+    private final UsernameDictionary users;
+    private final int[] offsets;
+    private final int[] targets;
+    /* Rep invariant:
+     *    offsets.length == users.size() + 1
+     *    offsets[0] == 0, offsets is nondecreasing, offsets[users.size()] == targets.length
+     *    each row targets[offsets[v]..offsets[v+1]) is strictly increasing,
+     *      with elements in 0..users.size()-1 other than v
+     * Abstraction function:
+     *    represents the directed graph with vertices users.name(0..size-1)
+     *    and an edge from v to each w in row v.
+     */
+
+    /**
+     * Convert a social network to CSR form.
+     *
+     * @param followsGraph a social network, as defined by SocialNetwork;
+     *                     not modified by this constructor
+     */
+    public CsrGraph(Map<String, Set<String>> followsGraph) {
+        this.users = new UsernameDictionary();
+        int[] degrees = new int[16];
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            int from = users.intern(entry.getKey());
+            for (String followed : entry.getValue()) {
+                users.intern(followed);
+            }
+            if (from >= degrees.length) {
+                degrees = Arrays.copyOf(degrees, Math.max(from + 1, degrees.length * 2));
+            }
+            degrees[from] += entry.getValue().size();
+        }
+
+        int n = users.size();
+        int[] rowStarts = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            rowStarts[v + 1] = rowStarts[v] + (v < degrees.length ? degrees[v] : 0);
+        }
+        int[] edges = new int[rowStarts[n]];
+        int[] fill = Arrays.copyOf(rowStarts, n);
+        for (Map.Entry<String, Set<String>> entry : followsGraph.entrySet()) {
+            int from = users.idOf(entry.getKey());
+            for (String followed : entry.getValue()) {
+                edges[fill[from]++] = users.idOf(followed);
+            }
+        }
+
+        this.offsets = new int[n + 1];
+        this.targets = compactRows(rowStarts, edges, offsets);
+        checkRep();
+    }
+
+    /*
+     * Sort each row edges[rowStarts[v]..rowStarts[v+1]), dropping duplicates
+     * and self-loops, and pack the rows together.
+     *
+     * @param offsets set to the offsets of the packed rows; length must be rowStarts.length
+     * @return the packed rows
+     */
+    private static int[] compactRows(int[] rowStarts, int[] edges, int[] offsets) {
+        int size = 0;
+        for (int v = 0; v + 1 < rowStarts.length; v++) {
+            Arrays.sort(edges, rowStarts[v], rowStarts[v + 1]);
+            int previous = -1;
+            for (int e = rowStarts[v]; e < rowStarts[v + 1]; e++) {
+                int w = edges[e];
+                if (w != previous && w != v) {
+                    edges[size++] = w;
+                }
+                previous = w;
+            }
+            offsets[v + 1] = size;
+        }
+        return Arrays.copyOf(edges, size);
+    }
+
+    private CsrGraph(UsernameDictionary users, int[] offsets, int[] targets) {
+        this.users = users;
+        this.offsets = offsets;
+        this.targets = targets;
+        checkRep();
+    }
+
+    /**
+     * @return number of users in this graph
+     */
+    public int vertexCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return number of edges in this graph
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @param id requires 0 <= id < vertexCount()
+     * @return username of the user with this id, as first spelled in the
+     *         social network
+     */
+    public String name(int id) {
+        return users.name(id);
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return id of username, ignoring case, or -1 if it is not in this graph
+     */
+    public int idOf(String username) {
+        return users.idOf(username);
+    }
+
+    /**
+     * @param v requires 0 <= v < vertexCount()
+     * @return number of edges out of v
+     */
+    public int outDegree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * @param v requires 0 <= v < vertexCount()
+     * @return a new array of the out-neighbors of v, in increasing order
+     */
+    public int[] neighbors(int v) {
+        return Arrays.copyOfRange(targets, offsets[v], offsets[v + 1]);
+    }
+
+    /**
+     * @return the graph with the same users and every edge reversed, so that
+     *         the neighbors of v are the users who follow v
+     */
+    public CsrGraph transpose() {
+        int n = vertexCount();
+        int[] reversedOffsets = new int[n + 1];
+        for (int target : targets) {
+            reversedOffsets[target + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            reversedOffsets[v + 1] += reversedOffsets[v];
+        }
+        int[] reversedTargets = new int[targets.length];
+        int[] fill = Arrays.copyOf(reversedOffsets, n);
+        // rows are visited in increasing order, so each reversed row comes out sorted
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                reversedTargets[fill[targets[e]]++] = v;
+            }
+        }
+        return new CsrGraph(users, reversedOffsets, reversedTargets);
+    }
+
+    /**
+     * @return the undirected form of this graph: the graph with the same
+     *         users and an edge from v to w iff this graph has an edge from v
+     *         to w or from w to v
+     */
+    public CsrGraph undirected() {
+        int n = vertexCount();
+        int[] rowStarts = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            rowStarts[v + 1] += outDegree(v);
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                rowStarts[targets[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            rowStarts[v + 1] += rowStarts[v];
+        }
+        int[] edges = new int[rowStarts[n]];
+        int[] fill = Arrays.copyOf(rowStarts, n);
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                edges[fill[v]++] = targets[e];
+                edges[fill[targets[e]]++] = v;
+            }
+        }
+        int[] undirectedOffsets = new int[n + 1];
+        return new CsrGraph(users, undirectedOffsets, compactRows(rowStarts, edges, undirectedOffsets));
+    }
+
+    /**
+     * @return offsets of the rows of the adjacency array; must not be modified
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * @return the adjacency array, row after row; must not be modified
+     */
+    int[] targets() {
+        return targets;
+    }
+
+    /**
+     * @return the dictionary of the users in this graph; must not be modified
+     */
+    UsernameDictionary users() {
+        return users;
+    }
+
+    private void checkRep() {
+        assert offsets.length == users.size() + 1;
+        assert offsets[0] == 0 && offsets[offsets.length - 1] == targets.length;
+    }
+}
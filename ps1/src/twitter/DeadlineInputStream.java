@@ -0,0 +1,133 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeadlineInputStream is an HTTP response body whose reads each have a
+ * deadline, so a server that stalls part way through a body fails the read
+ * instead of hanging it.
+ *
+ * A read still waiting for the server when its deadline passes is aborted:
+ * the body is closed, the reading thread is interrupted to wake it, and the
+ * read throws HttpTimeoutException. Time between reads is not limited, so a
+ * decoder may wait for room in a queue as long as it needs.
+ */
+class DeadlineInputStream extends FilterInputStream {
+
+    private final long timeoutNanos;
+    private Thread reader = null;
+    private long readStart;
+    private boolean expired = false;
+    private boolean closed = false;
+    /* Rep invariant:
+     *    timeoutNanos > 0
+     *    reader is non-null iff a read is in progress on reader, which
+     *      started at System.nanoTime() == readStart
+     *    once expired or closed, stays so
+     * Thread safety argument:
+     *    the fields are guarded by this lock. reader is cleared under the
+     *    lock before a read returns, so a deadline interrupts only a
+     *    thread that is still inside that read, and the read clears the
+     *    interrupt again before it throws.
+     */
+
+    /**
+     * Wrap a response body.
+     *
+     * @param in response body, closed when this stream is closed or a read
+     *           times out
+     * @param timeout time allowed for each read, requires timeout > 0
+     */
+    DeadlineInputStream(InputStream in, Duration timeout) {
+        super(in);
+        this.timeoutNanos = timeout.toNanos();
+        schedule(timeoutNanos);
+    }
+
+    @Override public int read() throws IOException {
+        begin();
+        int b;
+        try {
+            b = in.read();
+        } catch (IOException | RuntimeException e) {
+            end(e);
+            throw e;
+        }
+        end(null);
+        return b;
+    }
+
+    @Override public int read(byte[] b, int off, int len) throws IOException {
+        begin();
+        int n;
+        try {
+            n = in.read(b, off, len);
+        } catch (IOException | RuntimeException e) {
+            end(e);
+            throw e;
+        }
+        end(null);
+        return n;
+    }
+
+    @Override public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+        }
+        in.close();
+    }
+
+    private synchronized void begin() throws IOException {
+        if (expired) {
+            throw new HttpTimeoutException("response body timed out");
+        }
+        reader = Thread.currentThread();
+        readStart = System.nanoTime();
+    }
+
+    private synchronized void end(Exception failure) throws HttpTimeoutException {
+        reader = null;
+        if (expired) {
+            Thread.interrupted(); // meant only to wake this read
+            HttpTimeoutException timedOut = new HttpTimeoutException("response body timed out");
+            if (failure != null) {
+                timedOut.initCause(failure);
+            }
+            throw timedOut;
+        }
+    }
+
+    // check again for an overdue read after delayNanos
+    private void schedule(long delayNanos) {
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(this::check);
+    }
+
+    private void check() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            long overdue = reader == null ? -timeoutNanos : System.nanoTime() - readStart - timeoutNanos;
+            if (overdue < 0) {
+                schedule(-overdue);
+                return;
+            }
+            expired = true;
+            reader.interrupt();
+        }
+        try {
+            in.close();
+        } catch (IOException ioe) {
+            // the read is failing anyway
+        }
+    }
+}
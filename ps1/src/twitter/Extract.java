@@ -3,9 +3,12 @@
  */
 package twitter;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Extract consists of methods that extract information from a list of tweets.
@@ -16,6 +19,9 @@ import java.util.HashSet;
  */
 public class Extract {
 
+    /* Largest number of timestamps reduced by one fork-join task without splitting. */
+    private static final int TIMESPAN_THRESHOLD = 1 << 16;
+
     /**
      * Get the time period spanned by tweets.
      * 
@@ -52,6 +58,89 @@ public class Extract {
         return new Timespan(firstTweet.getTimestamp(), lastTweet.getTimestamp());
     }
 
+    /**
+     * Get the time period spanned by a column of timestamps, reducing large
+     * columns with parallel fork-join tasks and without making an Instant for
+     * each timestamp.
+     * 
+     * @param epochMillis
+     *            nonempty array of timestamps in milliseconds since the epoch,
+     *            not modified by this method.
+     * @return a minimum-length time interval that contains every timestamp
+     *         in the array.
+     */
+    public static Timespan getTimespan(long[] epochMillis) {
+        return getTimespan(epochMillis, epochMillis.length);
+    }
+
+    /**
+     * Get the time period spanned by the tweets in a store.
+     * 
+     * @param store
+     *            nonempty store of tweets with distinct ids, not modified by
+     *            this method.
+     * @return a minimum-length time interval, to the millisecond, that
+     *         contains the timestamp of every tweet in the store.
+     */
+    public static Timespan getTimespan(TweetStore store) {
+        return getTimespan(store.epochMillis(), store.size());
+    }
+
+    // helper method to find the span of values[0..size)
+    private static Timespan getTimespan(long[] values, int size) {
+        // if there are no timestamps, raise AssertionError
+        assert size > 0;
+
+        long[] minMax = size <= TIMESPAN_THRESHOLD
+                ? minMax(values, 0, size)
+                : ForkJoinPool.commonPool().invoke(new MinMaxTask(values, 0, size));
+        return new Timespan(Instant.ofEpochMilli(minMax[0]), Instant.ofEpochMilli(minMax[1]));
+    }
+
+    // helper method to find {min, max} of values[from..to), requires from < to
+    private static long[] minMax(long[] values, int from, int to) {
+        long min = values[from];
+        long max = values[from];
+        for (int i = from + 1; i < to; i++) {
+            long value = values[i];
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return new long[] { min, max };
+    }
+
+    /*
+     * Finds {min, max} of values[from..to), splitting the range in half until
+     * it is at most TIMESPAN_THRESHOLD.
+     */
+    private static class MinMaxTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] values;
+        private final int from;
+        private final int to;
+
+        MinMaxTask(long[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected long[] compute() {
+            if (to - from <= TIMESPAN_THRESHOLD) {
+                return minMax(values, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            MinMaxTask left = new MinMaxTask(values, from, mid);
+            left.fork();
+            long[] right = new MinMaxTask(values, mid, to).compute();
+            long[] result = left.join();
+            result[0] = Math.min(result[0], right[0]);
+            result[1] = Math.max(result[1], right[1]);
+            return result;
+        }
+    }
+
     /**
      * Get usernames mentioned in a list of tweets.
      * 
@@ -71,57 +160,96 @@ public class Extract {
         // if list is empty, raise AssertionError
         assert !tweets.isEmpty();
 
-        // initialize resulting Set of usersnames
-        Set<String> mentionedUsers = new HashSet<>();
+        // intern every mention in a single pass over each text; the dictionary
+        // ignores case, so each username is kept once, as first spelled
+        UsernameDictionary mentioned = new UsernameDictionary();
+        MentionScanner.mentionedUsers(tweets, 0, tweets.size(), mentioned);
+        return toSet(mentioned);
+    }
+
+    /**
+     * Get usernames mentioned in a list of tweets, scanning large lists with
+     * parallel fork-join tasks.
+     * 
+     * @param tweets
+     *            list of tweets with distinct ids, not modified by this method.
+     * @return the set of usernames who are mentioned in the text of the tweets,
+     *         as defined by getMentionedUsers(tweets). Each username is
+     *         spelled as it is first mentioned in the list.
+     */
+    public static Set<String> getMentionedUsersParallel(List<Tweet> tweets) {
+        return toSet(MentionScanner.mentionedUsersParallel(tweets));
+    }
 
-        for (int i=0; i < tweets.size(); i++) {
-            // get the text of tweet at index i
-            String text = tweets.get(i).getText();
+    /**
+     * Estimate the number of users mentioned in a list of tweets, in fixed
+     * memory, without building the set of their usernames.
+     * 
+     * @param tweets
+     *            list of tweets, not modified by this method.
+     * @param precision
+     *            log2 of the number of HyperLogLog registers, requires
+     *            HyperLogLog.MIN_PRECISION <= precision <= HyperLogLog.MAX_PRECISION.
+     *            Higher precisions use more memory and give smaller errors.
+     * @return an estimate of the size of getMentionedUsers(tweets), which can
+     *         be merged with estimates for other lists of tweets
+     */
+    public static HyperLogLog countMentionedUsers(List<Tweet> tweets, int precision) {
+        HyperLogLog mentioned = new HyperLogLog(precision);
+        for (Tweet tweet : tweets) {
+            MentionScanner.scan(tweet.getText(), mentioned::add);
+        }
+        return mentioned;
+    }
 
-            
-            // initialize start and end indices
-            int startIndex;
-            int endIndex;
-
-            // run while loop if there's @ in the text
-            while (text.indexOf('@') != -1) {
-                // get the index of '@'
-                startIndex = text.indexOf('@');
-
-                // get the index of ' ' after startIndex, otherwise set endIndex as length of text
-                if (text.substring(startIndex).contains(" ")) {
-                    endIndex = text.indexOf(' ', startIndex);
-                } else {
-                    endIndex = text.length();
-                }
-                String username = text.substring(startIndex + 1, endIndex);
-
-                // check if mentionedUsers already contains username
-                boolean contains = false;
-                for (String user : mentionedUsers) {
-                    if (user.toLowerCase().equals(username.toLowerCase())) {
-                        contains = true;
-                        break;
-                    }
-                }
-
-                // if mentionedUsers doesnt contain username already, add it
-                if (!contains) {
-                    mentionedUsers.add(text.substring(startIndex+1, endIndex));
-                }
-
-                // if there are no more characters in text, set text as empty string
-                if (endIndex >= text.length()) {
-                    text = "";
-                }
-                // otherwise, set text as substring from endIndex of last added username to end of the text
-                else {
-                    text = text.substring(endIndex+1);
-                }
+    /**
+     * Get hashtags used in a list of tweets.
+     * 
+     * @param tweets
+     *            list of tweets, not modified by this method.
+     * @return the set of hashtags used in the text of the tweets. A hashtag is
+     *         "#" followed by a maximal nonempty run of letters, digits and
+     *         underscores that is not all digits, where the "#" is not
+     *         immediately preceded by a letter, digit or underscore.
+     *         Hashtags are case-insensitive, and the returned set includes
+     *         each at most once, spelled as it is first used in the list.
+     */
+    public static Set<String> getHashtags(List<Tweet> tweets) {
+        CaseFoldedDictionary hashtags = new CaseFoldedDictionary();
+        for (Tweet tweet : tweets) {
+            HashtagScanner.scan(tweet.getText(), (text, start, end) -> hashtags.intern(text, start, end));
+        }
+        return toSet(hashtags);
+    }
 
-            }
+    /**
+     * Find trending hashtags in a list of tweets too large to count exactly,
+     * in fixed memory per thread, scanning large lists with parallel
+     * fork-join tasks whose summaries are merged.
+     * 
+     * @param tweets
+     *            list of tweets, not modified by this method.
+     * @param capacity
+     *            number of hashtags counted at once by each summary, requires
+     *            capacity >= 1. Larger capacities give smaller errors.
+     * @return a summary of how many tweets use each hashtag, as defined by
+     *         getHashtags(), counting each distinct hashtag once per tweet.
+     *         HeavyHitters.top(k) gives the trending hashtags with their
+     *         error bounds.
+     */
+    public static HeavyHitters getTrendingHashtags(List<Tweet> tweets, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("requires capacity >= 1");
         }
+        return HashtagScanner.countHashtagsParallel(tweets, capacity);
+    }
 
-        return mentionedUsers;
+    // helper method to collect the strings of a dictionary into a set
+    private static Set<String> toSet(CaseFoldedDictionary dictionary) {
+        Set<String> strings = new HashSet<>();
+        for (int id = 0; id < dictionary.size(); id++) {
+            strings.add(dictionary.name(id));
+        }
+        return strings;
     }
 }
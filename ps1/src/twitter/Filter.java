@@ -5,6 +5,8 @@ package twitter;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Filter consists of methods that filter a list of tweets for those matching a
@@ -33,8 +35,8 @@ public class Filter {
 
         // iterate over the given list of tweets
         for (int i=0; i < tweets.size(); i++) {
-            // if tweet at index i is written by author == username, add the tweet to result
-            if (tweets.get(i).getAuthor().toLowerCase().equals(username.toLowerCase())) {
+            // if tweet at index i is written by author == username (ignoring case), add the tweet to result
+            if (tweets.get(i).getAuthor().equalsIgnoreCase(username)) {
                 result.add(tweets.get(i));
             }
         }
@@ -42,6 +44,68 @@ public class Filter {
         return result;
     }
 
+    /**
+     * Lazily find tweets written by a particular user. Nothing is scanned or
+     * copied until the result is consumed, and chained filters over the same
+     * stream look at each tweet once.
+     * 
+     * @param tweets
+     *            a stream of tweets with distinct ids.
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return stream of all and only the tweets in the input stream whose
+     *         author is username, as defined by writtenBy(tweets, username),
+     *         in the same order as in the input stream.
+     */
+    public static Stream<Tweet> writtenBy(Stream<Tweet> tweets, String username) {
+        return tweets.filter(isWrittenBy(username));
+    }
+
+    /**
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return predicate that is true of exactly the tweets whose author is
+     *         username, as defined by writtenBy(tweets, username).
+     */
+    public static Predicate<Tweet> isWrittenBy(String username) {
+        return tweet -> tweet.getAuthor().equalsIgnoreCase(username);
+    }
+
+    /**
+     * Find tweets written by a particular user, using an index built over the
+     * tweets instead of scanning them.
+     * 
+     * @param index
+     *            author index over a corpus of tweets with distinct ids.
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return all and only the tweets in the corpus whose author is username,
+     *         in the same order as they were added to the index.
+     */
+    public static List<Tweet> writtenBy(AuthorIndex index, String username) {
+        return index.writtenBy(username);
+    }
+
+    /**
+     * Find tweets written by a particular user, using an index built over the
+     * tweets, without copying them.
+     * 
+     * @param index
+     *            author index over a corpus of tweets with distinct ids.
+     * @param username
+     *            Twitter username, required to be a valid Twitter username as
+     *            defined by Tweet.getAuthor()'s spec.
+     * @return unmodifiable view of the tweets returned by
+     *         writtenBy(index, username). The view does not include tweets
+     *         added to the index later.
+     */
+    public static List<Tweet> writtenByView(AuthorIndex index, String username) {
+        return index.writtenByView(username);
+    }
+
     /**
      * Find tweets that were sent during a particular timespan.
      * 
@@ -67,6 +131,63 @@ public class Filter {
         return result;
     }
 
+    /**
+     * Lazily find tweets that were sent during a particular timespan.
+     * 
+     * @param tweets
+     *            a stream of tweets with distinct ids.
+     * @param timespan
+     *            timespan
+     * @return stream of all and only the tweets in the input stream that were
+     *         sent during the timespan, as defined by inTimespan(tweets,
+     *         timespan), in the same order as in the input stream.
+     */
+    public static Stream<Tweet> inTimespan(Stream<Tweet> tweets, Timespan timespan) {
+        return tweets.filter(isInTimespan(timespan));
+    }
+
+    /**
+     * @param timespan
+     *            timespan
+     * @return predicate that is true of exactly the tweets sent during the
+     *         timespan, as defined by inTimespan(tweets, timespan).
+     */
+    public static Predicate<Tweet> isInTimespan(Timespan timespan) {
+        return tweet -> tweet.getTimestamp().isAfter(timespan.getStart())
+                && tweet.getTimestamp().isBefore(timespan.getEnd());
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, using an index
+     * built over the tweets instead of scanning them.
+     * 
+     * @param index
+     *            time index over a list of tweets with distinct ids.
+     * @param timespan
+     *            timespan
+     * @return all and only the tweets in the indexed list that were sent during
+     *         the timespan, as defined by inTimespan(tweets, timespan), in the
+     *         same order as in the indexed list.
+     */
+    public static List<Tweet> inTimespan(TimeIndex index, Timespan timespan) {
+        return index.inTimespan(timespan);
+    }
+
+    /**
+     * Find tweets that were sent during a particular timespan, using an index
+     * built over the tweets, without copying them.
+     * 
+     * @param index
+     *            time index over a list of tweets with distinct ids.
+     * @param timespan
+     *            timespan
+     * @return unmodifiable view of the tweets returned by
+     *         inTimespan(index, timespan).
+     */
+    public static List<Tweet> inTimespanView(TimeIndex index, Timespan timespan) {
+        return index.inTimespanView(timespan);
+    }
+
     /**
      * Find tweets that contain certain words.
      * 
@@ -79,47 +200,106 @@ public class Filter {
      *         represented as a sequence of nonempty words bounded by space characters 
      *         and the ends of the string) includes *at least one* of the words 
      *         found in the words list. Word comparison is not case-sensitive,
-     *         so "Obama" is the same as "obama".  The returned tweets are in the
+     *         so "Obama" is the same as "obama", and compares characters as
+     *         String.equalsIgnoreCase() does.  The returned tweets are in the
      *         same order as in the input list.
      */
     public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
-        // initialize result list
-        List<Tweet> result = new ArrayList<Tweet>();
+        // compile the words once, then read each tweet's text in one pass
+        return new KeywordMatcher(words).filter(tweets);
+    }
 
-        // iterate over the given tweets
-        for (int i=0; i < tweets.size(); i++) {
-            // get current tweet
-            Tweet currentTweet = tweets.get(i);
-
-            // split the tweet into words
-            String[] tweetWords = currentTweet.getText().split(" ");
-
-            boolean contains = false;
-
-            // iterate over the words in the current tweet
-            for (int j=0; j < tweetWords.length; j++) {
-                // get current word
-                String currentWord = tweetWords[j];
-
-                // iterate over the given list of words
-                for (int k=0; k < words.size(); k++) {
-                    // if currentWord is equal to word at index k in given list of words
-                    if (currentWord.toLowerCase().equals(words.get(k).toLowerCase())) {
-                        // set contains to true and break out of the loop
-                        contains = true;
-                        break;
-                    }
-                }
-                // if currentWord is in given list of words, don't continue to compare any further words
-                if (contains) {
-                    break;
-                }
-            }
-            // if the tweet contains atleast one word, add the tweet to result
-            if (contains) {
-                result.add(currentTweet);
-            }
-        }
-        return result;
+    /**
+     * Lazily find tweets that contain certain words.
+     * 
+     * @param tweets
+     *            a stream of tweets with distinct ids.
+     * @param words
+     *            a list of words to search for in the tweets, as defined by
+     *            containing(tweets, words); not modified by this method.
+     * @return stream of all and only the tweets in the input stream that
+     *         include at least one of the words, as defined by
+     *         containing(tweets, words), in the same order as in the input
+     *         stream.
+     */
+    public static Stream<Tweet> containing(Stream<Tweet> tweets, List<String> words) {
+        return tweets.filter(isContaining(words));
+    }
+
+    /**
+     * @param words
+     *            a list of words to search for in the tweets, as defined by
+     *            containing(tweets, words); not modified by this method.
+     * @return predicate that is true of exactly the tweets that include at
+     *         least one of the words, as defined by containing(tweets, words).
+     */
+    public static Predicate<Tweet> isContaining(List<String> words) {
+        KeywordMatcher matcher = new KeywordMatcher(words);
+        return matcher::matches;
+    }
+
+    /**
+     * Find tweets that contain certain words, using an inverted index built
+     * over the tweets instead of scanning them.
+     * 
+     * @param index
+     *            keyword index over a corpus of tweets with distinct ids.
+     * @param words
+     *            a list of words to search for in the tweets. 
+     *            A word is a nonempty sequence of nonspace characters.
+     * @return all and only the tweets in the corpus that include *at least one*
+     *         of the words, as defined by containing(tweets, words), in the
+     *         same order as they were added to the index.
+     */
+    public static List<Tweet> containing(KeywordIndex index, List<String> words) {
+        return index.containing(words);
+    }
+
+    /**
+     * Find tweets that contain certain words, using an inverted index built
+     * over the tweets, without copying them.
+     * 
+     * @param index
+     *            keyword index over a corpus of tweets with distinct ids.
+     * @param words
+     *            a list of words to search for in the tweets, as defined by
+     *            containing(tweets, words).
+     * @return unmodifiable view of the tweets returned by
+     *         containing(index, words). The view does not include tweets
+     *         added to the index later.
+     */
+    public static List<Tweet> containingView(KeywordIndex index, List<String> words) {
+        return index.containingView(words);
+    }
+
+    /**
+     * Find tweets that match a combination of author, timespan and keyword
+     * conditions, without copying intermediate lists of tweets.
+     * 
+     * @param searcher
+     *            searcher over a list of tweets with distinct ids.
+     * @param query
+     *            conditions combined with AND and OR, each with the same
+     *            meaning as writtenBy(), inTimespan() or containing().
+     * @return all and only the tweets in the list that match query, in the
+     *         same order as in the list.
+     */
+    public static List<Tweet> matching(TweetSearcher searcher, TweetQuery query) {
+        return searcher.search(query);
+    }
+
+    /**
+     * Find tweets that match a combination of author, timespan and keyword
+     * conditions, without copying them.
+     * 
+     * @param searcher
+     *            searcher over a list of tweets with distinct ids.
+     * @param query
+     *            conditions combined with AND and OR, as for matching().
+     * @return unmodifiable view of the tweets returned by
+     *         matching(searcher, query).
+     */
+    public static List<Tweet> matchingView(TweetSearcher searcher, TweetQuery query) {
+        return searcher.searchView(query);
     }
 }
@@ -0,0 +1,280 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * FollowRecommender is an immutable "who to follow" engine over a social
+ * network, as defined by SocialNetwork, recommending accounts by triadic
+ * closure: the candidates for a user are the accounts followed by the
+ * accounts that user follows, ranked by overlap, the number of accounts the
+ * user follows that follow the candidate. Ties are broken by follower count
+ * and then by username, as for SocialNetwork.influencers(). A user is never
+ * recommended themselves or an account they already follow.
+ *
+ * Each user's following and followers sets are kept as compressed bitmaps.
+ * Candidates are found by walking two hops from the user. The walk is capped
+ * at a fixed number of edges, so that a user who follows hubs costs no more
+ * than any other. When the cap cuts a walk short, the leading candidates are
+ * rescored exactly by intersecting bitmaps, and the result may miss candidates
+ * only reachable beyond the cap.
+ */
+public class FollowRecommender {
+
+    /** Default largest number of second-hop edges walked per user. */
+    public static final int DEFAULT_MAX_VISITS = 1 << 16;
+
+    /** Smallest number of users recommended for by one fork-join task without splitting. */
+    static final int PARALLEL_THRESHOLD = 1 << 8;
+
+    /* when a walk is capped, this many candidates per recommendation are rescored exactly */
+    private static final int RESCORE_FACTOR = 4;
+
+    private final CsrGraph graph;
+    private final RoaringBitmap[] following;
+    private final RoaringBitmap[] followers;
+    private final String[] folded;
+    private final int maxVisits;
+    /* Rep invariant:
+     *    following.length == followers.length == folded.length == graph.vertexCount()
+     *    following[v] is the set of graph.neighbors(v)
+     *    followers[v] is the set of users u with v in graph.neighbors(u)
+     *    folded[v] == UsernameDictionary.fold(graph.name(v))
+     *    maxVisits > 0
+     * Abstraction function:
+     *    represents the recommendations for the social network graph, each
+     *    computed from a two-hop walk of at most maxVisits edges.
+     */
+
+    /**
+     * Make a recommender with the default cap on the work per user.
+     *
+     * @param followsGraph a social network, as defined by SocialNetwork;
+     *                     not modified by this constructor
+     */
+    public FollowRecommender(Map<String, Set<String>> followsGraph) {
+        this(followsGraph, DEFAULT_MAX_VISITS);
+    }
+
+    /**
+     * Make a recommender.
+     *
+     * @param followsGraph a social network, as defined by SocialNetwork;
+     *                     not modified by this constructor
+     * @param maxVisits largest number of second-hop edges walked to find the
+     *                  candidates for one user, requires maxVisits > 0
+     */
+    public FollowRecommender(Map<String, Set<String>> followsGraph, int maxVisits) {
+        if (maxVisits <= 0) {
+            throw new IllegalArgumentException("requires maxVisits > 0");
+        }
+        this.graph = new CsrGraph(followsGraph);
+        this.maxVisits = maxVisits;
+        int n = graph.vertexCount();
+        this.following = bitmaps(graph);
+        this.followers = bitmaps(graph.transpose());
+        this.folded = new String[n];
+        for (int v = 0; v < n; v++) {
+            folded[v] = UsernameDictionary.fold(graph.name(v));
+        }
+    }
+
+    private static RoaringBitmap[] bitmaps(CsrGraph graph) {
+        int[] offsets = graph.offsets();
+        RoaringBitmap[] rows = new RoaringBitmap[graph.vertexCount()];
+        for (int v = 0; v < rows.length; v++) {
+            rows[v] = RoaringBitmap.of(graph.targets(), offsets[v], offsets[v + 1]);
+        }
+        return rows;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @param candidate a Twitter username
+     * @return number of users that username follows who follow candidate,
+     *         ignoring case; 0 if either is not in the network
+     */
+    public int overlap(String username, String candidate) {
+        int user = graph.idOf(username);
+        int other = graph.idOf(candidate);
+        return user < 0 || other < 0 ? 0 : following[user].andCardinality(followers[other]);
+    }
+
+    /**
+     * Recommend accounts for one user to follow.
+     *
+     * @param username a Twitter username
+     * @param k maximum number of recommendations, requires k >= 0
+     * @return at most k usernames, as spelled in the network, that username
+     *         does not follow, each with positive overlap, in recommendation
+     *         order; empty if username is not in the network
+     */
+    public List<String> recommend(String username, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        int user = graph.idOf(username);
+        if (user < 0) {
+            return Collections.emptyList();
+        }
+        return names(new Scratch(graph.vertexCount()).recommend(user, k));
+    }
+
+    /**
+     * Recommend accounts for every user to follow, splitting the users across
+     * fork-join tasks.
+     *
+     * @param k maximum number of recommendations per user, requires k >= 0
+     * @return map from each user in the network, as spelled in it, who has at
+     *         least one recommendation to recommend(user, k)
+     */
+    public Map<String, List<String>> recommendAll(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        int[][] recommendations = new int[graph.vertexCount()][];
+        // each leaf task allocates working space proportional to the network, so keep leaves few
+        int threshold = Math.max(PARALLEL_THRESHOLD,
+                recommendations.length / (8 * ForkJoinPool.getCommonPoolParallelism()));
+        new RecommendTask(recommendations, 0, recommendations.length, k, threshold).invoke();
+        Map<String, List<String>> result = new HashMap<>();
+        for (int v = 0; v < recommendations.length; v++) {
+            if (recommendations[v].length > 0) {
+                result.put(graph.name(v), names(recommendations[v]));
+            }
+        }
+        return result;
+    }
+
+    private List<String> names(int[] ids) {
+        List<String> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(graph.name(id));
+        }
+        return result;
+    }
+
+    /*
+     * Working space for walks, reused across the users handled by one thread
+     * so that each walk clears only the counts it touched.
+     */
+    private class Scratch {
+        private final int[] counts;
+        private final IntList touched = new IntList();
+
+        Scratch(int n) {
+            this.counts = new int[n];
+        }
+
+        /*
+         * @return ids of the top k candidates for user, in recommendation order
+         */
+        int[] recommend(int user, int k) {
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            boolean capped = false;
+            int visits = 0;
+            walk:
+            for (int e = offsets[user]; e < offsets[user + 1]; e++) {
+                int followed = targets[e];
+                for (int f = offsets[followed]; f < offsets[followed + 1]; f++) {
+                    if (visits++ == maxVisits) {
+                        capped = true;
+                        break walk;
+                    }
+                    int candidate = targets[f];
+                    if (counts[candidate]++ == 0) {
+                        touched.add(candidate);
+                    }
+                }
+            }
+
+            List<Integer> candidates = new ArrayList<>(touched.size());
+            for (int i = 0; i < touched.size(); i++) {
+                int candidate = touched.get(i);
+                if (candidate != user && !following[user].contains(candidate)) {
+                    candidates.add(candidate);
+                }
+            }
+            Comparator<Integer> order = byOverlap();
+            if (capped && candidates.size() > (long) RESCORE_FACTOR * k) {
+                // partial counts only pick which candidates are worth scoring exactly
+                Collections.sort(candidates, order);
+                candidates = new ArrayList<>(candidates.subList(0, RESCORE_FACTOR * k));
+            }
+            if (capped) {
+                for (int candidate : candidates) {
+                    counts[candidate] = following[user].andCardinality(followers[candidate]);
+                }
+            }
+            Collections.sort(candidates, order);
+
+            int[] top = new int[Math.min(k, candidates.size())];
+            for (int i = 0; i < top.length; i++) {
+                top[i] = candidates.get(i);
+            }
+            for (int i = 0; i < touched.size(); i++) {
+                counts[touched.get(i)] = 0;
+            }
+            touched.clear();
+            return top;
+        }
+
+        // orders ids by descending count, then as SocialNetwork.byInfluence()
+        private Comparator<Integer> byOverlap() {
+            return (a, b) -> {
+                int byCount = Integer.compare(counts[b], counts[a]);
+                if (byCount != 0) {
+                    return byCount;
+                }
+                int byFollowers = Integer.compare(followers[b].cardinality(), followers[a].cardinality());
+                return byFollowers != 0 ? byFollowers : folded[a].compareTo(folded[b]);
+            };
+        }
+    }
+
+    /*
+     * Recommends for a range of users, splitting it in half until it is below
+     * threshold.
+     */
+    private class RecommendTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] recommendations;
+        private final int from;
+        private final int to;
+        private final int k;
+        private final int threshold;
+
+        RecommendTask(int[][] recommendations, int from, int to, int k, int threshold) {
+            this.recommendations = recommendations;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.threshold = threshold;
+        }
+
+        @Override protected void compute() {
+            if (to - from <= threshold) {
+                Scratch scratch = new Scratch(graph.vertexCount());
+                for (int v = from; v < to; v++) {
+                    recommendations[v] = scratch.recommend(v, k);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RecommendTask(recommendations, from, mid, k, threshold),
+                    new RecommendTask(recommendations, mid, to, k, threshold));
+        }
+    }
+}
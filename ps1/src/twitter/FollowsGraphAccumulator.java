@@ -0,0 +1,269 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FollowsGraphAccumulator is a mutable, thread-safe accumulator that builds a
+ * social network, as defined by SocialNetwork, from a live stream of tweets,
+ * with the same evidence as SocialNetwork.guessFollowsGraph(): the author of
+ * a tweet follows every other user the tweet mentions.
+ *
+ * Tweets are ingested one at a time or in batches. Each new follows edge
+ * updates the follower count of the followed user and a leaderboard of the k
+ * users with the most followers, in O(k) time, instead of rebuilding the graph
+ * and rankings from the whole history.
+ *
+ * Ingestion is serialized by a private lock. Reads never take that lock: the
+ * leaderboard is an immutable snapshot published after each ingestion, and
+ * follower counts and follows sets are read from concurrent maps, so reads
+ * are cheap and never block ingestion.
+ */
+public class FollowsGraphAccumulator {
+
+    /*
+     * A user seen in the graph. Fields other than followers, follows and
+     * (for the writer) followedIds and rank are immutable.
+     */
+    private static class User {
+        final int id;
+        final String name;
+        final String folded;
+        final Set<User> follows = ConcurrentHashMap.newKeySet();
+        volatile int followers = 0;
+
+        // accessed only while holding the lock
+        final IntHashSet followedIds = new IntHashSet();
+        int rank = -1; // index in the leaderboard, or -1 if not on it
+
+        User(int id, String name) {
+            this.id = id;
+            this.name = name;
+            this.folded = UsernameDictionary.fold(name);
+        }
+    }
+
+    private final int k;
+    private final Object lock = new Object();
+
+    // accessed only while holding the lock
+    private final UsernameDictionary dictionary = new UsernameDictionary();
+    private final List<User> usersById = new ArrayList<>();
+    private final List<User> leaders = new ArrayList<>();
+    private boolean leadersChanged = false;
+
+    // read without the lock
+    private final Map<String, User> usersByFoldedName = new ConcurrentHashMap<>();
+    private volatile List<String> leaderboard = Collections.emptyList();
+    private volatile long tweetCount = 0;
+    /* Rep invariant:
+     *    usersById[i] is null or has id i and name dictionary.name(i); it is
+     *      non-null iff user i follows someone or is followed by someone
+     *    usersByFoldedName maps user.folded to user for every non-null user in usersById
+     *    u.followers == number of users v with u in v.follows
+     *    v.followedIds holds exactly the ids of v.follows, and v is not in v.follows
+     *    leaders.size() == min(k, number of users), leaders[i].rank == i,
+     *      leaders is ordered by descending followers then by folded name,
+     *      and every user not in leaders ranks after every user in leaders
+     *    after each ingestion returns, leaderboard holds the names of leaders
+     * Abstraction function:
+     *    represents the social network in which u follows v iff v is in
+     *    u.follows, built from the tweetCount tweets ingested so far, together
+     *    with its top-k users by follower count.
+     * Thread safety argument:
+     *    all mutation happens while holding lock. Readers see only volatile
+     *    fields, concurrent collections, immutable fields of User, and the
+     *    immutable leaderboard list, which is safely published through a
+     *    volatile write.
+     */
+
+    /**
+     * Make an empty accumulator.
+     *
+     * @param k size of the leaderboard, requires k >= 0
+     */
+    public FollowsGraphAccumulator(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        this.k = k;
+    }
+
+    /**
+     * Ingest one tweet.
+     *
+     * @param tweet tweet whose author follows the users it mentions
+     */
+    public void add(Tweet tweet) {
+        addAll(Collections.singletonList(tweet));
+    }
+
+    /**
+     * Ingest a batch of tweets, publishing the leaderboard once at the end.
+     *
+     * @param tweets tweets, in order; not modified by this method
+     */
+    public void addAll(Collection<Tweet> tweets) {
+        synchronized (lock) {
+            for (Tweet tweet : tweets) {
+                String author = tweet.getAuthor();
+                MentionScanner.scan(tweet.getText(), (text, start, end) -> {
+                    int from = dictionary.intern(author);
+                    int mentioned = dictionary.intern(text, start, end);
+                    if (mentioned != from) {
+                        follow(user(from), user(mentioned));
+                    }
+                });
+            }
+            tweetCount += tweets.size();
+            if (leadersChanged) {
+                List<String> names = new ArrayList<>(leaders.size());
+                for (User leader : leaders) {
+                    names.add(leader.name);
+                }
+                leaderboard = Collections.unmodifiableList(names);
+                leadersChanged = false;
+            }
+        }
+    }
+
+    /**
+     * @return number of tweets ingested so far
+     */
+    public long tweetCount() {
+        return tweetCount;
+    }
+
+    /**
+     * Get the current leaderboard, without blocking ingestion.
+     *
+     * @return an immutable list of the min(k, n) usernames with the most
+     *         followers among the n users in the graph, in descending order of
+     *         follower count with ties ordered by username ignoring case, as
+     *         of the last completed ingestion. Equal to
+     *         SocialNetwork.influencers(followsGraph(), k) when no ingestion
+     *         is in progress.
+     */
+    public List<String> leaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return number of users who follow username, ignoring case
+     */
+    public int followerCount(String username) {
+        User user = usersByFoldedName.get(UsernameDictionary.fold(username));
+        return user == null ? 0 : user.followers;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return a new set of the users that username follows, ignoring case
+     */
+    public Set<String> follows(String username) {
+        User user = usersByFoldedName.get(UsernameDictionary.fold(username));
+        Set<String> names = new HashSet<>();
+        if (user != null) {
+            for (User followed : user.follows) {
+                names.add(followed.name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Copy the graph built so far, without blocking ingestion. Edges added
+     * while the copy is made may or may not be included.
+     *
+     * @return a new social network, as defined by SocialNetwork, in which
+     *         users who follow nobody are not keys
+     */
+    public Map<String, Set<String>> followsGraph() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (User user : usersByFoldedName.values()) {
+            if (!user.follows.isEmpty()) {
+                Set<String> names = new HashSet<>();
+                for (User followed : user.follows) {
+                    names.add(followed.name);
+                }
+                graph.put(user.name, names);
+            }
+        }
+        return graph;
+    }
+
+    /*
+     * Add an edge, if new, and update the leaderboard. Requires lock.
+     */
+    private void follow(User follower, User followed) {
+        if (follower.followedIds.add(followed.id)) {
+            followed.followers++;
+            follower.follows.add(followed);
+            offer(followed);
+        }
+    }
+
+    /*
+     * @return the user with this dictionary id, adding it to the graph (and
+     *         offering it to the leaderboard) if needed. Requires lock.
+     */
+    private User user(int id) {
+        while (usersById.size() <= id) {
+            usersById.add(null);
+        }
+        User user = usersById.get(id);
+        if (user == null) {
+            user = new User(id, dictionary.name(id));
+            usersById.set(id, user);
+            usersByFoldedName.put(user.folded, user);
+            offer(user);
+        }
+        return user;
+    }
+
+    /*
+     * Move user up the leaderboard after its follower count increased, or
+     * add it if it now ranks above the last leader. Requires lock.
+     */
+    private void offer(User user) {
+        if (user.rank < 0) {
+            if (leaders.size() < k) {
+                user.rank = leaders.size();
+                leaders.add(user);
+            } else if (k > 0 && ranksBefore(user, leaders.get(k - 1))) {
+                leaders.get(k - 1).rank = -1;
+                user.rank = k - 1;
+                leaders.set(k - 1, user);
+            } else {
+                return;
+            }
+        }
+        // bubble up past leaders it now outranks
+        for (int i = user.rank; i > 0 && ranksBefore(user, leaders.get(i - 1)); i--) {
+            User above = leaders.get(i - 1);
+            leaders.set(i, above);
+            above.rank = i;
+            leaders.set(i - 1, user);
+            user.rank = i - 1;
+        }
+        leadersChanged = true;
+    }
+
+    private static boolean ranksBefore(User a, User b) {
+        if (a.followers != b.followers) {
+            return a.followers > b.followers;
+        }
+        return a.folded.compareTo(b.folded) < 0;
+    }
+}
@@ -0,0 +1,109 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FollowsGraphBuilder is a mutable accumulator that builds a social network,
+ * as defined by SocialNetwork, from @-mention evidence in tweets: the author
+ * of a tweet follows every other user the tweet mentions.
+ *
+ * Usernames are interned in a UsernameDictionary, so each follows edge is a
+ * pair of int ids and adding a tweet costs time proportional to its length
+ * plus the number of its mentions. Partial builders made by different threads
+ * can be merged.
+ *
+ * FollowsGraphBuilder is not safe for use by multiple threads.
+ */
+class FollowsGraphBuilder {
+
+    private final UsernameDictionary users = new UsernameDictionary();
+    private final List<IntHashSet> follows = new ArrayList<>();
+    /* Rep invariant:
+     *    follows.size() <= users.size()
+     *    every element of every follows set is in 0..users.size()-1
+     *    a is not in follows[a], for all a
+     * Abstraction function:
+     *    represents the social network in which users.name(a) follows
+     *    users.name(b) iff follows[a] contains b.
+     */
+
+    /**
+     * Add the evidence in a tweet.
+     *
+     * @param tweet tweet whose author follows the users it mentions
+     */
+    void add(Tweet tweet) {
+        int author = users.intern(tweet.getAuthor());
+        MentionScanner.scan(tweet.getText(), (text, start, end) -> {
+            int mentioned = users.intern(text, start, end);
+            if (mentioned != author) {
+                followsOf(author).add(mentioned);
+            }
+        });
+    }
+
+    /**
+     * Add the evidence gathered by another builder.
+     *
+     * @param other builder to merge into this one; not modified by this method.
+     *              Usernames already in this builder keep their spelling.
+     */
+    void merge(FollowsGraphBuilder other) {
+        int[] ids = new int[other.users.size()];
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = users.intern(other.users.name(id));
+        }
+        for (int author = 0; author < other.follows.size(); author++) {
+            IntHashSet followed = other.follows.get(author);
+            if (followed == null) {
+                continue;
+            }
+            IntHashSet into = followsOf(ids[author]);
+            for (int mentioned : followed.toArray()) {
+                into.add(ids[mentioned]);
+            }
+        }
+    }
+
+    /**
+     * @return a new social network, as defined by SocialNetwork, holding the
+     *         evidence added so far. Each username is spelled as it was first
+     *         seen, as an author or as a mention. Users who follow nobody are
+     *         not keys.
+     */
+    Map<String, Set<String>> build() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int author = 0; author < follows.size(); author++) {
+            IntHashSet followed = follows.get(author);
+            if (followed == null || followed.size() == 0) {
+                continue;
+            }
+            Set<String> names = new HashSet<>();
+            for (int mentioned : followed.toArray()) {
+                names.add(users.name(mentioned));
+            }
+            graph.put(users.name(author), names);
+        }
+        return graph;
+    }
+
+    private IntHashSet followsOf(int author) {
+        while (follows.size() <= author) {
+            follows.add(null);
+        }
+        IntHashSet followed = follows.get(author);
+        if (followed == null) {
+            followed = new IntHashSet();
+            follows.set(author, followed);
+        }
+        return followed;
+    }
+}
@@ -0,0 +1,487 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FollowsGraphSnapshot is an immutable, read-only view of a social network,
+ * as defined by SocialNetwork, saved in a compact binary file that is
+ * memory-mapped rather than read. Opening a snapshot reads only its header;
+ * each query reads just the parts of the file it needs, so a large network
+ * can be queried right away without rebuilding it from tweets or loading it
+ * onto the heap.
+ *
+ * The file holds a dictionary of the usernames, sorted ignoring case so that
+ * they can be found by binary search, and for each user the sorted ids of the
+ * users they follow and of their followers. Each list is stored as its length
+ * followed by the gaps between successive ids, as variable-length integers of
+ * 7 bits per byte, so typical lists take one or two bytes per edge. Snapshots
+ * are limited to 2 GB.
+ *
+ * Usernames are compared ignoring case, as in SocialNetwork, and are returned
+ * as first spelled in the saved network.
+ *
+ * FollowsGraphSnapshot is safe for use by multiple threads.
+ */
+public class FollowsGraphSnapshot {
+
+    private static final int MAGIC = 0x54574647; // "TWFG"
+    private static final int VERSION = 1;
+    private static final int IO_BUFFER_BYTES = 1 << 20;
+
+    /*
+     * Header: MAGIC, VERSION, user count, then the start of each section
+     * below and the file length, all as ints. Sections are, in order: the
+     * UTF-8 usernames; the n+1 offsets of each username in that section; the
+     * following lists; the n+1 offsets of each following list in that section;
+     * the follower lists; and the n+1 offsets of each follower list.
+     */
+    private static final int NAMES = 0;
+    private static final int NAME_INDEX = 1;
+    private static final int FOLLOWING = 2;
+    private static final int FOLLOWING_INDEX = 3;
+    private static final int FOLLOWERS = 4;
+    private static final int FOLLOWERS_INDEX = 5;
+    private static final int SECTIONS = 6;
+    private static final int HEADER_BYTES = (3 + SECTIONS + 1) * Integer.BYTES;
+
+    private final ByteBuffer file;
+    private final int userCount;
+    private final int[] sections;
+    /* Rep invariant:
+     *    file is read only by absolute index
+     *    HEADER_BYTES <= sections[0] <= sections[1] <= ... <= file.limit()
+     *    each index section holds userCount + 1 nondecreasing offsets into the
+     *      section before it
+     *    usernames are sorted by UsernameDictionary.fold(), with no two equal
+     *    each list is a varint length k followed by k varints, the first id and
+     *      then the positive gaps between successive ids, all ids < userCount
+     * Abstraction function:
+     *    represents the social network in which user i, named by the i-th
+     *    username, follows exactly the users in the i-th following list.
+     * Thread safety argument:
+     *    file is never modified, and absolute reads do not change its position,
+     *    so concurrent queries do not interfere.
+     */
+
+    private FollowsGraphSnapshot(ByteBuffer file, int userCount, int[] sections) {
+        this.file = file;
+        this.userCount = userCount;
+        this.sections = sections;
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert sections[0] >= HEADER_BYTES;
+        for (int s = 1; s < SECTIONS; s++) {
+            assert sections[s - 1] <= sections[s];
+        }
+        assert sections[SECTIONS - 1] <= file.limit();
+    }
+
+    /**
+     * Save a social network as a snapshot, replacing the file if it exists.
+     * The file is written beside its final location and then moved into
+     * place, so a snapshot already open is not disturbed.
+     *
+     * @param followsGraph a social network, as defined by SocialNetwork; not
+     *                     modified by this method
+     * @param file path of the snapshot file
+     * @throws IOException if the file cannot be written, or the snapshot
+     *                     would be larger than 2 GB
+     */
+    public static void save(Map<String, Set<String>> followsGraph, Path file) throws IOException {
+        CsrGraph graph = new CsrGraph(followsGraph);
+        int n = graph.vertexCount();
+
+        // order the users by folded name, so that the snapshot can be searched
+        String[] folded = new String[n];
+        Integer[] byName = new Integer[n];
+        for (int v = 0; v < n; v++) {
+            folded[v] = UsernameDictionary.fold(graph.name(v));
+            byName[v] = v;
+        }
+        Arrays.sort(byName, (a, b) -> folded[a].compareTo(folded[b]));
+        int[] idOf = new int[n];
+        for (int id = 0; id < n; id++) {
+            idOf[byName[id]] = id;
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                Writer out = new Writer(channel);
+                int[] sections = new int[SECTIONS];
+                int[] offsets = new int[n + 1];
+                out.skip(HEADER_BYTES);
+
+                sections[NAMES] = out.position();
+                for (int id = 0; id < n; id++) {
+                    out.putBytes(graph.name(byName[id]).getBytes(StandardCharsets.UTF_8));
+                    offsets[id + 1] = out.position() - sections[NAMES];
+                }
+                sections[NAME_INDEX] = out.position();
+                out.putInts(offsets);
+
+                sections[FOLLOWING] = out.position();
+                putLists(out, graph, byName, idOf, offsets);
+                sections[FOLLOWING_INDEX] = out.position();
+                out.putInts(offsets);
+
+                sections[FOLLOWERS] = out.position();
+                putLists(out, graph.transpose(), byName, idOf, offsets);
+                sections[FOLLOWERS_INDEX] = out.position();
+                out.putInts(offsets);
+                int length = out.position();
+                out.flush();
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(VERSION).putInt(n);
+                for (int section : sections) {
+                    header.putInt(section);
+                }
+                header.putInt(length).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /*
+     * Write the rows of graph in snapshot id order as length-prefixed gap
+     * lists, setting offsets[id + 1] to the end of each list relative to the
+     * start of the section.
+     */
+    private static void putLists(Writer out, CsrGraph graph, Integer[] byName, int[] idOf, int[] offsets)
+            throws IOException {
+        int[] rowOffsets = graph.offsets();
+        int[] targets = graph.targets();
+        int start = out.position();
+        int[] row = new int[0];
+        for (int id = 0; id < byName.length; id++) {
+            int v = byName[id];
+            int degree = rowOffsets[v + 1] - rowOffsets[v];
+            if (row.length < degree) {
+                row = new int[Math.max(degree, row.length * 2)];
+            }
+            for (int e = 0; e < degree; e++) {
+                row[e] = idOf[targets[rowOffsets[v] + e]];
+            }
+            Arrays.sort(row, 0, degree);
+            out.putVarint(degree);
+            int previous = 0;
+            for (int e = 0; e < degree; e++) {
+                out.putVarint(row[e] - previous);
+                previous = row[e];
+            }
+            offsets[id + 1] = out.position() - start;
+        }
+    }
+
+    /**
+     * Open a snapshot written by save(), mapping it into memory.
+     *
+     * @param file path of the snapshot file
+     * @return a view of the social network in the snapshot
+     * @throws IOException if the file cannot be read, or is not a snapshot of
+     *                     a supported version
+     */
+    public static FollowsGraphSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is not a follows graph snapshot");
+            }
+            // the mapping stays valid after the channel is closed
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (mapped.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a follows graph snapshot");
+            }
+            int version = mapped.getInt(Integer.BYTES);
+            if (version != VERSION) {
+                throw new IOException("unsupported follows graph snapshot version " + version);
+            }
+            int userCount = mapped.getInt(2 * Integer.BYTES);
+            int[] sections = new int[SECTIONS];
+            int previous = HEADER_BYTES;
+            for (int s = 0; s < SECTIONS; s++) {
+                sections[s] = mapped.getInt((3 + s) * Integer.BYTES);
+                if (sections[s] < previous) {
+                    throw new IOException("corrupt follows graph snapshot " + file);
+                }
+                previous = sections[s];
+            }
+            int length = mapped.getInt((3 + SECTIONS) * Integer.BYTES);
+            if (length != size || userCount < 0
+                    || (long) sections[FOLLOWERS_INDEX] + (userCount + 1L) * Integer.BYTES != length) {
+                throw new IOException("truncated or corrupt follows graph snapshot " + file);
+            }
+            return new FollowsGraphSnapshot(mapped, userCount, sections);
+        }
+    }
+
+    /**
+     * @return number of distinct users in the network
+     */
+    public int userCount() {
+        return userCount;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return true iff username, ignoring case, is in the network
+     */
+    public boolean contains(String username) {
+        return idOf(username) >= 0;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return a new set of the users that username follows, ignoring case;
+     *         empty if username is not in the network
+     */
+    public Set<String> following(String username) {
+        return names(idOf(username), FOLLOWING);
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return a new set of the users who follow username, ignoring case;
+     *         empty if username is not in the network
+     */
+    public Set<String> followers(String username) {
+        return names(idOf(username), FOLLOWERS);
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return number of users that username follows, ignoring case
+     */
+    public int followingCount(String username) {
+        int id = idOf(username);
+        return id < 0 ? 0 : new Cursor(listStart(id, FOLLOWING)).next();
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return number of users who follow username, ignoring case
+     */
+    public int followerCount(String username) {
+        int id = idOf(username);
+        return id < 0 ? 0 : new Cursor(listStart(id, FOLLOWERS)).next();
+    }
+
+    /**
+     * @param follower a Twitter username
+     * @param followed a Twitter username
+     * @return true iff follower follows followed in the network, ignoring case
+     */
+    public boolean follows(String follower, String followed) {
+        int from = idOf(follower);
+        int to = idOf(followed);
+        if (from < 0 || to < 0) {
+            return false;
+        }
+        Cursor cursor = new Cursor(listStart(from, FOLLOWING));
+        int id = 0;
+        for (int remaining = cursor.next(); remaining > 0; remaining--) {
+            id += cursor.next();
+            if (id >= to) {
+                return id == to;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Read the whole network onto the heap.
+     *
+     * @return a new social network, as defined by SocialNetwork, equal to the
+     *         saved one up to the spelling of usernames: each username is
+     *         spelled as it was first in the saved network, every user has
+     *         a key, and users that differ only in case are merged
+     */
+    public Map<String, Set<String>> toMap() {
+        String[] names = new String[userCount];
+        for (int id = 0; id < userCount; id++) {
+            names[id] = name(id);
+        }
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        for (int id = 0; id < userCount; id++) {
+            Set<String> followed = new HashSet<>();
+            Cursor cursor = new Cursor(listStart(id, FOLLOWING));
+            int target = 0;
+            for (int remaining = cursor.next(); remaining > 0; remaining--) {
+                target += cursor.next();
+                followed.add(names[target]);
+            }
+            followsGraph.put(names[id], followed);
+        }
+        return followsGraph;
+    }
+
+    /*
+     * @return id of username ignoring case, or -1 if it is not in the network
+     */
+    private int idOf(String username) {
+        String key = UsernameDictionary.fold(username);
+        int low = 0;
+        int high = userCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = UsernameDictionary.fold(name(mid)).compareTo(key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private String name(int id) {
+        int start = sections[NAMES] + offset(NAME_INDEX, id);
+        byte[] bytes = new byte[offset(NAME_INDEX, id + 1) - offset(NAME_INDEX, id)];
+        file.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * @return set of the names of the users in the list of id in section, or
+     *         the empty set if id is -1
+     */
+    private Set<String> names(int id, int section) {
+        if (id < 0) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new HashSet<>();
+        Cursor cursor = new Cursor(listStart(id, section));
+        int target = 0;
+        for (int remaining = cursor.next(); remaining > 0; remaining--) {
+            target += cursor.next();
+            result.add(name(target));
+        }
+        return result;
+    }
+
+    private int listStart(int id, int section) {
+        return sections[section] + offset(section + 1, id);
+    }
+
+    // offset of entry i in the index section indexSection
+    private int offset(int indexSection, int i) {
+        return file.getInt(sections[indexSection] + i * Integer.BYTES);
+    }
+
+    /*
+     * Reads successive varints from the file, starting at a position.
+     */
+    private class Cursor {
+        private int position;
+
+        Cursor(int position) {
+            this.position = position;
+        }
+
+        int next() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = file.get(position++);
+                value |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    /*
+     * Writes a snapshot through a direct buffer, tracking the file position.
+     */
+    private static class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+        private long position = 0;
+
+        Writer(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        int position() throws IOException {
+            if (position > Integer.MAX_VALUE) {
+                throw new IOException("follows graph too large for a snapshot");
+            }
+            return (int) position;
+        }
+
+        void skip(int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                putByte(0);
+            }
+        }
+
+        void putByte(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) b);
+            position++;
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            for (byte b : bytes) {
+                putByte(b);
+            }
+        }
+
+        void putInts(int[] values) throws IOException {
+            for (int value : values) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    flush();
+                }
+                buffer.putInt(value);
+                position += Integer.BYTES;
+            }
+        }
+
+        void putVarint(int value) throws IOException {
+            assert value >= 0;
+            while ((value & ~0x7f) != 0) {
+                putByte((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            putByte(value);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
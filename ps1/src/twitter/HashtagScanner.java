@@ -0,0 +1,168 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * HashtagScanner finds the hashtags in tweet text in a single pass, without
+ * allocating, in the same style as MentionScanner.
+ *
+ * A hashtag is "#" followed by a maximal nonempty run of letters, digits and
+ * underscores that is not all digits (in any script, as Character.isDigit()),
+ * where the "#" is not immediately preceded by a letter, digit or underscore.
+ * So "#6005 #mit_csail" tags only mit_csail, and "C#" tags nothing. Hashtags
+ * are case-insensitive.
+ */
+class HashtagScanner {
+
+    /** Largest number of tweets scanned by one fork-join task without splitting. */
+    static final int PARALLEL_THRESHOLD = MentionScanner.PARALLEL_THRESHOLD;
+
+    /**
+     * Receives the hashtags found by scan().
+     */
+    @FunctionalInterface
+    interface HashtagConsumer {
+        /**
+         * Called once for each hashtag.
+         *
+         * @param text text being scanned
+         * @param start index of the first character of the tag (just after "#")
+         * @param end index just after the last character of the tag
+         */
+        void hashtag(CharSequence text, int start, int end);
+    }
+
+    private static final int OUTSIDE = 0; // previous character is not valid in a hashtag
+    private static final int WORD = 1;    // inside a run of hashtag characters that is not a hashtag
+    private static final int HASH = 2;    // just after a "#" that may start a hashtag
+    private static final int TAG = 3;     // inside the tag of a hashtag
+
+    private HashtagScanner() {
+        // not instantiable
+    }
+
+    /**
+     * Find the hashtags in text.
+     *
+     * @param text text to scan
+     * @param consumer called for each hashtag, in order of appearance
+     */
+    static void scan(CharSequence text, HashtagConsumer consumer) {
+        int state = OUTSIDE;
+        int start = 0;
+        boolean allDigits = true;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (isHashtagChar(c)) {
+                if (state == HASH) {
+                    state = TAG;
+                    start = i;
+                    allDigits = true;
+                } else if (state != TAG) {
+                    state = WORD;
+                }
+                allDigits &= Character.isDigit(c);
+            } else {
+                if (state == TAG && !allDigits) {
+                    consumer.hashtag(text, start, i);
+                }
+                state = c == '#' && state != WORD && state != TAG ? HASH : OUTSIDE;
+            }
+        }
+        if (state == TAG && !allDigits) {
+            consumer.hashtag(text, start, length);
+        }
+    }
+
+    /**
+     * @param c a character
+     * @return true iff c is valid in a hashtag
+     */
+    static boolean isHashtagChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    /**
+     * Count the hashtags in some tweets, each distinct tag once per tweet.
+     * Tags are interned as they are found, so a tag seen before costs no
+     * allocation.
+     *
+     * @param tweets list of tweets, not modified by this method
+     * @param from index of the first tweet to scan
+     * @param to index just after the last tweet to scan
+     * @param counts summary that receives each hashtag
+     */
+    static void countHashtags(List<Tweet> tweets, int from, int to, HeavyHitters counts) {
+        CaseFoldedDictionary tags = new CaseFoldedDictionary();
+        List<String> keys = new ArrayList<>(); // case-folded form of each tag id
+        IntHashSet seen = new IntHashSet();    // tag ids already counted for this tweet
+        HashtagConsumer consumer = (text, start, end) -> {
+            int id = tags.intern(text, start, end);
+            if (id == keys.size()) {
+                keys.add(CaseFoldedDictionary.fold(tags.name(id)));
+            }
+            if (seen.add(id)) {
+                counts.add(tags.name(id), keys.get(id), 1);
+            }
+        };
+        for (int i = from; i < to; i++) {
+            scan(tweets.get(i).getText(), consumer);
+            seen.clear();
+        }
+    }
+
+    /**
+     * Count the hashtags in some tweets with fork-join tasks, each building
+     * its own summary, and merge the summaries.
+     *
+     * @param tweets list of tweets, not modified by this method
+     * @param capacity number of counters in each summary, requires capacity >= 1
+     * @return summary of the hashtags, each distinct tag counted once per tweet
+     */
+    static HeavyHitters countHashtagsParallel(List<Tweet> tweets, int capacity) {
+        List<Tweet> indexable = tweets instanceof RandomAccess ? tweets : new ArrayList<>(tweets);
+        return new CountTask(indexable, 0, indexable.size(), capacity).invoke();
+    }
+
+    /*
+     * Counts a range of tweets, splitting it in half until it is below the
+     * threshold.
+     */
+    private static class CountTask extends RecursiveTask<HeavyHitters> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Tweet> tweets;
+        private final int from;
+        private final int to;
+        private final int capacity;
+
+        CountTask(List<Tweet> tweets, int from, int to, int capacity) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+            this.capacity = capacity;
+        }
+
+        @Override protected HeavyHitters compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                HeavyHitters counts = new HeavyHitters(capacity);
+                countHashtags(tweets, from, to, counts);
+                return counts;
+            }
+            int mid = (from + to) >>> 1;
+            CountTask left = new CountTask(tweets, from, mid, capacity);
+            left.fork();
+            HeavyHitters right = new CountTask(tweets, mid, to, capacity).compute();
+            HeavyHitters merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+}
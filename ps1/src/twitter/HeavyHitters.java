@@ -0,0 +1,306 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HeavyHitters is a mutable, fixed-memory summary of how often each item
+ * occurs in a stream too large to count exactly, using the Space-Saving
+ * algorithm. Items are strings compared ignoring case, such as hashtags.
+ *
+ * The summary keeps at most capacity counters. An item that is not counted
+ * replaces the item with the smallest count, inheriting that count as its
+ * error. So for every item x with true count f(x):
+ *    estimate(x) - error(x) <= f(x) <= estimate(x)
+ * where an item that is not counted has error(x) == estimate(x) == the
+ * smallest count (or 0 if there are fewer than capacity items). Before any
+ * merge, the smallest count is at most total / capacity, so every item with
+ * f(x) > total / capacity is counted.
+ *
+ * Summaries built by different threads over disjoint parts of a stream can
+ * be merged; the merged summary keeps the estimate bounds for the combined
+ * stream.
+ *
+ * HeavyHitters is not safe for use by multiple threads.
+ */
+public class HeavyHitters {
+
+    /**
+     * An immutable item with its estimated count and the largest amount by
+     * which that estimate may exceed the true count.
+     */
+    public static class Entry {
+        private final String item;
+        private final long count;
+        private final long error;
+
+        private Entry(String item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+
+        /** @return the item, spelled as when it was first counted */
+        public String getItem() {
+            return item;
+        }
+
+        /** @return upper bound on the number of times the item occurred */
+        public long getCount() {
+            return count;
+        }
+
+        /** @return getCount() minus a lower bound on the number of times the item occurred */
+        public long getError() {
+            return error;
+        }
+
+        @Override public String toString() {
+            return item + "=" + count + "+/-" + error;
+        }
+    }
+
+    private final int capacity;
+    private final String[] names;
+    private final String[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private int size = 0;
+    private long total = 0;
+    /* Rep invariant:
+     *    0 <= size <= capacity, and the arrays have length capacity
+     *    keys[i] == CaseFoldedDictionary.fold(names[i]) for i < size, all distinct
+     *    slots maps keys[i] to i for each i < size, and has no other entries
+     *    counts[0..size) is a binary min-heap: counts[(i-1)/2] <= counts[i]
+     *    0 <= errors[i] <= counts[i]
+     * Abstraction function:
+     *    represents a summary of a stream of total items, in which item
+     *    names[i] occurred between counts[i] - errors[i] and counts[i] times,
+     *    and every other item occurred at most min(counts) times if
+     *    size == capacity, or not at all otherwise.
+     */
+
+    /**
+     * Make an empty summary.
+     *
+     * @param capacity number of counters, requires capacity >= 1
+     */
+    public HeavyHitters(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("requires capacity >= 1");
+        }
+        this.capacity = capacity;
+        this.names = new String[capacity];
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+    }
+
+    /**
+     * Add one occurrence of an item, in O(log capacity) time.
+     *
+     * @param item item that occurred
+     */
+    public void add(String item) {
+        add(item, 1);
+    }
+
+    /**
+     * Add occurrences of an item, in O(log capacity) time.
+     *
+     * @param item item that occurred
+     * @param weight number of occurrences, requires weight >= 1
+     */
+    public void add(String item, long weight) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("requires weight >= 1");
+        }
+        add(item, CaseFoldedDictionary.fold(item), weight);
+    }
+
+    /**
+     * Add occurrences of an item whose case-folded form is already known.
+     *
+     * @param item item that occurred
+     * @param key CaseFoldedDictionary.fold(item)
+     * @param weight number of occurrences, requires weight >= 1
+     */
+    void add(String item, String key, long weight) {
+        assert key.equals(CaseFoldedDictionary.fold(item)) && weight >= 1;
+        total += weight;
+        Integer slot = slots.get(key);
+        if (slot != null) {
+            counts[slot] += weight;
+            siftDown(slot);
+        } else if (size < capacity) {
+            set(size, item, key, weight, 0);
+            size++;
+            siftUp(size - 1);
+        } else {
+            // replace the item with the smallest count, which may have occurred that often
+            slots.remove(keys[0]);
+            set(0, item, key, counts[0] + weight, counts[0]);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Add the items summarized by another summary, as though this summary had
+     * seen both streams. The estimate bounds in the class specification hold
+     * for the combined stream.
+     *
+     * @param other summary of another stream; not modified by this method
+     */
+    public void merge(HeavyHitters other) {
+        // an item a summary does not count may have occurred up to its smallest count
+        long thisMissing = size == capacity ? counts[0] : 0;
+        long otherMissing = other.size == other.capacity ? other.counts[0] : 0;
+
+        List<Entry> combined = new ArrayList<>(size + other.size);
+        for (int i = 0; i < size; i++) {
+            Integer j = other.slots.get(keys[i]);
+            long count = counts[i] + (j == null ? otherMissing : other.counts[j]);
+            long error = errors[i] + (j == null ? otherMissing : other.errors[j]);
+            combined.add(new Entry(names[i], count, error));
+        }
+        for (int j = 0; j < other.size; j++) {
+            if (!slots.containsKey(other.keys[j])) {
+                combined.add(new Entry(other.names[j], other.counts[j] + thisMissing,
+                        other.errors[j] + thisMissing));
+            }
+        }
+        Collections.sort(combined, (a, b) -> Long.compare(b.count, a.count));
+
+        slots.clear();
+        size = Math.min(capacity, combined.size());
+        for (int i = 0; i < size; i++) {
+            Entry entry = combined.get(i);
+            set(i, entry.item, CaseFoldedDictionary.fold(entry.item), entry.count, entry.error);
+        }
+        // descending order is a max-heap; rebuild as a min-heap
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+        total += other.total;
+    }
+
+    /**
+     * @return number of items added, including those added by merge()
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * @return number of counters
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @param item an item
+     * @return upper bound on the number of times item occurred, ignoring case
+     */
+    public long estimate(String item) {
+        Integer slot = slots.get(CaseFoldedDictionary.fold(item));
+        if (slot != null) {
+            return counts[slot];
+        }
+        return size == capacity ? counts[0] : 0;
+    }
+
+    /**
+     * @param item an item
+     * @return estimate(item) minus a lower bound on the number of times item
+     *         occurred, ignoring case
+     */
+    public long error(String item) {
+        Integer slot = slots.get(CaseFoldedDictionary.fold(item));
+        return slot != null ? errors[slot] : estimate(item);
+    }
+
+    /**
+     * Find the items that occurred most.
+     *
+     * @param k maximum number of entries to return, requires k >= 0
+     * @return the min(k, n) counted items with the highest estimates, among
+     *         the n items counted, in descending order of estimate; ties are
+     *         ordered by item, ignoring case.
+     */
+    public List<Entry> top(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byCount = Long.compare(counts[b], counts[a]);
+            return byCount != 0 ? byCount : keys[a].compareTo(keys[b]);
+        });
+        List<Entry> top = new ArrayList<>(Math.min(k, size));
+        for (int i = 0; i < k && i < size; i++) {
+            int slot = order[i];
+            top.add(new Entry(names[slot], counts[slot], errors[slot]));
+        }
+        return top;
+    }
+
+    private void set(int slot, String name, String key, long count, long error) {
+        names[slot] = name;
+        keys[slot] = key;
+        counts[slot] = count;
+        errors[slot] = error;
+        slots.put(key, slot);
+    }
+
+    private void swap(int a, int b) {
+        String name = names[a];
+        names[a] = names[b];
+        names[b] = name;
+        String key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        slots.put(keys[a], a);
+        slots.put(keys[b], b);
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0 && counts[(slot - 1) / 2] > counts[slot]) {
+            swap(slot, (slot - 1) / 2);
+            slot = (slot - 1) / 2;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int smallest = slot;
+            for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                if (counts[child] < counts[smallest]) {
+                    smallest = child;
+                }
+            }
+            if (smallest == slot) {
+                return;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * HyperLogLog is a mutable, fixed-memory estimate of the number of distinct
+ * Twitter usernames in a stream, ignoring case.
+ *
+ * Each username is hashed to 64 bits; the first precision bits pick one of
+ * 2^precision registers, and the register keeps the longest run of leading
+ * zeros seen in the rest of the hash. The estimate has a relative standard
+ * error of about 1.04 / sqrt(2^precision), using one byte per register: 16 KB
+ * at precision 14 gives about 0.8%, however many usernames are added.
+ *
+ * Estimates for disjoint or overlapping partitions of a stream can be merged
+ * into the estimate for their union.
+ *
+ * HyperLogLog is not safe for use by multiple threads.
+ */
+public class HyperLogLog {
+
+    /** Smallest supported precision. */
+    public static final int MIN_PRECISION = 4;
+
+    /** Largest supported precision. */
+    public static final int MAX_PRECISION = 18;
+
+    /** Default precision, 2^14 registers with a relative error of about 0.8%. */
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+    /* Rep invariant:
+     *    MIN_PRECISION <= precision <= MAX_PRECISION
+     *    registers.length == 2^precision
+     *    0 <= registers[i] <= 64 - precision + 1
+     * Abstraction function:
+     *    represents the set of case-folded usernames added so far, summarized
+     *    by registers[i] == largest position of the first 1 bit, counting
+     *    from 1, among the low 64 - precision hash bits of the usernames whose
+     *    top precision hash bits are i (0 if there are none).
+     */
+
+    /**
+     * Make an empty estimate with the default precision.
+     */
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Make an empty estimate.
+     *
+     * @param precision log2 of the number of registers, requires
+     *                  MIN_PRECISION <= precision <= MAX_PRECISION
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("requires " + MIN_PRECISION + " <= precision <= " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Add a username.
+     *
+     * @param username a Twitter username
+     */
+    public void add(String username) {
+        add(username, 0, username.length());
+    }
+
+    /**
+     * Add a username found in some text, without copying it.
+     *
+     * @param text text containing a Twitter username
+     * @param start index of the first character of the username
+     * @param end index just after the last character of the username
+     */
+    void add(CharSequence text, int start, int end) {
+        long hash = hash(text, start, end);
+        int register = (int) (hash >>> (64 - precision));
+        // rank of the first 1 bit in the remaining bits; the sentinel bit bounds it
+        long rest = (hash << precision) | (1L << (precision - 1));
+        int rank = Long.numberOfLeadingZeros(rest) + 1;
+        if (rank > registers[register]) {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    /**
+     * Add the usernames summarized by another estimate, so that this estimate
+     * counts the union of both streams.
+     *
+     * @param other estimate with the same precision; not modified by this method
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("requires equal precision, " + precision + " != " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @return log2 of the number of registers
+     */
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * @return approximate relative standard error of estimate()
+     */
+    public double relativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * @return estimated number of distinct usernames added, ignoring case
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double raw = alpha(m) * m * m / sum;
+        if (raw <= 2.5 * m && zeros > 0) {
+            // small cardinalities: count empty registers instead (linear counting)
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        // with 64-bit hashes, collisions are negligible at any realistic cardinality
+        return Math.round(raw);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+        case 16:
+            return 0.673;
+        case 32:
+            return 0.697;
+        case 64:
+            return 0.709;
+        default:
+            return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /*
+     * 64-bit hash of the case-folded username text[start..end): FNV-1a over
+     * the folded characters, finished with the MurmurHash3 mixer so that
+     * every output bit depends on every input bit.
+     */
+    private static long hash(CharSequence text, int start, int end) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= UsernameDictionary.foldChar(text.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,114 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * IntHashSet is a mutable set of nonnegative ints, such as dictionary ids,
+ * stored without boxing.
+ */
+class IntHashSet {
+
+    private static final int EMPTY = -1;
+
+    private int[] slots = newSlots(4);
+    private int size = 0;
+    /* Rep invariant:
+     *    slots.length is a power of two, and size < slots.length / 2 (or size == 0)
+     *    size == number of non-EMPTY slots
+     *    each element appears exactly once in slots, reachable by linear
+     *      probing from slot mix(element) & (slots.length - 1)
+     * Abstraction function:
+     *    represents the set of non-EMPTY values in slots
+     */
+
+    /**
+     * Add an element to this set.
+     *
+     * @param value element to add, requires value >= 0
+     * @return true iff value was not already in the set
+     */
+    boolean add(int value) {
+        assert value >= 0;
+        int slot = find(value);
+        if (slots[slot] == value) {
+            return false;
+        }
+        slots[slot] = value;
+        size++;
+        if (size * 2 >= slots.length) {
+            int[] old = slots;
+            slots = newSlots(old.length * 2);
+            for (int element : old) {
+                if (element != EMPTY) {
+                    slots[find(element)] = element;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param value an int
+     * @return true iff value is in this set
+     */
+    boolean contains(int value) {
+        return value >= 0 && slots[find(value)] == value;
+    }
+
+    /**
+     * Remove every element from this set, keeping its capacity.
+     */
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(slots, EMPTY);
+            size = 0;
+        }
+    }
+
+    /**
+     * @return number of elements in this set
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return a new array of the elements of this set, in no particular order
+     */
+    int[] toArray() {
+        int[] elements = new int[size];
+        int k = 0;
+        for (int element : slots) {
+            if (element != EMPTY) {
+                elements[k++] = element;
+            }
+        }
+        return elements;
+    }
+
+    /*
+     * @return slot holding value, or the empty slot where it belongs
+     */
+    private int find(int value) {
+        int mask = slots.length - 1;
+        int slot = mix(value) & mask;
+        while (slots[slot] != EMPTY && slots[slot] != value) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+}
@@ -0,0 +1,103 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * IntList is a mutable, growable list of primitive ints, used for posting
+ * lists of tweet positions.
+ */
+class IntList {
+
+    private int[] elements;
+    private int size = 0;
+    /* Rep invariant:
+     *    0 <= size <= elements.length
+     * Abstraction function:
+     *    represents the list elements[0..size)
+     */
+
+    /**
+     * Make an empty IntList.
+     */
+    IntList() {
+        this(4);
+    }
+
+    /**
+     * Make an empty IntList with room for capacity elements.
+     *
+     * @param capacity initial capacity, requires capacity >= 0
+     */
+    IntList(int capacity) {
+        this.elements = new int[capacity];
+    }
+
+    /**
+     * Append an element to the end of this list.
+     *
+     * @param value element to add
+     */
+    void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(4, size * 2));
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * @param index requires 0 <= index < size()
+     * @return element at index
+     */
+    int get(int index) {
+        assert index < size;
+        return elements[index];
+    }
+
+    /**
+     * @return number of elements in this list
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return true iff this list has no elements
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param value an int
+     * @return true iff value is in this list, which must be sorted in
+     *         increasing order; takes O(log size()) time
+     */
+    boolean containsSorted(int value) {
+        return Arrays.binarySearch(elements, 0, size, value) >= 0;
+    }
+
+    /**
+     * Remove every element from this list, keeping its capacity.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return last element, requires !isEmpty()
+     */
+    int last() {
+        assert size > 0;
+        return elements[size - 1];
+    }
+
+    /**
+     * @return a new array holding the elements of this list, in order
+     */
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
@@ -0,0 +1,225 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * KeywordIndex is a mutable inverted index from words to the tweets that
+ * contain them, built once over a corpus of tweets and extended by appending
+ * more tweets.
+ *
+ * Words are the nonempty sequences of nonspace characters in a tweet's text,
+ * bounded by space characters and the ends of the text, as in
+ * Filter.containing(). Words are case-folded, so lookups are not
+ * case-sensitive. Each word maps to a posting list: the strictly increasing
+ * positions of the tweets that contain it. Queries merge posting lists
+ * instead of rescanning the corpus.
+ *
+ * KeywordIndex is not safe for use by multiple threads while tweets are being
+ * added.
+ */
+public class KeywordIndex {
+
+    private final List<Tweet> tweets = new ArrayList<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+    /* Rep invariant:
+     *    every key of postings is nonempty, contains no space, and is case-folded
+     *    every posting list is nonempty and strictly increasing,
+     *      with elements in 0..tweets.size()-1
+     *    position p is in postings[w] iff the text of tweets[p] contains
+     *      a word whose case-folding is w
+     * Abstraction function:
+     *    represents the corpus tweets, in the order they were added, indexed
+     *    by the case-folded words they contain.
+     */
+
+    /**
+     * Make an empty KeywordIndex.
+     */
+    public KeywordIndex() {
+    }
+
+    /**
+     * Make a KeywordIndex over a list of tweets.
+     *
+     * @param tweets tweets to add to the corpus, in order; not modified by
+     *               this constructor.
+     */
+    public KeywordIndex(List<Tweet> tweets) {
+        addAll(tweets);
+    }
+
+    /**
+     * Append a tweet to the corpus.
+     *
+     * @param tweet tweet to add; its position is the current size()
+     */
+    public void add(Tweet tweet) {
+        int position = tweets.size();
+        tweets.add(tweet);
+
+        String text = tweet.getText();
+        int start = 0;
+        while (start <= text.length()) {
+            int end = text.indexOf(' ', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            if (end > start) {
+                String word = fold(text.substring(start, end));
+                IntList list = postings.get(word);
+                if (list == null) {
+                    list = new IntList();
+                    postings.put(word, list);
+                }
+                if (list.isEmpty() || list.last() != position) {
+                    list.add(position);
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Append tweets to the corpus.
+     *
+     * @param tweets tweets to add, in order; not modified by this method.
+     */
+    public void addAll(List<Tweet> tweets) {
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * @return number of tweets in the corpus
+     */
+    public int size() {
+        return tweets.size();
+    }
+
+    /**
+     * @param word a word, as defined by Filter.containing()
+     * @return number of tweets in the corpus containing word, ignoring case
+     */
+    public int frequency(String word) {
+        IntList list = postings.get(fold(word));
+        return list == null ? 0 : list.size();
+    }
+
+    /**
+     * Find tweets that contain at least one of some words.
+     *
+     * @param words a list of words, as defined by Filter.containing()
+     * @return all and only the tweets in the corpus that contain at least one
+     *         of the words, ignoring case, as defined by Filter.containing(),
+     *         in the order they were added.
+     */
+    public List<Tweet> containing(List<String> words) {
+        return materialize(positionsContainingAny(words));
+    }
+
+    /**
+     * Find tweets that contain at least one of some words, without copying them.
+     *
+     * @param words a list of words, as defined by Filter.containing()
+     * @return an unmodifiable view of the tweets returned by containing(words).
+     *         The view does not include tweets added later.
+     */
+    public List<Tweet> containingView(List<String> words) {
+        return new PositionList(tweets, positionsContainingAny(words));
+    }
+
+    /**
+     * Find tweets that contain every one of some words.
+     *
+     * @param words a nonempty list of words, as defined by Filter.containing()
+     * @return all and only the tweets in the corpus that contain every one of
+     *         the words, ignoring case, in the order they were added.
+     */
+    public List<Tweet> containingAll(List<String> words) {
+        return materialize(positionsContainingAll(words));
+    }
+
+    /**
+     * @param words a list of words
+     * @return strictly increasing positions of the tweets that contain at
+     *         least one of the words, ignoring case
+     */
+    int[] positionsContainingAny(List<String> words) {
+        List<int[]> lists = new ArrayList<>();
+        for (String word : foldAll(words)) {
+            IntList list = postings.get(word);
+            if (list != null) {
+                lists.add(list.toArray());
+            }
+        }
+        return Postings.union(lists.toArray(new int[lists.size()][]));
+    }
+
+    /**
+     * @param words a nonempty list of words
+     * @return strictly increasing positions of the tweets that contain every
+     *         one of the words, ignoring case
+     */
+    int[] positionsContainingAll(List<String> words) {
+        List<int[]> lists = new ArrayList<>();
+        for (String word : foldAll(words)) {
+            IntList list = postings.get(word);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list.toArray());
+        }
+        return Postings.intersect(lists.toArray(new int[lists.size()][]));
+    }
+
+    /**
+     * @param words a list of words
+     * @return the posting lists of the distinct words that occur in the
+     *         corpus, ignoring case, for checking positions against with
+     *         IntList.containsSorted(); callers must not modify them
+     */
+    IntList[] postingLists(List<String> words) {
+        List<IntList> lists = new ArrayList<>();
+        for (String word : foldAll(words)) {
+            IntList list = postings.get(word);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        return lists.toArray(new IntList[lists.size()]);
+    }
+
+    private List<Tweet> materialize(int[] positions) {
+        List<Tweet> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(tweets.get(position));
+        }
+        return result;
+    }
+
+    private static Set<String> foldAll(List<String> words) {
+        Set<String> folded = new LinkedHashSet<>();
+        for (String word : words) {
+            folded.add(fold(word));
+        }
+        return folded;
+    }
+
+    /**
+     * @param word a word
+     * @return the case-folded form of word, equal for words that are the same
+     *         ignoring case, one character at a time as in KeywordMatcher
+     */
+    static String fold(String word) {
+        return CaseFoldedDictionary.fold(word);
+    }
+}
@@ -0,0 +1,247 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * KeywordMatcher is an immutable, precompiled matcher for tweets that contain
+ * at least one of a list of words, as defined by Filter.containing(), for
+ * scanning tweets that have no KeywordIndex.
+ *
+ * The words are compiled into an Aho-Corasick automaton over case-folded
+ * characters. Since a word only matches a whole space-delimited word of the
+ * text, every failure transition leads to a dead state that waits for the next
+ * space, so the automaton is just its trie: each character of the text is
+ * folded and read once, and nothing is allocated while matching.
+ *
+ * Characters are compared ignoring case, one at a time, with
+ * CaseFoldedDictionary.foldChar(), the same fold KeywordIndex uses, so a
+ * matcher and an index give the same answers.
+ */
+public class KeywordMatcher {
+
+    /** Largest number of tweets filtered by one fork-join task without splitting. */
+    static final int PARALLEL_THRESHOLD = MentionScanner.PARALLEL_THRESHOLD;
+
+    private static final int ROOT = 0;
+    private static final int DEAD = -1;
+    private static final long EMPTY = -1;
+
+    private final long[] keys;
+    private final int[] targets;
+    private final boolean[] accepting;
+    /* Rep invariant:
+     *    keys.length == targets.length is a power of 2, and at most half full
+     *    each key is EMPTY or (state << 16 | c) for a state in 0..accepting.length-1
+     *      and a case-folded nonspace character c, with no key repeated
+     *    targets[i] is in 1..accepting.length-1 where keys[i] != EMPTY
+     *    every state other than ROOT is the target of exactly one key
+     *    accepting[ROOT] is false
+     * Abstraction function:
+     *    represents the set of words spelled by the paths from ROOT to the
+     *    accepting states, where the key (s << 16 | c) with target t is an edge
+     *    from s to t labelled c.
+     */
+
+    /**
+     * Compile a matcher for a list of words.
+     *
+     * @param words a list of words, as defined by Filter.containing(); words
+     *              that are empty or contain a space never match, and the
+     *              list is not modified by this method
+     */
+    public KeywordMatcher(List<String> words) {
+        int maxStates = 1;
+        for (String word : words) {
+            maxStates += word.length();
+        }
+        int capacity = Integer.highestOneBit(Math.max(2, maxStates * 2 - 1)) << 1;
+        long[] keys = new long[capacity];
+        int[] targets = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        boolean[] accepting = new boolean[maxStates];
+        int states = 1;
+        for (String word : words) {
+            if (word.isEmpty() || word.indexOf(' ') >= 0) {
+                continue;
+            }
+            int state = ROOT;
+            for (int i = 0; i < word.length(); i++) {
+                long key = key(state, CaseFoldedDictionary.foldChar(word.charAt(i)));
+                int slot = slot(keys, key);
+                if (keys[slot] == EMPTY) {
+                    keys[slot] = key;
+                    targets[slot] = states++;
+                }
+                state = targets[slot];
+            }
+            accepting[state] = true;
+        }
+        this.keys = keys;
+        this.targets = targets;
+        this.accepting = Arrays.copyOf(accepting, states);
+        checkRep();
+    }
+
+    private void checkRep() {
+        assert Integer.bitCount(keys.length) == 1 && keys.length == targets.length;
+        assert !accepting[ROOT];
+    }
+
+    /**
+     * @param text text of a tweet
+     * @return true iff text, as a sequence of nonempty words bounded by space
+     *         characters and the ends of the string, includes at least one of
+     *         the words, ignoring case
+     */
+    public boolean matches(CharSequence text) {
+        int state = ROOT;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                if (state != DEAD && accepting[state]) {
+                    return true;
+                }
+                state = ROOT;
+            } else if (state != DEAD) {
+                state = next(state, CaseFoldedDictionary.foldChar(c));
+            }
+        }
+        return state != DEAD && accepting[state];
+    }
+
+    /**
+     * Match UTF-8 encoded text without decoding it to a String.
+     *
+     * @param bytes buffer holding the text; only read by absolute index
+     * @param offset index in bytes of the first byte of the text
+     * @param length length of the text in bytes, which must be well-formed UTF-8
+     * @return true iff the text matches, as defined by matches(text)
+     */
+    boolean matches(ByteBuffer bytes, int offset, int length) {
+        int state = ROOT;
+        int end = offset + length;
+        for (int i = offset; i < end; ) {
+            int b = bytes.get(i++);
+            if (b == ' ') {
+                if (state != DEAD && accepting[state]) {
+                    return true;
+                }
+                state = ROOT;
+            } else if (state == DEAD) {
+                // no byte of a multibyte character is a space, so skip to the next space
+            } else if (b >= 0) {
+                state = next(state, CaseFoldedDictionary.foldChar((char) b));
+            } else if ((b & 0xe0) == 0xc0) {
+                char c = (char) (((b & 0x1f) << 6) | (bytes.get(i++) & 0x3f));
+                state = next(state, CaseFoldedDictionary.foldChar(c));
+            } else if ((b & 0xf0) == 0xe0) {
+                char c = (char) (((b & 0x0f) << 12) | ((bytes.get(i++) & 0x3f) << 6) | (bytes.get(i++) & 0x3f));
+                state = next(state, CaseFoldedDictionary.foldChar(c));
+            } else {
+                int codePoint = ((b & 0x07) << 18) | ((bytes.get(i++) & 0x3f) << 12)
+                        | ((bytes.get(i++) & 0x3f) << 6) | (bytes.get(i++) & 0x3f);
+                // surrogates fold to themselves, as in matches(text)
+                state = next(state, Character.highSurrogate(codePoint));
+                if (state != DEAD) {
+                    state = next(state, Character.lowSurrogate(codePoint));
+                }
+            }
+        }
+        return state != DEAD && accepting[state];
+    }
+
+    /**
+     * @param tweet a tweet
+     * @return true iff the text of tweet matches, as defined by matches(text)
+     */
+    public boolean matches(Tweet tweet) {
+        return matches(tweet.getText());
+    }
+
+    /**
+     * Find the tweets that match, splitting large lists across fork-join tasks.
+     *
+     * @param tweets a list of tweets, not modified by this method
+     * @return a new list of all and only the tweets in the list that match,
+     *         in the same order as in the list
+     */
+    public List<Tweet> filter(List<Tweet> tweets) {
+        if (tweets.size() <= PARALLEL_THRESHOLD) {
+            return filter(tweets, 0, tweets.size());
+        }
+        List<Tweet> indexable = tweets instanceof RandomAccess ? tweets : new ArrayList<>(tweets);
+        return new FilterTask(indexable, 0, indexable.size()).invoke();
+    }
+
+    private List<Tweet> filter(List<Tweet> tweets, int from, int to) {
+        List<Tweet> result = new ArrayList<>();
+        for (Tweet tweet : tweets.subList(from, to)) {
+            if (matches(tweet)) {
+                result.add(tweet);
+            }
+        }
+        return result;
+    }
+
+    private int next(int state, char c) {
+        int slot = slot(keys, key(state, c));
+        return keys[slot] == EMPTY ? DEAD : targets[slot];
+    }
+
+    private static long key(int state, char c) {
+        return ((long) state << 16) | c;
+    }
+
+    /*
+     * @return slot of key in keys, or of the empty slot where it would go
+     */
+    private static int slot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9e3779b97f4a7c15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /*
+     * Filters a range of tweets, splitting it in half until it is below the
+     * threshold.
+     */
+    private class FilterTask extends RecursiveTask<List<Tweet>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Tweet> tweets;
+        private final int from;
+        private final int to;
+
+        FilterTask(List<Tweet> tweets, int from, int to) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected List<Tweet> compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return filter(tweets, from, to);
+            }
+            int mid = (from + to) >>> 1;
+            FilterTask left = new FilterTask(tweets, from, mid);
+            left.fork();
+            List<Tweet> right = new FilterTask(tweets, mid, to).compute();
+            List<Tweet> merged = left.join();
+            merged.addAll(right);
+            return merged;
+        }
+    }
+}
@@ -6,6 +6,8 @@ package twitter;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -24,6 +26,11 @@ public class Main {
      */
     public static final URL SAMPLE_SERVER = makeURLAssertWellFormatted("http://courses.csail.mit.edu/6.005/ps1_tweets/tweetPoll.py");
     
+    /**
+     * Directory where responses from SAMPLE_SERVER are cached between runs.
+     */
+    public static final Path CACHE_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "ps1-tweet-cache");
+    
     private static URL makeURLAssertWellFormatted(String urlString) {
         try {
             return new URL(urlString);
@@ -46,7 +53,7 @@ public class Main {
 
         final List<Tweet> tweets;
         try {
-            tweets = TweetReader.readTweetsFromWeb(SAMPLE_SERVER);
+            tweets = TweetReader.readTweetsFromWeb(SAMPLE_SERVER, CACHE_DIRECTORY);
         } catch (IOException ioe) {
             throw new RuntimeException(ioe);
         }
@@ -57,8 +64,8 @@ public class Main {
         final Timespan span = Extract.getTimespan(tweets);
         System.err.println("ranging from " + span.getStart() + " to " + span.getEnd());
         
-        final Set<String> mentionedUsers = Extract.getMentionedUsers(tweets);
-        System.err.println("covers " + mentionedUsers.size() + " Twitter users");
+        final HyperLogLog mentionedUsers = Extract.countMentionedUsers(tweets, HyperLogLog.DEFAULT_PRECISION);
+        System.err.println("covers about " + mentionedUsers.estimate() + " Twitter users");
         
         // infer the follows graph
         final Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(tweets);
@@ -66,8 +73,8 @@ public class Main {
         
         // print the top-N influencers
         final int count = 10;
-        final List<String> influencers = SocialNetwork.influencers(followsGraph);
-        for (String username : influencers.subList(0, Math.min(count, influencers.size()))) {
+        final List<String> influencers = SocialNetwork.influencers(followsGraph, count);
+        for (String username : influencers) {
             System.out.println(username);
         }
     }
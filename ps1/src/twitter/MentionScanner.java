@@ -0,0 +1,151 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * MentionScanner finds the username-mentions in tweet text in a single pass,
+ * without allocating.
+ *
+ * A username-mention is "@" followed by a Twitter username (a maximal
+ * nonempty run of characters drawn from {A..Z, a..z, 0..9, _, -}), where the
+ * "@" is not immediately preceded by a character valid in a username. So an
+ * email address like bitdiddle@mit.edu does not mention mit, and "@alyssa."
+ * mentions alyssa.
+ */
+class MentionScanner {
+
+    /** Largest number of tweets scanned by one fork-join task without splitting. */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * Receives the mentions found by scan().
+     */
+    @FunctionalInterface
+    interface MentionConsumer {
+        /**
+         * Called once for each username-mention.
+         *
+         * @param text text being scanned
+         * @param start index of the first character of the username (just after "@")
+         * @param end index just after the last character of the username
+         */
+        void mention(CharSequence text, int start, int end);
+    }
+
+    private static final int OUTSIDE = 0; // previous character is not valid in a username
+    private static final int WORD = 1;    // inside a run of username characters that is not a mention
+    private static final int AT = 2;      // just after an "@" that may start a mention
+    private static final int MENTION = 3; // inside the username of a mention
+
+    private MentionScanner() {
+        // not instantiable
+    }
+
+    /**
+     * Find the username-mentions in text.
+     *
+     * @param text text to scan
+     * @param consumer called for each mention, in order of appearance
+     */
+    static void scan(CharSequence text, MentionConsumer consumer) {
+        int state = OUTSIDE;
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (isUsernameChar(c)) {
+                if (state == AT) {
+                    state = MENTION;
+                    start = i;
+                } else if (state != MENTION) {
+                    state = WORD;
+                }
+            } else {
+                if (state == MENTION) {
+                    consumer.mention(text, start, i);
+                }
+                state = c == '@' && state != WORD && state != MENTION ? AT : OUTSIDE;
+            }
+        }
+        if (state == MENTION) {
+            consumer.mention(text, start, length);
+        }
+    }
+
+    /**
+     * @param c a character
+     * @return true iff c is valid in a Twitter username
+     */
+    static boolean isUsernameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+    }
+
+    /**
+     * Intern the users mentioned in some tweets.
+     *
+     * @param tweets list of tweets, not modified by this method
+     * @param from index of the first tweet to scan
+     * @param to index just after the last tweet to scan
+     * @param mentioned dictionary in which to intern each mentioned username
+     */
+    static void mentionedUsers(List<Tweet> tweets, int from, int to, UsernameDictionary mentioned) {
+        MentionConsumer intern = (text, start, end) -> mentioned.intern(text, start, end);
+        for (Tweet tweet : tweets.subList(from, to)) {
+            scan(tweet.getText(), intern);
+        }
+    }
+
+    /**
+     * Intern the users mentioned in some tweets, scanning them with fork-join
+     * tasks and merging the per-task dictionaries.
+     *
+     * @param tweets list of tweets, not modified by this method
+     * @return dictionary of the mentioned usernames, each spelled as it is
+     *         first mentioned in the list
+     */
+    static UsernameDictionary mentionedUsersParallel(List<Tweet> tweets) {
+        List<Tweet> indexable = tweets instanceof RandomAccess ? tweets : new ArrayList<>(tweets);
+        return new ScanTask(indexable, 0, indexable.size()).invoke();
+    }
+
+    /*
+     * Scans a range of tweets, splitting it in half until it is below the
+     * threshold.
+     */
+    private static class ScanTask extends RecursiveTask<UsernameDictionary> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Tweet> tweets;
+        private final int from;
+        private final int to;
+
+        ScanTask(List<Tweet> tweets, int from, int to) {
+            this.tweets = tweets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected UsernameDictionary compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                UsernameDictionary mentioned = new UsernameDictionary();
+                mentionedUsers(tweets, from, to, mentioned);
+                return mentioned;
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(tweets, from, mid);
+            left.fork();
+            UsernameDictionary right = new ScanTask(tweets, mid, to).compute();
+            UsernameDictionary merged = left.join();
+            for (int id = 0; id < right.size(); id++) {
+                merged.intern(right.name(id));
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,440 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+/**
+ * MentionWindow is a mutable sliding window of mention counts over a stream
+ * of tweets, keyed on Tweet.getTimestamp(). It answers questions like "who
+ * was mentioned most in the last hour" without re-running Filter.inTimespan
+ * and Extract.getMentionedUsers over the whole history.
+ *
+ * Time is divided into buckets of a fixed width, and the window keeps the
+ * most recent bucketCount of them in a ring buffer. When a tweet arrives in a
+ * newer bucket, or advance() is called, the window slides forward and the
+ * buckets that fall out are evicted, subtracting their mentions from running
+ * counts. Only users mentioned in the window are kept, and a user is dropped
+ * as soon as their count falls to 0. So each slide costs time proportional to
+ * the mentions in the evicted buckets, queries over the whole window cost time
+ * proportional to the users mentioned in it, and memory is bounded by the
+ * window, not by the history.
+ *
+ * A user's count is the number of tweets in the window that mention them, as
+ * defined by Extract.getMentionedUsers(); usernames are compared ignoring
+ * case and spelled as they were first seen in the window. Tweet timestamps
+ * are kept to the millisecond, rounded down.
+ *
+ * MentionWindow is not safe for use by multiple threads.
+ */
+public class MentionWindow {
+
+    /*
+     * A user mentioned by at least one tweet in the window.
+     */
+    private static class User {
+        final String name;
+        final String folded;
+        final int hash;
+        int count = 0;          // tweets in the window that mention this user
+        long lastTweet = NONE;  // serial number of the last tweet counted in count
+        int spanCount = 0;      // scratch count for a timespan query, 0 between queries
+
+        User(String name, int hash) {
+            this.name = name;
+            this.folded = CaseFoldedDictionary.fold(name);
+            this.hash = hash;
+        }
+    }
+
+    /*
+     * The (tweet timestamp, mentioned user) pairs of one bucket, one pair per
+     * distinct user mentioned in each tweet.
+     */
+    private static class Bucket {
+        long index = NONE;
+        final List<User> users = new ArrayList<>();
+        long[] epochMillis = new long[16];
+
+        void add(User user, long millis) {
+            if (users.size() == epochMillis.length) {
+                epochMillis = Arrays.copyOf(epochMillis, epochMillis.length * 2);
+            }
+            epochMillis[users.size()] = millis;
+            users.add(user);
+        }
+    }
+
+    private static final long NONE = Long.MIN_VALUE;
+    private static final int MIN_TABLE = 16;
+
+    private final long bucketMillis;
+    private final Bucket[] ring;
+    private User[] table = new User[MIN_TABLE];
+    private int active = 0;
+    private long tweetSerial = 0;
+    private long newest = NONE;
+    /* Rep invariant:
+     *    bucketMillis >= 1, ring.length >= 1
+     *    if newest == NONE, every bucket is empty with index NONE
+     *    otherwise every bucket has index NONE (and is empty) or an index i
+     *      in newest-ring.length+1..newest, and is stored at ring[floorMod(i, ring.length)]
+     *    every timestamp in a bucket with index i lies in bucket i, i.e.
+     *      floorDiv(epoch millis, bucketMillis) == i
+     *    u.count == number of entries for user u across all buckets, and
+     *      u.count > 0, for every user u in a bucket
+     *    table holds exactly the users in buckets, active of them, no two with
+     *      the same folded name; table.length is a power of two >= MIN_TABLE,
+     *      active < table.length / 2, and each user is reachable by linear
+     *      probing from slot u.hash & (table.length - 1)
+     *    u.hash == CaseFoldedDictionary.foldedHash(u.name), u.folded == fold(u.name)
+     *    u.lastTweet <= tweetSerial, and u.spanCount == 0
+     * Abstraction function:
+     *    represents the mentions made by tweets in buckets
+     *    newest-ring.length+1..newest, where bucket i covers epoch millis
+     *    [i * bucketMillis, (i + 1) * bucketMillis); tweets in bucket i
+     *    mentioned u.name once for each entry (t, u) in that bucket.
+     */
+
+    /**
+     * Make an empty window.
+     *
+     * @param bucketWidth width of each time bucket, requires at least one millisecond
+     * @param bucketCount number of buckets kept, requires bucketCount >= 1
+     */
+    public MentionWindow(Duration bucketWidth, int bucketCount) {
+        if (bucketWidth.toMillis() < 1 || bucketCount < 1) {
+            throw new IllegalArgumentException("requires bucketWidth >= 1ms and bucketCount >= 1");
+        }
+        this.bucketMillis = bucketWidth.toMillis();
+        this.ring = new Bucket[bucketCount];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Add the mentions in a tweet, sliding the window forward first if the
+     * tweet is newer than the newest bucket.
+     *
+     * @param tweet tweet to add
+     * @return true iff the tweet was added; false if it is older than the
+     *         oldest bucket in the window, in which case it is ignored
+     */
+    public boolean add(Tweet tweet) {
+        long millis = TimeIndex.toEpochMilli(tweet.getTimestamp());
+        long index = Math.floorDiv(millis, bucketMillis);
+        if (newest != NONE && index <= newest - ring.length) {
+            return false;
+        }
+        slideTo(index);
+        Bucket bucket = ring[slot(index)];
+        bucket.index = index;
+        long serial = ++tweetSerial;
+        MentionScanner.scan(tweet.getText(), (text, start, end) -> {
+            User user = intern(text, start, end);
+            if (user.lastTweet != serial) {
+                user.lastTweet = serial;
+                user.count++;
+                bucket.add(user, millis);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Slide the window forward so that its newest bucket contains now,
+     * evicting older buckets. Does nothing if now is in or before the newest
+     * bucket.
+     *
+     * @param now current date/time
+     */
+    public void advance(Instant now) {
+        slideTo(Math.floorDiv(TimeIndex.toEpochMilli(now), bucketMillis));
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return number of tweets in the window that mention username, ignoring case
+     */
+    public int count(String username) {
+        if (username.isEmpty()) {
+            return 0;
+        }
+        User user = table[find(username, 0, username.length(),
+                CaseFoldedDictionary.foldedHash(username, 0, username.length()))];
+        return user == null ? 0 : user.count;
+    }
+
+    /**
+     * @return a new map from each user mentioned by a tweet in the window to
+     *         the number of such tweets
+     */
+    public Map<String, Integer> counts() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (User user : table) {
+            if (user != null) {
+                counts.put(user.name, user.count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Find the users mentioned most in the window, in time proportional to
+     * the n users mentioned in it times log k.
+     *
+     * @param k maximum number of usernames to return, requires k >= 0
+     * @return the min(k, n) usernames mentioned by the most tweets in the
+     *         window, among the n users mentioned at all, in descending order
+     *         of count; ties are ordered by username, ignoring case
+     */
+    public List<String> top(int k) {
+        List<User> users = new ArrayList<>(active);
+        for (User user : table) {
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return top(users, user -> user.count, k);
+    }
+
+    /**
+     * Count mentions over part of the window. Only tweets still in the window
+     * are counted, so for exact results timespan should lie within the
+     * buckets the window keeps.
+     *
+     * @param timespan timespan
+     * @return a new map from each user mentioned by a tweet in the window sent
+     *         during timespan, as defined by Filter.inTimespan(), to the number
+     *         of such tweets. Takes time proportional to the mentions in the
+     *         buckets that overlap timespan.
+     */
+    public Map<String, Integer> counts(Timespan timespan) {
+        List<User> touched = countIn(timespan);
+        Map<String, Integer> result = new HashMap<>();
+        for (User user : touched) {
+            result.put(user.name, user.spanCount);
+        }
+        clearSpanCounts(touched);
+        return result;
+    }
+
+    /**
+     * Find the users mentioned most over part of the window.
+     *
+     * @param timespan timespan
+     * @param k maximum number of usernames to return, requires k >= 0
+     * @return the min(k, n) usernames mentioned by the most tweets in
+     *         counts(timespan), among the n users mentioned at all, in
+     *         descending order of count; ties are ordered by username,
+     *         ignoring case
+     */
+    public List<String> top(Timespan timespan, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        List<User> touched = countIn(timespan);
+        List<String> result = top(touched, user -> user.spanCount, k);
+        clearSpanCounts(touched);
+        return result;
+    }
+
+    /*
+     * Count the mentions made during timespan into the spanCount of each
+     * user, which the caller must reset with clearSpanCounts().
+     *
+     * @return the users with nonzero span counts
+     */
+    private List<User> countIn(Timespan timespan) {
+        List<User> touched = new ArrayList<>();
+        if (newest == NONE) {
+            return touched;
+        }
+        // timestamps are whole milliseconds, so t > start iff t > floor(start), and t < end iff t < ceil(end)
+        long start = TimeIndex.toEpochMilli(timespan.getStart());
+        long end = ceilEpochMilli(timespan.getEnd());
+        long first = Math.max(Math.floorDiv(start, bucketMillis), newest - ring.length + 1);
+        long last = Math.min(Math.floorDiv(end, bucketMillis), newest);
+        for (long index = first; index <= last; index++) {
+            Bucket bucket = ring[slot(index)];
+            if (bucket.index != index) {
+                continue;
+            }
+            for (int i = 0; i < bucket.users.size(); i++) {
+                long millis = bucket.epochMillis[i];
+                if (millis > start && millis < end) {
+                    User user = bucket.users.get(i);
+                    if (user.spanCount++ == 0) {
+                        touched.add(user);
+                    }
+                }
+            }
+        }
+        return touched;
+    }
+
+    private static void clearSpanCounts(List<User> touched) {
+        for (User user : touched) {
+            user.spanCount = 0;
+        }
+    }
+
+    /*
+     * @return the names of the k candidates with the highest counts, in order
+     */
+    private static List<String> top(List<User> candidates, ToIntFunction<User> count, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        Comparator<User> byCount = (a, b) -> {
+            int byMentions = Integer.compare(count.applyAsInt(b), count.applyAsInt(a));
+            return byMentions != 0 ? byMentions : a.folded.compareTo(b.folded);
+        };
+        // keep the k most mentioned users seen so far, least mentioned at the head
+        PriorityQueue<User> top = new PriorityQueue<>(Math.max(1, k + 1), byCount.reversed());
+        for (int i = 0; k > 0 && i < candidates.size(); i++) {
+            top.add(candidates.get(i));
+            if (top.size() > k) {
+                top.poll();
+            }
+        }
+        List<User> users = new ArrayList<>(top);
+        users.sort(byCount);
+        List<String> usernames = new ArrayList<>(users.size());
+        for (User user : users) {
+            usernames.add(user.name);
+        }
+        return usernames;
+    }
+
+    /*
+     * Make index the newest bucket, if it is newer than the current one,
+     * evicting the buckets that fall out of the window.
+     */
+    private void slideTo(long index) {
+        if (newest != NONE && index <= newest) {
+            return;
+        }
+        // at most ring.length buckets can need eviction, however far the window slides
+        long from = newest == NONE ? index : Math.max(newest + 1, index - ring.length + 1);
+        for (long i = from; i <= index; i++) {
+            evict(ring[slot(i)]);
+        }
+        newest = index;
+    }
+
+    private void evict(Bucket bucket) {
+        for (User user : bucket.users) {
+            if (--user.count == 0) {
+                remove(user);
+            }
+        }
+        bucket.users.clear();
+        bucket.index = NONE;
+        if (table.length > MIN_TABLE && active * 8 < table.length) {
+            rehash(table.length / 2);
+        }
+    }
+
+    /*
+     * @return the user mentioned as text[start..end), adding them with count 0
+     *         if they are not in the window
+     */
+    private User intern(CharSequence text, int start, int end) {
+        int hash = CaseFoldedDictionary.foldedHash(text, start, end);
+        int slot = find(text, start, end, hash);
+        if (table[slot] == null) {
+            table[slot] = new User(text.subSequence(start, end).toString(), hash);
+            active++;
+            if (active * 2 >= table.length) {
+                rehash(table.length * 2);
+            }
+            return table[find(text, start, end, hash)];
+        }
+        return table[slot];
+    }
+
+    /*
+     * @return index of the slot holding the user text[start..end), or of the
+     *         empty slot where they belong
+     */
+    private int find(CharSequence text, int start, int end, int hash) {
+        int mask = table.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            User user = table[slot];
+            if (user == null || (user.hash == hash && foldedEquals(user.folded, text, start, end))) {
+                return slot;
+            }
+        }
+    }
+
+    /*
+     * Remove a user from the table, shifting back later users of the same
+     * probe run so that no lookup stops early at the gap.
+     */
+    private void remove(User user) {
+        int mask = table.length - 1;
+        int gap = user.hash & mask;
+        while (table[gap] != user) {
+            gap = (gap + 1) & mask;
+        }
+        for (int next = (gap + 1) & mask; table[next] != null; next = (next + 1) & mask) {
+            int home = table[next].hash & mask;
+            // the user at next may fill the gap iff the gap lies on its probe path
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+        }
+        table[gap] = null;
+        active--;
+    }
+
+    private void rehash(int capacity) {
+        User[] old = table;
+        table = new User[capacity];
+        int mask = capacity - 1;
+        for (User user : old) {
+            if (user != null) {
+                int slot = user.hash & mask;
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = user;
+            }
+        }
+    }
+
+    private static boolean foldedEquals(String folded, CharSequence text, int start, int end) {
+        if (folded.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < folded.length(); i++) {
+            if (folded.charAt(i) != CaseFoldedDictionary.foldChar(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // helper method to round an instant up to a whole number of epoch milliseconds
+    private static long ceilEpochMilli(Instant instant) {
+        long millis = TimeIndex.toEpochMilli(instant);
+        return instant.getNano() % 1_000_000 != 0 && millis != Long.MAX_VALUE ? millis + 1 : millis;
+    }
+
+    private int slot(long index) {
+        return (int) Math.floorMod(index, (long) ring.length);
+    }
+}
@@ -0,0 +1,265 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * PageRank ranks the users of a social network by PageRank, a richer signal of
+ * influence than raw follower counts: being followed by influential users
+ * counts for more than being followed by users nobody follows.
+ *
+ * Ranks are computed by power iteration over a CsrGraph, where an edge from A
+ * to B (A follows B) passes rank from A to B. Each iteration pulls rank along
+ * the reversed edges into a double[] buffer, split into blocks of users that
+ * are processed by multiple threads. Users who follow nobody spread their rank
+ * evenly over all users.
+ */
+public class PageRank {
+
+    /** Default probability of following an edge rather than jumping to a random user. */
+    public static final double DEFAULT_DAMPING = 0.85;
+
+    /** Default L1 distance between successive rank vectors at which iteration stops. */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+
+    /** Default maximum number of iterations. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /* Largest number of users processed by one fork-join task without splitting. */
+    private static final int BLOCK_SIZE = 1 << 12;
+
+    private final CsrGraph graph;
+    private final double[] ranks;
+    private final int iterations;
+    private final double residual;
+    /* Rep invariant:
+     *    ranks.length == graph.vertexCount()
+     *    every rank is >= 0, and the ranks sum to 1 (up to rounding) if the graph is nonempty
+     *    iterations >= 0, residual >= 0
+     * Abstraction function:
+     *    represents the PageRank of each user graph.name(v) as ranks[v],
+     *    found after the given number of iterations, when the L1 distance
+     *    between the last two rank vectors was residual.
+     */
+
+    private PageRank(CsrGraph graph, double[] ranks, int iterations, double residual) {
+        this.graph = graph;
+        this.ranks = ranks;
+        this.iterations = iterations;
+        this.residual = residual;
+    }
+
+    /**
+     * Rank the users of a social network with the default parameters, using
+     * all available processors.
+     *
+     * @param followsGraph a social network, as defined by SocialNetwork
+     * @return the PageRank of every distinct username in followsGraph
+     */
+    public static PageRank rank(Map<String, Set<String>> followsGraph) {
+        return rank(new CsrGraph(followsGraph), DEFAULT_DAMPING, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Rank the users of a graph by power iteration.
+     *
+     * @param graph graph in which an edge from A to B means A follows B
+     * @param damping probability of following an edge rather than jumping to
+     *                a random user, requires 0 <= damping < 1
+     * @param tolerance iteration stops once the L1 distance between successive
+     *                  rank vectors is at most tolerance, requires tolerance >= 0
+     * @param maxIterations iteration stops after this many iterations even if
+     *                      it has not converged, requires maxIterations >= 1
+     * @param threads number of threads to use, requires threads >= 1
+     * @return the PageRank of every user in graph, with the number of
+     *         iterations run and the final residual
+     */
+    public static PageRank rank(CsrGraph graph, double damping, double tolerance, int maxIterations, int threads) {
+        if (damping < 0 || damping >= 1) {
+            throw new IllegalArgumentException("requires 0 <= damping < 1");
+        }
+        if (tolerance < 0 || maxIterations < 1 || threads < 1) {
+            throw new IllegalArgumentException("requires tolerance >= 0, maxIterations >= 1, threads >= 1");
+        }
+        int n = graph.vertexCount();
+        if (n == 0) {
+            return new PageRank(graph, new double[0], 0, 0);
+        }
+
+        CsrGraph followers = graph.transpose();
+        int[] outDegrees = new int[n];
+        for (int v = 0; v < n; v++) {
+            outDegrees[v] = graph.outDegree(v);
+        }
+        double[] ranks = new double[n];
+        double[] next = new double[n];
+        double[] contributions = new double[n];
+        Arrays.fill(ranks, 1.0 / n);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            int iterations = 0;
+            double residual = Double.POSITIVE_INFINITY;
+            while (iterations < maxIterations && residual > tolerance) {
+                // spread each user's rank over the users they follow, and total the rank of users who follow nobody
+                double dangling = pool.invoke(new Block(0, n,
+                        (from, to) -> scatter(ranks, outDegrees, contributions, from, to)));
+                double base = (1 - damping) / n + damping * dangling / n;
+                // gather the rank passed to each user by their followers
+                residual = pool.invoke(new Block(0, n,
+                        (from, to) -> gather(followers, contributions, ranks, next, base, damping, from, to)));
+                System.arraycopy(next, 0, ranks, 0, n);
+                iterations++;
+            }
+            return new PageRank(graph, ranks, iterations, residual);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /*
+     * Set contributions[v] to the rank v passes along each edge, for users v
+     * in [from, to).
+     *
+     * @return total rank of the users in [from, to) who follow nobody
+     */
+    private static double scatter(double[] ranks, int[] outDegrees, double[] contributions, int from, int to) {
+        double dangling = 0;
+        for (int v = from; v < to; v++) {
+            if (outDegrees[v] == 0) {
+                dangling += ranks[v];
+                contributions[v] = 0;
+            } else {
+                contributions[v] = ranks[v] / outDegrees[v];
+            }
+        }
+        return dangling;
+    }
+
+    /*
+     * Set next[v] to the new rank of each user v in [from, to).
+     *
+     * @return L1 distance between the old and new ranks of the users in [from, to)
+     */
+    private static double gather(CsrGraph followers, double[] contributions, double[] ranks, double[] next,
+            double base, double damping, int from, int to) {
+        int[] offsets = followers.offsets();
+        int[] sources = followers.targets();
+        double residual = 0;
+        for (int v = from; v < to; v++) {
+            double sum = 0;
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                sum += contributions[sources[e]];
+            }
+            next[v] = base + damping * sum;
+            residual += Math.abs(next[v] - ranks[v]);
+        }
+        return residual;
+    }
+
+    /*
+     * A computation over a block of users [from, to) that returns a partial sum.
+     */
+    @FunctionalInterface
+    private interface BlockFunction {
+        double apply(int from, int to);
+    }
+
+    /*
+     * Applies a BlockFunction to a range of users, splitting it in half until
+     * it is at most BLOCK_SIZE, and sums the results. The split points depend
+     * only on the range, so sums are the same on every run.
+     */
+    private static class Block extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final BlockFunction function;
+
+        Block(int from, int to, BlockFunction function) {
+            this.from = from;
+            this.to = to;
+            this.function = function;
+        }
+
+        @Override protected Double compute() {
+            if (to - from <= BLOCK_SIZE) {
+                return function.apply(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            Block left = new Block(from, mid, function);
+            left.fork();
+            double right = new Block(mid, to, function).compute();
+            return left.join() + right;
+        }
+    }
+
+    /**
+     * @return number of power iterations run
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * @return L1 distance between the rank vectors of the last two iterations
+     */
+    public double residual() {
+        return residual;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return PageRank of username, ignoring case, or 0 if it is not in the graph
+     */
+    public double rankOf(String username) {
+        int id = graph.idOf(username);
+        return id < 0 ? 0 : ranks[id];
+    }
+
+    /**
+     * Find the users with the highest PageRank.
+     *
+     * @param k maximum number of usernames to return, requires k >= 0
+     * @return the min(k, n) usernames with the highest PageRank among the n
+     *         users in the graph, in descending order of PageRank; ties are
+     *         ordered by username, ignoring case
+     */
+    public List<String> top(int k) {
+        String[] folded = new String[ranks.length];
+        for (int v = 0; v < folded.length; v++) {
+            folded[v] = UsernameDictionary.fold(graph.name(v));
+        }
+        Comparator<Integer> byRank = (a, b) -> {
+            int byScore = Double.compare(ranks[b], ranks[a]);
+            return byScore != 0 ? byScore : folded[a].compareTo(folded[b]);
+        };
+
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, k + 1), byRank.reversed());
+        for (int v = 0; k > 0 && v < ranks.length; v++) {
+            top.add(v);
+            if (top.size() > k) {
+                top.poll();
+            }
+        }
+        List<Integer> ids = new ArrayList<>(top);
+        ids.sort(byRank);
+        List<String> usernames = new ArrayList<>(ids.size());
+        for (int v : ids) {
+            usernames.add(graph.name(v));
+        }
+        return usernames;
+    }
+}
@@ -0,0 +1,63 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * PositionList is an unmodifiable list view of some of the tweets in a list,
+ * selected by their positions in that list.
+ */
+class PositionList extends AbstractList<Tweet> implements RandomAccess {
+
+    private final List<Tweet> tweets;
+    private final int[] positions;
+    private final int from;
+    private final int to;
+    /* Rep invariant:
+     *    0 <= from <= to <= positions.length
+     *    0 <= positions[i] < tweets.size() for all from <= i < to
+     * Abstraction function:
+     *    represents the list [tweets[positions[from]], ..., tweets[positions[to-1]]]
+     */
+
+    /**
+     * Make a view of tweets[positions[0]], ..., tweets[positions[positions.length-1]].
+     *
+     * @param tweets list of tweets; must not be modified while the view is in use
+     * @param positions positions in tweets; must not be modified after this call
+     */
+    PositionList(List<Tweet> tweets, int[] positions) {
+        this(tweets, positions, 0, positions.length);
+    }
+
+    /**
+     * Make a view of tweets[positions[from]], ..., tweets[positions[to-1]].
+     *
+     * @param tweets list of tweets; must not be modified while the view is in use
+     * @param positions positions in tweets; must not be modified after this call
+     * @param from first index in positions, inclusive
+     * @param to last index in positions, exclusive
+     */
+    PositionList(List<Tweet> tweets, int[] positions, int from, int to) {
+        this.tweets = tweets;
+        this.positions = positions;
+        this.from = from;
+        this.to = to;
+        assert 0 <= from && from <= to && to <= positions.length;
+    }
+
+    @Override public Tweet get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size());
+        }
+        return tweets.get(positions[from + index]);
+    }
+
+    @Override public int size() {
+        return to - from;
+    }
+}
@@ -0,0 +1,111 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Postings consists of methods that combine posting lists: strictly
+ * increasing arrays of tweet positions.
+ */
+class Postings {
+
+    private Postings() {
+        // not instantiable
+    }
+
+    /**
+     * Union of posting lists, merged pairwise in O(n log m) time for m lists
+     * with n positions in total.
+     *
+     * @param lists strictly increasing arrays, not modified by this method
+     * @return strictly increasing array of the positions in any of the lists
+     */
+    static int[] union(int[]... lists) {
+        if (lists.length == 0) {
+            return new int[0];
+        }
+        int[][] round = lists.clone();
+        int count = round.length;
+        while (count > 1) {
+            int merged = 0;
+            for (int i = 0; i < count; i += 2) {
+                round[merged++] = i + 1 < count ? union(round[i], round[i + 1]) : round[i];
+            }
+            count = merged;
+        }
+        return round[0];
+    }
+
+    /**
+     * Intersection of posting lists, starting from the shortest list.
+     *
+     * @param lists strictly increasing arrays, not modified by this method
+     * @return strictly increasing array of the positions in every list
+     */
+    static int[] intersect(int[]... lists) {
+        if (lists.length == 0) {
+            return new int[0];
+        }
+        int[][] sorted = lists.clone();
+        Arrays.sort(sorted, Comparator.comparingInt((int[] list) -> list.length));
+        int[] result = sorted[0];
+        for (int i = 1; i < sorted.length && result.length > 0; i++) {
+            result = intersect(result, sorted[i]);
+        }
+        return result;
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[k++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[k++] = b[j++];
+            } else {
+                result[k++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            result[k++] = a[i++];
+        }
+        while (j < b.length) {
+            result[k++] = b[j++];
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    /*
+     * Intersect a short list with a longer one, galloping through the longer
+     * list by binary search when it is much longer.
+     */
+    private static int[] intersect(int[] shorter, int[] longer) {
+        int[] result = new int[shorter.length];
+        int k = 0;
+        boolean gallop = longer.length > 8 * shorter.length;
+        int j = 0;
+        for (int i = 0; i < shorter.length && j < longer.length; i++) {
+            int target = shorter[i];
+            if (gallop) {
+                int found = Arrays.binarySearch(longer, j, longer.length, target);
+                j = found >= 0 ? found : -found - 1;
+            } else {
+                while (j < longer.length && longer[j] < target) {
+                    j++;
+                }
+            }
+            if (j < longer.length && longer[j] == target) {
+                result[k++] = target;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+}
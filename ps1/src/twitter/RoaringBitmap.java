@@ -0,0 +1,237 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * RoaringBitmap is an immutable compressed set of nonnegative ints, in the
+ * style of Roaring bitmaps.
+ *
+ * Values are grouped by their high 16 bits into chunks of up to 65536 values.
+ * A sparse chunk is stored as a sorted array of its low 16 bits, and a dense
+ * chunk, with more than 4096 values, as a 65536-bit bitmap. So a set takes at
+ * most about 2 bytes per value, and intersections pick the cheapest strategy
+ * for each pair of chunks.
+ */
+class RoaringBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+    private static final RoaringBitmap EMPTY = new RoaringBitmap(new char[0], new Object[0], 0);
+
+    private final char[] keys;
+    private final Object[] chunks;
+    private final int cardinality;
+    /* Rep invariant:
+     *    keys.length == chunks.length, and keys is strictly increasing
+     *    each chunk is either a nonempty strictly increasing char[] of length
+     *      <= ARRAY_MAX, or a long[BITMAP_WORDS] with more than ARRAY_MAX bits set
+     *    cardinality == total number of values in the chunks
+     * Abstraction function:
+     *    represents the set of (keys[i] << 16 | low) for every low value in
+     *    chunks[i]: each element of a char[], or each set bit of a long[].
+     */
+
+    private RoaringBitmap(char[] keys, Object[] chunks, int cardinality) {
+        this.keys = keys;
+        this.chunks = chunks;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Make a bitmap of a sorted range of an array.
+     *
+     * @param values array whose elements values[from..to) are nonnegative and
+     *               strictly increasing; not modified by this method
+     * @param from index of the first value
+     * @param to index just after the last value
+     * @return the set of values[from..to)
+     */
+    static RoaringBitmap of(int[] values, int from, int to) {
+        if (from == to) {
+            return EMPTY;
+        }
+        int chunkCount = 1;
+        for (int i = from + 1; i < to; i++) {
+            if (values[i] >>> 16 != values[i - 1] >>> 16) {
+                chunkCount++;
+            }
+        }
+        char[] keys = new char[chunkCount];
+        Object[] chunks = new Object[chunkCount];
+        int start = from;
+        for (int c = 0; c < chunkCount; c++) {
+            int key = values[start] >>> 16;
+            int end = start;
+            while (end < to && values[end] >>> 16 == key) {
+                end++;
+            }
+            keys[c] = (char) key;
+            if (end - start <= ARRAY_MAX) {
+                char[] low = new char[end - start];
+                for (int i = start; i < end; i++) {
+                    low[i - start] = (char) values[i];
+                }
+                chunks[c] = low;
+            } else {
+                long[] bits = new long[BITMAP_WORDS];
+                for (int i = start; i < end; i++) {
+                    int low = values[i] & 0xffff;
+                    bits[low >>> 6] |= 1L << low;
+                }
+                chunks[c] = bits;
+            }
+            start = end;
+        }
+        return new RoaringBitmap(keys, chunks, to - from);
+    }
+
+    /**
+     * @return number of values in this set
+     */
+    int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * @param value an int
+     * @return true iff value is in this set
+     */
+    boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int c = Arrays.binarySearch(keys, (char) (value >>> 16));
+        if (c < 0) {
+            return false;
+        }
+        char low = (char) value;
+        Object chunk = chunks[c];
+        if (chunk instanceof long[]) {
+            return (((long[]) chunk)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) chunk, low) >= 0;
+    }
+
+    /**
+     * @param other a set
+     * @return number of values in both this set and other
+     */
+    int andCardinality(RoaringBitmap other) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                count += andCardinality(chunks[i], other.chunks[j]);
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return a new array of the values in this set, in increasing order
+     */
+    int[] toArray() {
+        int[] values = new int[cardinality];
+        int size = 0;
+        for (int c = 0; c < keys.length; c++) {
+            int high = keys[c] << 16;
+            Object chunk = chunks[c];
+            if (chunk instanceof long[]) {
+                long[] bits = (long[]) chunk;
+                for (int w = 0; w < bits.length; w++) {
+                    for (long word = bits[w]; word != 0; word &= word - 1) {
+                        values[size++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                    }
+                }
+            } else {
+                for (char low : (char[]) chunk) {
+                    values[size++] = high | low;
+                }
+            }
+        }
+        return values;
+    }
+
+    private static int andCardinality(Object left, Object right) {
+        if (left instanceof long[] && right instanceof long[]) {
+            long[] a = (long[]) left;
+            long[] b = (long[]) right;
+            int count = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                count += Long.bitCount(a[w] & b[w]);
+            }
+            return count;
+        }
+        if (left instanceof long[]) {
+            return andCardinality((char[]) right, (long[]) left);
+        }
+        if (right instanceof long[]) {
+            return andCardinality((char[]) left, (long[]) right);
+        }
+        char[] a = (char[]) left;
+        char[] b = (char[]) right;
+        return a.length <= b.length ? andCardinality(a, b) : andCardinality(b, a);
+    }
+
+    private static int andCardinality(char[] values, long[] bits) {
+        int count = 0;
+        for (char low : values) {
+            if ((bits[low >>> 6] & (1L << low)) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Intersection size of two sorted arrays, requires small.length <= large.length:
+     * merges arrays of similar size, and gallops through large otherwise.
+     */
+    private static int andCardinality(char[] small, char[] large) {
+        int count = 0;
+        if (large.length > 32 * small.length) {
+            int from = 0;
+            for (char value : small) {
+                int bound = 1;
+                while (from + bound < large.length && large[from + bound] < value) {
+                    bound <<= 1;
+                }
+                int found = Arrays.binarySearch(large, from, Math.min(from + bound + 1, large.length), value);
+                if (found >= 0) {
+                    count++;
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+                if (from == large.length) {
+                    break;
+                }
+            }
+            return count;
+        }
+        int i = 0;
+        int j = 0;
+        while (i < small.length && j < large.length) {
+            if (small[i] < large[j]) {
+                i++;
+            } else if (small[i] > large[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+}
@@ -6,10 +6,11 @@ package twitter;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.stream.Collector;
 
 /**
  * SocialNetwork provides methods that operate on a social network.
@@ -45,90 +46,47 @@ public class SocialNetwork {
      *         either authors or @-mentions in the list of tweets.
      */
     public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
-        // initialize result
-        Map<String, Set<String>> map = new HashMap<String, Set<String>>();
-
-        // iterate over tweets
+        // the author of each tweet follows every other user it mentions;
+        // usernames are interned ignoring case, so each edge costs O(1)
+        FollowsGraphBuilder builder = new FollowsGraphBuilder();
         for (Tweet tweet: tweets) {
-            // get the usernames mentioned in the tweet
-            Set<String> usernames = Extract.getMentionedUsers(Arrays.asList(tweet));
-
-            // if there are no usernames in the tweet, continue to next tweet
-            if (usernames.isEmpty()) {
-                continue;
-            }
-
-            Set<String> value;
-            // if the map contains the tweet's author as key
-            if (contains(map.keySet(), tweet.getAuthor())) {
-
-                // get the corresponding value
-                value = getValue(map, tweet.getAuthor());
-                // add the usernames mentioned in the tweet to the value
-                for (String user: usernames) {
-                    if (!contains(value, user)) {
-                        value.add(user);
-                    }
-                }
-                // replace the old value with new value
-                replaceValue(map, tweet.getAuthor(), value);
-                // otherwise
-            } else {
-                // create new set to map with the tweet's author
-                value = new HashSet<String>();
-                // add the usernames mentioned in the tweet to the value
-                for (String user: usernames) {
-                    if (!contains(value, user)) {
-                        value.add(user);
-                    }
-                }
-                // if the value is not empty, put the entry into the map
-                if (!value.isEmpty()) {
-                    map.put(tweet.getAuthor(), value);
-                }
-            }
+            builder.add(tweet);
         }
-        return map;
+        return builder.build();
     }
 
-    // helper method to check whether a Set contains a target element (keeping in mind the case-insensitive criteria)
-    public static boolean contains(Set<String> collection, String target) {
-        for (String element: collection) {
-            if (element.toLowerCase().equals(target.toLowerCase())) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    // helper method to get the corresponding value associated with target key in the map (keeping in mind the case-insensitive criteria)
-    public static Set<String> getValue(Map<String, Set<String>> map, String targetKey) {
-        for (String key: map.keySet()) {
-            if (key.toLowerCase().equals(targetKey.toLowerCase())) {
-                return map.get(key);
-            }
-        }
-        return new HashSet<String>();
-    }
-
-    // helper method to replace the value associated with targetKey with new value in the map (keeping in mind the case_insensitive criteria) 
-    public static void replaceValue(Map<String, Set<String>> map, String targetKey, Set<String> value) {
-        for (String key: map.keySet()) {
-            if (key.toLowerCase().equals(targetKey.toLowerCase())) {
-                map.replace(targetKey, value);
-                break;
-            }
-        }
+    /**
+     * Guess who might follow whom, from evidence found in a parallel stream of
+     * tweets.
+     * 
+     * @param tweets
+     *            a list of tweets providing the evidence, not modified by this
+     *            method.
+     * @return a social network (as defined above) built from the same
+     *         evidence as guessFollowsGraph(tweets), using all available
+     *         processors.
+     */
+    public static Map<String, Set<String>> guessFollowsGraphParallel(List<Tweet> tweets) {
+        return tweets.parallelStream().collect(followsGraphCollector());
     }
 
-    // helper function to increment the corresponding value of the key by 1 in the map (keeping in mind the case-insensitive criteria)
-    public static void increment(Map<String, Integer> map, String key) {
-        for (String k: map.keySet()) {
-            if (k.toLowerCase().equals(key.toLowerCase())) {
-                map.replace(k, map.get(k)+1);
-                break;
-            }
-        }
+    /**
+     * Get a Collector that guesses who might follow whom from a stream of
+     * tweets. In a parallel stream, each thread builds a partial graph and the
+     * partial graphs are merged.
+     * 
+     * @return a Collector whose result is a social network (as defined above)
+     *         built from the same evidence as guessFollowsGraph(), where each
+     *         username is spelled as it first appears in the stream.
+     */
+    public static Collector<Tweet, ?, Map<String, Set<String>>> followsGraphCollector() {
+        return Collector.of(FollowsGraphBuilder::new,
+                FollowsGraphBuilder::add,
+                (left, right) -> {
+                    left.merge(right);
+                    return left;
+                },
+                FollowsGraphBuilder::build);
     }
 
     /**
@@ -141,71 +99,89 @@ public class SocialNetwork {
      *         descending order of follower count.
      */
     public static List<String> influencers(Map<String, Set<String>> followsGraph) {
-        // if the graph is empty, return empty List 
-        if (followsGraph.isEmpty()) {
-            return new ArrayList<String>();
+        // count followers per user, interning usernames ignoring case
+        UsernameDictionary users = new UsernameDictionary();
+        int[] followers = countFollowers(followsGraph, users);
+        Comparator<Integer> byInfluence = byInfluence(users, followers);
+
+        // sort every user by descending follower count, in O(n log n)
+        List<Integer> ids = new ArrayList<>(users.size());
+        for (int id = 0; id < users.size(); id++) {
+            ids.add(id);
         }
+        ids.sort(byInfluence);
+        return names(users, ids);
+    }
 
-        // initialize an empty map to store the username and corresponding number of followers
-        Map<String, Integer> followers = new HashMap<>();
-
-        // fill the followers map 
-        for (String key: followsGraph.keySet()) {
-            // get all the usernames that follows key
-            Set<String> usernames = followsGraph.get(key);
-            // iterate over usernames 
-            for (String user: usernames) {
-                // if username is already in the followers map, increment its value by 1
-                if (contains(followers.keySet(), user)) {
-                    increment(followers, user);
-                    // otherwise, put the username in followers map with value 1
-                } else {
-                    followers.put(user, 1);
-                }
+    /**
+     * Find the k people in a social network who have the greatest influence,
+     * in the sense that they have the most followers.
+     * 
+     * @param followsGraph
+     *            a social network (as defined above)
+     * @param k
+     *            maximum number of usernames to return, requires k >= 0
+     * @return the first min(k, n) usernames of influencers(followsGraph), where
+     *         n is the number of distinct usernames in followsGraph, found in
+     *         O(n log k) time. Users with the same follower count are ordered
+     *         by username, ignoring case.
+     */
+    public static List<String> influencers(Map<String, Set<String>> followsGraph, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("requires k >= 0");
+        }
+        UsernameDictionary users = new UsernameDictionary();
+        int[] followers = countFollowers(followsGraph, users);
+        Comparator<Integer> byInfluence = byInfluence(users, followers);
+
+        // keep the k most influential users seen so far, least influential at the head
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, k + 1), byInfluence.reversed());
+        for (int id = 0; k > 0 && id < users.size(); id++) {
+            top.add(id);
+            if (top.size() > k) {
+                top.poll();
             }
         }
 
-        // initialize result ArrayList to store usernames by descending order of number of followers
-        List<String> result = new ArrayList<>();
-
-        // iterate over followers' keys
-        for (String key: followers.keySet()) {
-            // get the corresponding value
-            int value = followers.get(key);
-
-            // if result list is empty, add current key as the only element and continue to next element
-            if (result.isEmpty()) {
-                result.add(key);
-                continue;
-            } 
-
-            // get the first and last element of the result
-            String firstElement = result.get(0);
-            String lastElement = result.get(result.size()-1);
+        List<Integer> ids = new ArrayList<>(top);
+        ids.sort(byInfluence);
+        return names(users, ids);
+    }
 
-            // if the element is larger than the first element, add it to the start of the result list
-            if (followers.get(firstElement) <= value) {
-                result.add(0, key);
-                continue;
+    // helper method to intern every username in followsGraph and count the followers of each
+    private static int[] countFollowers(Map<String, Set<String>> followsGraph, UsernameDictionary users) {
+        int[] followers = new int[16];
+        for (Map.Entry<String, Set<String>> entry: followsGraph.entrySet()) {
+            users.intern(entry.getKey());
+            for (String user: entry.getValue()) {
+                int id = users.intern(user);
+                if (id >= followers.length) {
+                    followers = Arrays.copyOf(followers, Math.max(id + 1, followers.length * 2));
+                }
+                followers[id]++;
             }
+        }
+        return Arrays.copyOf(followers, Math.max(followers.length, users.size()));
+    }
 
-            // if the element is less than or equal to the last element, add it to the end of the result list
-            if (followers.get(lastElement) >= value) {
-                result.add(result.size(), key);
-                continue;
-            }
+    // helper method to order user ids by descending follower count, breaking ties by username ignoring case
+    static Comparator<Integer> byInfluence(UsernameDictionary users, int[] followers) {
+        String[] folded = new String[users.size()];
+        for (int id = 0; id < folded.length; id++) {
+            folded[id] = UsernameDictionary.fold(users.name(id));
+        }
+        return (a, b) -> {
+            int byCount = Integer.compare(followers[b], followers[a]);
+            return byCount != 0 ? byCount : folded[a].compareTo(folded[b]);
+        };
+    }
 
-            // otherwise, look at all the elements in result list and add the key at index i such that
-            //      the key at index i-1 has more followers than key at index i and 
-            //      the key at index i+1 has less followers than key at index i
-            for (int i=1; i < result.size()-1; i++) {
-                if (value <= followers.get(result.get(i-1)) && value >= followers.get(result.get(i+1))) {
-                    result.add(i, key);
-                    break;
-                }
-            }
+    // helper method to look up the usernames of a list of ids
+    private static List<String> names(UsernameDictionary users, List<Integer> ids) {
+        List<String> result = new ArrayList<>(ids.size());
+        for (int id: ids) {
+            result.add(users.name(id));
         }
-        // return the sorted list
         return result;
     }
 }
@@ -0,0 +1,411 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TextArena is a mutable, append-only store of tweet text kept off the Java
+ * heap, so that large archives do not fill the heap with Strings for the
+ * garbage collector to trace.
+ *
+ * Text is encoded as UTF-8 into direct ByteBuffer segments, and each text is
+ * named by an int handle, its position in the order texts were added. The
+ * heap holds only a segment address and a byte length per text, and for a
+ * text added with add(Tweet), the id, author and timestamp of its tweet.
+ * Tweets are made on demand by tweet(), as real Tweet objects whose text is
+ * decoded from the arena. Mention scanning and keyword matching over the
+ * arena read the bytes directly, and only decode the texts that match.
+ *
+ * Segments are never freed, except by the garbage collector once the arena
+ * is unreachable.
+ *
+ * TextArena is not safe for use by multiple threads while texts are being
+ * added; once adding stops, any number of threads may read from it.
+ */
+public class TextArena {
+
+    /** Default size of each segment, in bytes. */
+    public static final int DEFAULT_SEGMENT_BYTES = 1 << 26;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int segmentBytes;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private int size = 0;
+    private long[] addresses = new long[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] authorIds = new int[INITIAL_CAPACITY];
+    private long[] epochSeconds = new long[INITIAL_CAPACITY];
+    private int[] nanos = new int[INITIAL_CAPACITY];
+    private final List<String> authors = new ArrayList<>();
+    private final Map<String, Integer> authorIdsByName = new HashMap<>();
+    private long bytesUsed = 0;
+    /* Rep invariant:
+     *    segmentBytes > 0
+     *    0 <= size <= addresses.length == lengths.length == ids.length
+     *      == authorIds.length == epochSeconds.length == nanos.length
+     *    for each 0 <= h < size, with s = addresses[h] >>> 32 and o = (int) addresses[h]:
+     *      0 <= s < segments.size(), and 0 <= o and o + lengths[h] <= segments[s].position()
+     *    every segment is direct, and only its position is ever changed
+     *    bytesUsed == sum of segments[s].position()
+     *    for each 0 <= h < size, authorIds[h] == -1 or 0 <= authorIds[h] < authors.size()
+     *    authorIdsByName.get(authors.get(a)) == a for all 0 <= a < authors.size()
+     * Abstraction function:
+     *    represents the sequence of texts t_0 .. t_(size-1) where t_h is the
+     *    UTF-8 decoding of the bytes of segment s at [o, o + lengths[h]).
+     *    Text t_h is the text of a tweet iff authorIds[h] != -1, the tweet with
+     *    id ids[h], author authors[authorIds[h]], and timestamp
+     *    epochSeconds[h] seconds and nanos[h] nanoseconds after the epoch.
+     */
+
+    /**
+     * Make an empty arena with the default segment size.
+     */
+    public TextArena() {
+        this(DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Make an empty arena.
+     *
+     * @param segmentBytes size of each direct buffer allocated, in bytes,
+     *                     requires segmentBytes > 0; a text longer than this
+     *                     gets a segment of its own
+     */
+    public TextArena(int segmentBytes) {
+        if (segmentBytes <= 0) {
+            throw new IllegalArgumentException("requires segmentBytes > 0");
+        }
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Append a text.
+     *
+     * @param text text to add; an unpaired surrogate is stored as "?", as by
+     *             String.getBytes(UTF_8)
+     * @return handle of the text, equal to the number of texts added before it
+     */
+    public int add(String text) {
+        int handle = addText(text);
+        authorIds[handle] = -1;
+        return handle;
+    }
+
+    /**
+     * Append the text of a tweet, remembering the rest of the tweet with it.
+     *
+     * @param tweet tweet to add
+     * @return handle of the tweet's text, equal to the number of texts added
+     *         before it
+     */
+    public int add(Tweet tweet) {
+        int handle = addText(tweet.getText());
+        Instant timestamp = tweet.getTimestamp();
+        ids[handle] = tweet.getId();
+        epochSeconds[handle] = timestamp.getEpochSecond();
+        nanos[handle] = timestamp.getNano();
+        authorIds[handle] = authorId(tweet.getAuthor());
+        return handle;
+    }
+
+    private int addText(String text) {
+        int length = encodedLength(text);
+        ByteBuffer segment = segmentFor(length);
+        int offset = segment.position();
+        encode(text, segment);
+        assert segment.position() == offset + length;
+        bytesUsed += length;
+
+        if (size == addresses.length) {
+            addresses = Arrays.copyOf(addresses, size * 2);
+            lengths = Arrays.copyOf(lengths, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+            authorIds = Arrays.copyOf(authorIds, size * 2);
+            epochSeconds = Arrays.copyOf(epochSeconds, size * 2);
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        addresses[size] = ((long) (segments.size() - 1) << 32) | offset;
+        lengths[size] = length;
+        return size++;
+    }
+
+    /**
+     * @return number of texts in this arena
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of bytes of encoded text in this arena
+     */
+    public long bytesUsed() {
+        return bytesUsed;
+    }
+
+    /**
+     * @return number of bytes of direct buffers allocated by this arena
+     */
+    public long bytesAllocated() {
+        long allocated = 0;
+        for (ByteBuffer segment : segments) {
+            allocated += segment.capacity();
+        }
+        return allocated;
+    }
+
+    /**
+     * @param handle handle of a text, requires 0 <= handle < size()
+     * @return length of the text in bytes, encoded as UTF-8
+     */
+    public int byteLength(int handle) {
+        checkHandle(handle);
+        return lengths[handle];
+    }
+
+    /**
+     * @param handle handle of a text, requires 0 <= handle < size()
+     * @return a new String equal to the text
+     */
+    public String text(int handle) {
+        checkHandle(handle);
+        byte[] bytes = new byte[lengths[handle]];
+        segment(handle).get(offset(handle), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param handle handle of a text, requires 0 <= handle < size()
+     * @return true iff the text was added with add(Tweet)
+     */
+    public boolean isTweet(int handle) {
+        checkHandle(handle);
+        return authorIds[handle] != -1;
+    }
+
+    /**
+     * @param handle handle of a tweet's text, requires 0 <= handle < size()
+     *               and isTweet(handle)
+     * @return a new Tweet with the id, author, timestamp and text of the tweet
+     *         added with this handle
+     */
+    public Tweet tweet(int handle) {
+        if (!isTweet(handle)) {
+            throw new IllegalArgumentException("handle " + handle + " is not a tweet");
+        }
+        return new Tweet(ids[handle], authors.get(authorIds[handle]), text(handle),
+                Instant.ofEpochSecond(epochSeconds[handle], nanos[handle]));
+    }
+
+    /**
+     * Get the usernames mentioned in every text of this arena, without
+     * decoding the texts.
+     *
+     * @return the set of usernames mentioned in the texts, as defined by
+     *         Extract.getMentionedUsers() for tweets with these texts
+     */
+    public Set<String> mentionedUsers() {
+        UsernameDictionary mentioned = new UsernameDictionary();
+        for (int handle = 0; handle < size; handle++) {
+            scanMentions(handle, mentioned::intern);
+        }
+        Set<String> usernames = new HashSet<>();
+        for (int id = 0; id < mentioned.size(); id++) {
+            usernames.add(mentioned.name(id));
+        }
+        return usernames;
+    }
+
+    /**
+     * Find the tweets in this arena whose text matches some keywords,
+     * decoding only the tweets that match.
+     *
+     * @param matcher keywords to look for
+     * @return a new list of new Tweets, as made by tweet(), of all and only
+     *         the tweets in this arena whose text matches, in order of handle
+     */
+    public List<Tweet> filter(KeywordMatcher matcher) {
+        List<Tweet> matching = new ArrayList<>();
+        for (int handle = 0; handle < size; handle++) {
+            if (isTweet(handle) && matches(handle, matcher)) {
+                matching.add(tweet(handle));
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Find the username-mentions in a text, as defined by MentionScanner,
+     * without decoding it.
+     *
+     * @param handle handle of a text, requires 0 <= handle < size()
+     * @param consumer called for each mention, in order of appearance, with a
+     *                 view of the text's bytes; since usernames are ASCII, the
+     *                 range of the view it is given is exactly the username
+     */
+    void scanMentions(int handle, MentionScanner.MentionConsumer consumer) {
+        checkHandle(handle);
+        MentionScanner.scan(new ByteView(segment(handle), offset(handle), lengths[handle]), consumer);
+    }
+
+    /**
+     * Match a text against some keywords without decoding it to a String.
+     *
+     * @param handle handle of a text, requires 0 <= handle < size()
+     * @param matcher keywords to look for
+     * @return matcher.matches(text(handle))
+     */
+    boolean matches(int handle, KeywordMatcher matcher) {
+        checkHandle(handle);
+        return matcher.matches(segment(handle), offset(handle), lengths[handle]);
+    }
+
+    /*
+     * @return dictionary id of author, adding it to the dictionary if needed
+     */
+    private int authorId(String author) {
+        Integer id = authorIdsByName.get(author);
+        if (id == null) {
+            id = authors.size();
+            authors.add(author);
+            authorIdsByName.put(author, id);
+        }
+        return id;
+    }
+
+    private ByteBuffer segment(int handle) {
+        return segments.get((int) (addresses[handle] >>> 32));
+    }
+
+    private int offset(int handle) {
+        return (int) addresses[handle];
+    }
+
+    private void checkHandle(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IndexOutOfBoundsException("handle " + handle + ", size " + size);
+        }
+    }
+
+    /*
+     * @return the last segment, or a new one if it has less than length bytes left
+     */
+    private ByteBuffer segmentFor(int length) {
+        if (!segments.isEmpty()) {
+            ByteBuffer last = segments.get(segments.size() - 1);
+            if (last.remaining() >= length) {
+                return last;
+            }
+        }
+        ByteBuffer segment = ByteBuffer.allocateDirect(Math.max(segmentBytes, length));
+        segments.add(segment);
+        return segment;
+    }
+
+    /*
+     * @return number of bytes in the UTF-8 encoding of text
+     */
+    private static int encodedLength(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1; // replaced by '?'
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /*
+     * Write the UTF-8 encoding of text at the position of segment, without
+     * allocating.
+     */
+    private static void encode(String text, ByteBuffer segment) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                segment.put((byte) c);
+            } else if (c < 0x800) {
+                segment.put((byte) (0xc0 | (c >> 6)));
+                segment.put((byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                segment.put((byte) (0xf0 | (codePoint >> 18)));
+                segment.put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                segment.put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                segment.put((byte) (0x80 | (codePoint & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                segment.put((byte) '?');
+            } else {
+                segment.put((byte) (0xe0 | (c >> 12)));
+                segment.put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                segment.put((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+    }
+
+    /*
+     * Read-only view of UTF-8 bytes as ISO-8859-1 characters, one char per
+     * byte. Exact for ASCII; every byte of a multibyte character is >= 0x80,
+     * so it is never mistaken for an ASCII character such as '@' or ' '.
+     */
+    private static class ByteView implements CharSequence {
+        private final ByteBuffer bytes;
+        private final int offset;
+        private final int length;
+
+        ByteView(ByteBuffer bytes, int offset, int length) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override public int length() {
+            return length;
+        }
+
+        @Override public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+            }
+            return (char) (bytes.get(offset + index) & 0xff);
+        }
+
+        @Override public CharSequence subSequence(int start, int end) {
+            if (start < 0 || start > end || end > length) {
+                throw new IndexOutOfBoundsException("range [" + start + ", " + end + "), length " + length);
+            }
+            return new ByteView(bytes, offset + start, end - start);
+        }
+
+        @Override public String toString() {
+            byte[] copy = new byte[length];
+            bytes.get(offset, copy);
+            return new String(copy, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TimeIndex is an immutable index of a list of tweets by timestamp, built once
+ * so that timespan queries take O(log n + k) time instead of scanning the
+ * whole list.
+ *
+ * The index keeps the tweets' timestamps as a primitive array of epoch
+ * milliseconds, sorted, alongside the positions of the tweets in the list.
+ * Queries have the same semantics as Filter.inTimespan(): a tweet matches a
+ * timespan if it was sent strictly after its start and strictly before its end.
+ */
+public class TimeIndex {
+
+    private final List<Tweet> tweets;
+    private final long[] epochMillis;
+    private final int[] positions;
+    private final boolean inInputOrder;
+    /* Rep invariant:
+     *    epochMillis.length == positions.length == tweets.size()
+     *    positions is a permutation of 0..tweets.size()-1
+     *    epochMillis[i] == tweets[positions[i]].timestamp in milliseconds
+     *    tweets[positions[i]].timestamp <= tweets[positions[i+1]].timestamp
+     *    inInputOrder iff positions[i] == i for all i
+     * Abstraction function:
+     *    represents the tweets in the list, ordered by timestamp, with ties
+     *    kept in the same order as in the list.
+     */
+
+    /**
+     * Build a time index over a list of tweets.
+     *
+     * @param tweets list of tweets with distinct ids; must not be modified
+     *               while the index is in use.
+     */
+    public TimeIndex(List<Tweet> tweets) {
+        this.tweets = tweets;
+        int n = tweets.size();
+        long[] keys = new long[n];
+        boolean sorted = true;
+        for (int i = 0; i < n; i++) {
+            keys[i] = toEpochMilli(tweets.get(i).getTimestamp());
+            if (sorted && i > 0 && compare(i - 1, i, keys) > 0) {
+                sorted = false;
+            }
+        }
+
+        this.inInputOrder = sorted;
+        this.positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = i;
+        }
+        if (sorted) {
+            this.epochMillis = keys;
+        } else {
+            sortPositions(positions, keys);
+            this.epochMillis = new long[n];
+            for (int i = 0; i < n; i++) {
+                epochMillis[i] = keys[positions[i]];
+            }
+        }
+        checkRep();
+    }
+
+    /**
+     * @return number of tweets in the index
+     */
+    public int size() {
+        return positions.length;
+    }
+
+    /**
+     * Count the tweets sent during a timespan, in O(log n) time.
+     *
+     * @param timespan timespan
+     * @return number of tweets sent strictly after the start and strictly
+     *         before the end of the timespan
+     */
+    public int count(Timespan timespan) {
+        int[] range = range(timespan);
+        return range[1] - range[0];
+    }
+
+    /**
+     * Find tweets that were sent during a timespan.
+     *
+     * @param timespan timespan
+     * @return a new list of all and only the tweets in the indexed list sent
+     *         strictly after the start and strictly before the end of the
+     *         timespan, in the same order as in the indexed list.
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        return new ArrayList<>(inTimespanView(timespan));
+    }
+
+    /**
+     * Find tweets that were sent during a timespan, without copying them.
+     *
+     * @param timespan timespan
+     * @return an unmodifiable view of all and only the tweets in the indexed
+     *         list sent strictly after the start and strictly before the end
+     *         of the timespan, in the same order as in the indexed list.
+     *         If the indexed list is sorted by timestamp, this takes O(log n)
+     *         time; otherwise the k matching positions are sorted.
+     */
+    public List<Tweet> inTimespanView(Timespan timespan) {
+        if (inInputOrder) {
+            int[] range = range(timespan);
+            return Collections.unmodifiableList(tweets.subList(range[0], range[1]));
+        }
+        return new PositionList(tweets, positionsInTimespan(timespan));
+    }
+
+    /**
+     * @param timespan timespan
+     * @return strictly increasing positions of the tweets sent strictly after
+     *         the start and strictly before the end of the timespan
+     */
+    int[] positionsInTimespan(Timespan timespan) {
+        int[] range = range(timespan);
+        int[] matching = Arrays.copyOfRange(positions, range[0], range[1]);
+        if (!inInputOrder) {
+            Arrays.sort(matching);
+        }
+        return matching;
+    }
+
+    /**
+     * Find tweets that were sent during a timespan, ordered by timestamp.
+     *
+     * @param timespan timespan
+     * @return an unmodifiable view of all and only the tweets in the indexed
+     *         list sent strictly after the start and strictly before the end
+     *         of the timespan, in nondecreasing order of timestamp, with ties
+     *         in the same order as in the indexed list. Takes O(log n) time.
+     */
+    public List<Tweet> inTimespanByTime(Timespan timespan) {
+        int[] range = range(timespan);
+        return new PositionList(tweets, positions, range[0], range[1]);
+    }
+
+    /*
+     * @return {lo, hi} such that positions[lo..hi) are exactly the tweets
+     *         strictly inside timespan
+     */
+    private int[] range(Timespan timespan) {
+        int lo = firstAfter(timespan.getStart(), false);
+        int hi = firstAfter(timespan.getEnd(), true);
+        return new int[] { lo, Math.max(lo, hi) };
+    }
+
+    /*
+     * @return least i such that timestamp i is after instant (or equal to it,
+     *         if inclusive), or size() if none
+     */
+    private int firstAfter(Instant instant, boolean inclusive) {
+        long key = toEpochMilli(instant);
+        int lo = 0;
+        int hi = epochMillis.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Long.compare(epochMillis[mid], key);
+            if (cmp == 0) {
+                cmp = timestampAt(mid).compareTo(instant);
+            }
+            if (cmp < 0 || (cmp == 0 && !inclusive)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private Instant timestampAt(int i) {
+        return tweets.get(positions[i]).getTimestamp();
+    }
+
+    /*
+     * Compare the tweets at positions a and b by timestamp, using keys first
+     * and the exact timestamps only when they fall in the same millisecond.
+     */
+    private int compare(int a, int b, long[] keys) {
+        int byMillis = Long.compare(keys[a], keys[b]);
+        if (byMillis != 0) {
+            return byMillis;
+        }
+        return tweets.get(a).getTimestamp().compareTo(tweets.get(b).getTimestamp());
+    }
+
+    /*
+     * Stable merge sort of positions by timestamp.
+     */
+    private void sortPositions(int[] positions, long[] keys) {
+        int[] buffer = new int[positions.length];
+        for (int width = 1; width < positions.length; width *= 2) {
+            for (int lo = 0; lo < positions.length - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, positions.length);
+                if (compare(positions[mid - 1], positions[mid], keys) <= 0) {
+                    continue; // already in order
+                }
+                System.arraycopy(positions, lo, buffer, lo, hi - lo);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (j >= hi || (i < mid && compare(buffer[i], buffer[j], keys) <= 0)) {
+                        positions[k] = buffer[i++];
+                    } else {
+                        positions[k] = buffer[j++];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param instant a date/time
+     * @return instant in milliseconds since the epoch, rounded down, and
+     *         saturated at Long.MIN_VALUE and Long.MAX_VALUE
+     */
+    static long toEpochMilli(Instant instant) {
+        try {
+            return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1000), instant.getNano() / 1_000_000);
+        } catch (ArithmeticException ae) {
+            return instant.getEpochSecond() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    private void checkRep() {
+        assert epochMillis.length == positions.length && positions.length == tweets.size();
+        for (int i = 1; i < positions.length; i++) {
+            assert epochMillis[i - 1] <= epochMillis[i];
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+
+import javax.json.JsonException;
+
+/**
+ * TweetCache fetches tweets from web servers through a cache directory on
+ * local disk.
+ *
+ * For each URL the cache keeps the last response, already decoded, as a
+ * TweetStore snapshot, together with the ETag and Last-Modified headers the
+ * server sent with it. Later fetches revalidate with a conditional request
+ * (If-None-Match, If-Modified-Since); if the server answers 304 Not Modified,
+ * the tweets are loaded from the snapshot instead of being downloaded and
+ * parsed again.
+ *
+ * Tweet timestamps are kept to the millisecond. Cache files are replaced
+ * atomically, so a fetch interrupted part way leaves the previous entry intact.
+ * Connecting to a server, waiting for its response headers, and each read of
+ * its response body are bounded by a timeout, so an unresponsive server fails
+ * the fetch instead of hanging it, even part way through a body.
+ */
+class TweetCache {
+
+    private static final String STORE_SUFFIX = ".store";
+    private static final String META_SUFFIX = ".properties";
+    private static final String URL_KEY = "url";
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "last-modified";
+
+    /** Default time allowed to connect to a server, to receive the response headers, and for each read of the body. */
+    static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Path directory;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    /**
+     * Make a cache with the default timeout.
+     *
+     * @param directory directory holding the cache files; created if it does not exist
+     */
+    TweetCache(Path directory) {
+        this(directory, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Make a cache.
+     *
+     * @param directory directory holding the cache files; created if it does not exist
+     * @param timeout time allowed to connect to a server, to receive the
+     *                response headers, and for each read of the response body
+     */
+    TweetCache(Path directory, Duration timeout) {
+        this.directory = directory;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Get the tweets at a URL, revalidating any cached copy with the server.
+     *
+     * @param url URL of server to retrieve tweets from
+     * @return a list of the tweets the server currently returns, in order
+     * @throws IOException if the url is invalid, the server is unreachable or
+     *                     answers with an unexpected status, the server
+     *                     does not answer within the timeout, or the cache
+     *                     cannot be read or written
+     */
+    List<Tweet> fetch(URL url) throws IOException {
+        Files.createDirectories(directory);
+        String key = keyOf(url);
+        Path storeFile = directory.resolve(key + STORE_SUFFIX);
+        Path metaFile = directory.resolve(key + META_SUFFIX);
+
+        Properties meta = readMeta(metaFile, url);
+        HttpRequest.Builder request = HttpRequest.newBuilder(toURI(url))
+                .header("Accept-Encoding", "gzip")
+                .timeout(timeout)
+                .GET();
+        if (meta != null && Files.exists(storeFile)) {
+            if (meta.getProperty(ETAG_KEY) != null) {
+                request.header("If-None-Match", meta.getProperty(ETAG_KEY));
+            }
+            if (meta.getProperty(LAST_MODIFIED_KEY) != null) {
+                request.header("If-Modified-Since", meta.getProperty(LAST_MODIFIED_KEY));
+            }
+        }
+
+        HttpResponse<InputStream> response = send(request.build());
+        try (InputStream body = new DeadlineInputStream(response.body(), timeout)) {
+            if (response.statusCode() == 304 && meta != null && Files.exists(storeFile)) {
+                return new ArrayList<>(TweetStore.load(storeFile).asList());
+            } else if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode() + " from " + url);
+            }
+
+            boolean gzipped = response.headers().firstValue("Content-Encoding")
+                    .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                    .orElse(false);
+            List<Tweet> tweets = new ArrayList<>();
+            try (TweetParser parser = new TweetParser(gzipped ? new GZIPInputStream(body) : body)) {
+                while (parser.hasNext()) {
+                    tweets.add(parser.next());
+                }
+            } catch (JsonException je) {
+                // the parser wraps failed reads of the body, such as a timeout
+                if (je.getCause() instanceof IOException) {
+                    throw (IOException) je.getCause();
+                }
+                throw je;
+            }
+
+            Optional<String> etag = response.headers().firstValue("ETag");
+            Optional<String> lastModified = response.headers().firstValue("Last-Modified");
+            if (etag.isPresent() || lastModified.isPresent()) {
+                // store first: validators must never describe a snapshot older than themselves
+                Path storeTemp = Files.createTempFile(directory, key, STORE_SUFFIX);
+                try {
+                    new TweetStore(tweets).save(storeTemp);
+                    Files.move(storeTemp, storeFile, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(storeTemp);
+                }
+
+                Properties newMeta = new Properties();
+                newMeta.setProperty(URL_KEY, url.toString());
+                etag.ifPresent(value -> newMeta.setProperty(ETAG_KEY, value));
+                lastModified.ifPresent(value -> newMeta.setProperty(LAST_MODIFIED_KEY, value));
+                Path metaTemp = Files.createTempFile(directory, key, META_SUFFIX);
+                try {
+                    try (Writer out = Files.newBufferedWriter(metaTemp, StandardCharsets.UTF_8)) {
+                        newMeta.store(out, null);
+                    }
+                    Files.move(metaTemp, metaFile, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(metaTemp);
+                }
+            } else {
+                // nothing to revalidate with
+                Files.deleteIfExists(metaFile);
+                Files.deleteIfExists(storeFile);
+            }
+            return tweets;
+        }
+    }
+
+    private HttpResponse<InputStream> send(HttpRequest request) throws IOException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while fetching " + request.uri(), ie);
+        }
+    }
+
+    /*
+     * @return the validators cached for url, or null if there are none
+     */
+    private static Properties readMeta(Path metaFile, URL url) throws IOException {
+        if (!Files.exists(metaFile)) {
+            return null;
+        }
+        Properties meta = new Properties();
+        try (Reader in = Files.newBufferedReader(metaFile, StandardCharsets.UTF_8)) {
+            meta.load(in);
+        }
+        // guard against a hash collision between URLs
+        return url.toString().equals(meta.getProperty(URL_KEY)) ? meta : null;
+    }
+
+    // helper method to name the cache files of a URL
+    private static String keyOf(URL url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                key.append(String.format("%02x", digest[i]));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new AssertionError("SHA-256 is required of every Java platform", nsae);
+        }
+    }
+
+    private static URI toURI(URL url) throws IOException {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException use) {
+            throw new IOException("invalid url " + url, use);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import javax.json.JsonException;
+
+/**
+ * TweetFileReader reads tweets from a local file holding either a JSON array
+ * of tweets or newline-delimited JSON (one tweet object per line).
+ *
+ * The file is memory-mapped and split into chunks at record boundaries, and
+ * the chunks are decoded into tweets in parallel by fork-join workers.
+ * Newline-delimited files are split without reading their contents; JSON
+ * arrays need one sequential pass over the bytes to find where top-level
+ * records end, which is much cheaper than decoding them.
+ */
+class TweetFileReader {
+
+    /** Approximate number of bytes decoded by one fork-join task. */
+    static final long DEFAULT_CHUNK_BYTES = 8L << 20;
+
+    /* Size of the windows mapped while scanning a JSON array for records. */
+    private static final long SCAN_WINDOW_BYTES = 1L << 28;
+
+    private static final byte[] OPEN_ARRAY = { '[' };
+    private static final byte[] CLOSE_ARRAY = { ']' };
+
+    /**
+     * Read all tweets in a file.
+     *
+     * @param file path of a file holding a JSON array of tweets, or one JSON
+     *             tweet object per line
+     * @param chunkBytes approximate number of bytes decoded by each parallel
+     *                   task, requires chunkBytes > 0
+     * @return the tweets in the file, in the same order as in the file
+     * @throws IOException if the file cannot be read
+     * @throws JsonException if the file is not well-formed
+     */
+    static List<Tweet> read(Path file, long chunkBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long first = skipWhitespace(channel, 0, size);
+            if (first == size) {
+                return new ArrayList<Tweet>();
+            }
+
+            boolean array = byteAt(channel, first) == '[';
+            List<long[]> chunks = array
+                    ? arrayChunks(channel, first + 1, size, chunkBytes)
+                    : lineChunks(channel, first, size, chunkBytes);
+            if (chunks.isEmpty()) {
+                return new ArrayList<Tweet>();
+            }
+
+            try {
+                return new DecodeTask(channel, chunks, array, 0, chunks.size()).invoke();
+            } catch (UncheckedIOException uioe) {
+                throw uioe.getCause();
+            }
+        }
+    }
+
+    /*
+     * Split the contents of a JSON array into chunks of whole records.
+     * Each chunk [start, end) runs from the first byte of its first record to
+     * the last byte of its last record, so that "[" + chunk + "]" is itself a
+     * JSON array.
+     */
+    private static List<long[]> arrayChunks(FileChannel channel, long from, long size, long chunkBytes)
+            throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long chunkStart = -1;
+        long recordEnd = -1;
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+
+        for (long windowStart = from; windowStart < size; windowStart += SCAN_WINDOW_BYTES) {
+            long windowLength = Math.min(SCAN_WINDOW_BYTES, size - windowStart);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+            for (int i = 0; i < windowLength; i++) {
+                byte b = window.get(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+                long position = windowStart + i;
+                if (depth == 0 && b != '{' && b != ']' && b != ',' && !isWhitespace(b)) {
+                    throw new JsonException("expected a tweet object at byte " + position);
+                }
+                switch (b) {
+                case '"':
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    if (depth == 0 && chunkStart < 0) {
+                        chunkStart = position;
+                    }
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    if (depth == 0) {
+                        // end of the top-level array
+                        if (chunkStart >= 0) {
+                            chunks.add(new long[] { chunkStart, recordEnd });
+                        }
+                        return chunks;
+                    }
+                    depth--;
+                    if (depth == 0) {
+                        recordEnd = position + 1;
+                        if (recordEnd - chunkStart >= chunkBytes) {
+                            chunks.add(new long[] { chunkStart, recordEnd });
+                            chunkStart = -1;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+                }
+            }
+        }
+        throw new JsonException("unterminated array of tweets");
+    }
+
+    /*
+     * Split a newline-delimited file into chunks of whole lines, each about
+     * chunkBytes long.
+     */
+    private static List<long[]> lineChunks(FileChannel channel, long from, long size, long chunkBytes)
+            throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long start = from;
+        while (start < size) {
+            long end = start + chunkBytes >= size ? size : nextLineStart(channel, start + chunkBytes, size);
+            chunks.add(new long[] { start, end });
+            start = end;
+        }
+        return chunks;
+    }
+
+    /*
+     * Decodes a range of chunks, splitting the range in half until only one
+     * chunk is left.
+     */
+    private static class DecodeTask extends RecursiveTask<List<Tweet>> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final List<long[]> chunks;
+        private final boolean array;
+        private final int lo;
+        private final int hi;
+
+        DecodeTask(FileChannel channel, List<long[]> chunks, boolean array, int lo, int hi) {
+            this.channel = channel;
+            this.chunks = chunks;
+            this.array = array;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override protected List<Tweet> compute() {
+            if (hi - lo == 1) {
+                try {
+                    long[] chunk = chunks.get(lo);
+                    ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+                    return array ? decodeArray(bytes) : decodeLines(bytes);
+                } catch (IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+            }
+            int mid = (lo + hi) >>> 1;
+            DecodeTask left = new DecodeTask(channel, chunks, array, lo, mid);
+            left.fork();
+            List<Tweet> right = new DecodeTask(channel, chunks, array, mid, hi).compute();
+            List<Tweet> result = left.join();
+            result.addAll(right);
+            return result;
+        }
+    }
+
+    /*
+     * Decode a chunk of comma-separated records from a JSON array.
+     */
+    private static List<Tweet> decodeArray(ByteBuffer bytes) {
+        List<Tweet> tweets = new ArrayList<>();
+        InputStream in = new SequenceInputStream(new ByteArrayInputStream(OPEN_ARRAY),
+                new SequenceInputStream(new ByteBufferInputStream(bytes), new ByteArrayInputStream(CLOSE_ARRAY)));
+        try (TweetParser parser = new TweetParser(in)) {
+            while (parser.hasNext()) {
+                tweets.add(parser.next());
+            }
+        }
+        return tweets;
+    }
+
+    /*
+     * Decode a chunk of newline-delimited tweet objects, ignoring blank lines.
+     */
+    private static List<Tweet> decodeLines(ByteBuffer bytes) {
+        List<Tweet> tweets = new ArrayList<>();
+        int limit = bytes.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            boolean blank = true;
+            while (lineEnd < limit && bytes.get(lineEnd) != '\n') {
+                blank = blank && isWhitespace(bytes.get(lineEnd));
+                lineEnd++;
+            }
+            if (!blank) {
+                ByteBuffer line = bytes.duplicate();
+                line.position(lineStart).limit(lineEnd);
+                try (TweetParser parser = new TweetParser(new ByteBufferInputStream(line.slice()))) {
+                    tweets.add(parser.next());
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return tweets;
+    }
+
+    /*
+     * @return position just after the first newline at or after position, or size
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(4096);
+        while (position < size) {
+            block.clear();
+            int read = channel.read(block, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (block.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /*
+     * @return position of the first non-whitespace byte at or after position, or size
+     */
+    private static long skipWhitespace(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(4096);
+        while (position < size) {
+            block.clear();
+            int read = channel.read(block, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (!isWhitespace(block.get(i))) {
+                    return position + i;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static byte byteAt(FileChannel channel, long position) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        channel.read(one, position);
+        return one.get(0);
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    /*
+     * An InputStream over the remaining bytes of a buffer.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override public int available() {
+            return buffer.remaining();
+        }
+    }
+}
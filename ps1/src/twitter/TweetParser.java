@@ -0,0 +1,270 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.Reader;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParserFactory;
+
+/**
+ * TweetParser decodes tweets one at a time from a JSON stream, without ever
+ * materializing the whole document.
+ *
+ * The stream holds either a JSON array of tweet objects or a single tweet
+ * object. Only the fields needed to make a Tweet are decoded: "id",
+ * "user.screen_name" (either as a literal key or as "screen_name" inside a
+ * nested "user" object), "text" and "created_at". Every other subtree is
+ * skipped event by event, so memory use does not grow with the size of the
+ * array.
+ */
+class TweetParser implements Iterator<Tweet>, Closeable {
+
+    private static final JsonParserFactory PARSER_FACTORY = Json.createParserFactory(null);
+    private static final DateTimeFormatter CREATED_AT_FORMAT =
+            DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.US);
+
+    private final JsonParser parser;
+    private boolean started = false;
+    private boolean inArray = false;
+    private boolean finished = false;
+    private Tweet next = null;
+    /* Rep invariant:
+     *    next != null implies !finished
+     * Abstraction function:
+     *    represents the tweets remaining in the stream, starting with next
+     *    if it has already been decoded.
+     */
+
+    /**
+     * Make a TweetParser over a character stream.
+     *
+     * @param reader stream of JSON text; closed when this parser is closed.
+     */
+    TweetParser(Reader reader) {
+        this.parser = PARSER_FACTORY.createParser(reader);
+    }
+
+    /**
+     * Make a TweetParser over a byte stream, detecting its Unicode encoding.
+     *
+     * @param in stream of JSON text; closed when this parser is closed.
+     */
+    TweetParser(InputStream in) {
+        this.parser = PARSER_FACTORY.createParser(in);
+    }
+
+    /**
+     * @return a sequential stream of the tweets decoded by this parser; closing
+     *         the stream closes this parser.
+     */
+    Stream<Tweet> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    @Override public boolean hasNext() {
+        if (next == null && !finished) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    @Override public Tweet next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Tweet tweet = next;
+        next = null;
+        return tweet;
+    }
+
+    @Override public void close() {
+        finished = true;
+        next = null;
+        parser.close();
+    }
+
+    /*
+     * Decode the next tweet, or return null and close the parser at the end
+     * of the stream.
+     */
+    private Tweet advance() {
+        if (!started) {
+            started = true;
+            Event first = parser.next();
+            if (first == Event.START_ARRAY) {
+                inArray = true;
+            } else if (first == Event.START_OBJECT) {
+                return finishWith(readTweet(parser));
+            } else {
+                throw new JsonException("expected an array of tweets, found " + first);
+            }
+        }
+        if (!inArray || !parser.hasNext()) {
+            return finishWith(null);
+        }
+        Event event = parser.next();
+        if (event == Event.END_ARRAY) {
+            return finishWith(null);
+        }
+        if (event != Event.START_OBJECT) {
+            throw new JsonException("expected a tweet object, found " + event);
+        }
+        return readTweet(parser);
+    }
+
+    /*
+     * Remember that the stream is exhausted after tweet, closing the parser
+     * once no more tweets can follow.
+     */
+    private Tweet finishWith(Tweet tweet) {
+        if (tweet == null) {
+            close();
+        } else {
+            inArray = false;
+        }
+        return tweet;
+    }
+
+    /**
+     * Decode one tweet object.
+     *
+     * @param parser positioned just after the START_OBJECT event of a tweet;
+     *               left just after its matching END_OBJECT event.
+     * @return the tweet represented by the object
+     * @throws JsonException if a required field is missing or malformed
+     */
+    static Tweet readTweet(JsonParser parser) {
+        Long id = null;
+        String screenName = null;
+        String text = null;
+        String createdAt = null;
+
+        Event event;
+        while ((event = parser.next()) != Event.END_OBJECT) {
+            String key = parser.getString();
+            event = parser.next();
+            switch (key) {
+            case "id":
+                if (event == Event.VALUE_NUMBER || event == Event.VALUE_STRING) {
+                    id = Long.valueOf(parser.getString());
+                }
+                break;
+            case "text":
+                text = readString(parser, event);
+                break;
+            case "created_at":
+                createdAt = readString(parser, event);
+                break;
+            case "user.screen_name":
+                screenName = readString(parser, event);
+                break;
+            case "user":
+                if (event == Event.START_OBJECT) {
+                    String nested = readScreenName(parser);
+                    if (nested != null) {
+                        screenName = nested;
+                    }
+                } else {
+                    skipValue(parser, event);
+                }
+                break;
+            default:
+                skipValue(parser, event);
+            }
+        }
+
+        if (id == null || screenName == null || text == null || createdAt == null) {
+            throw new JsonException("tweet is missing one of id, user.screen_name, text, created_at");
+        }
+        return makeTweet(id, screenName, text, createdAt);
+    }
+
+    /**
+     * Make a Tweet from its decoded fields.
+     *
+     * @param id unique identifier of the tweet
+     * @param screenName Twitter username of the author
+     * @param text text of the tweet
+     * @param createdAt date/time in Twitter's "created_at" format,
+     *                  e.g. "Wed Feb 17 10:00:00 +0000 2016"
+     * @return the tweet
+     */
+    static Tweet makeTweet(long id, String screenName, String text, String createdAt) {
+        ZonedDateTime timestamp = ZonedDateTime.parse(createdAt, CREATED_AT_FORMAT);
+        return new Tweet(id, screenName, text, timestamp.toInstant());
+    }
+
+    /*
+     * Read the "screen_name" of a nested user object, skipping its other fields.
+     */
+    private static String readScreenName(JsonParser parser) {
+        String screenName = null;
+        Event event;
+        while ((event = parser.next()) != Event.END_OBJECT) {
+            String key = parser.getString();
+            event = parser.next();
+            if (key.equals("screen_name")) {
+                screenName = readString(parser, event);
+            } else {
+                skipValue(parser, event);
+            }
+        }
+        return screenName;
+    }
+
+    /*
+     * Read a scalar value as a string, or skip a structured value and return null.
+     */
+    private static String readString(JsonParser parser, Event event) {
+        switch (event) {
+        case VALUE_STRING:
+        case VALUE_NUMBER:
+            return parser.getString();
+        default:
+            skipValue(parser, event);
+            return null;
+        }
+    }
+
+    /*
+     * Skip the value that starts with event, including any nested subtree.
+     */
+    private static void skipValue(JsonParser parser, Event event) {
+        if (event != Event.START_OBJECT && event != Event.START_ARRAY) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            switch (parser.next()) {
+            case START_OBJECT:
+            case START_ARRAY:
+                depth++;
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                depth--;
+                break;
+            default:
+                break;
+            }
+        }
+    }
+}
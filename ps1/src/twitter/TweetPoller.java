@@ -0,0 +1,259 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import javax.json.JsonException;
+
+/**
+ * TweetPoller repeatedly fetches tweets from a set of web servers, in the
+ * format read by TweetReader.readTweetsFromWeb(), and puts the decoded tweets
+ * into a bounded queue for a consumer.
+ *
+ * Requests are sent asynchronously through one HttpClient, which keeps
+ * persistent connections to each server, and ask for gzip-compressed
+ * responses. At most maxConcurrentRequests requests are in flight at once.
+ * Each response is decoded as it arrives, one tweet at a time, and each tweet
+ * is put into the queue, waiting for room if it is full. So a slow consumer
+ * stops decoding, which holds the request permits, which stops new requests:
+ * memory stays bounded however far the consumer falls behind.
+ *
+ * A server must answer within a timeout, and then send each part of its
+ * response body within the same timeout, or the poll fails and its permit is
+ * released. Time spent waiting for room in the queue does not count.
+ *
+ * Every poll of an endpoint enqueues every tweet the server returns, even if
+ * an earlier poll already returned it.
+ */
+public class TweetPoller implements Closeable {
+
+    private final List<URI> endpoints;
+    private final BlockingQueue<Tweet> queue;
+    private final Duration timeout;
+    private final Semaphore permits;
+    private final HttpClient client;
+    private final ExecutorService decoders;
+    private final AtomicLong failures = new AtomicLong();
+    private Thread poller = null;
+    /* Rep invariant:
+     *    endpoints is nonempty and unmodifiable
+     *    permits has at most maxConcurrentRequests permits, one taken for
+     *      each request whose response has not been fully decoded
+     * Abstraction function:
+     *    represents a poller of endpoints that feeds queue, polling
+     *    continuously in the background iff poller is non-null, that has seen
+     *    failures.get() failed polls.
+     * Thread safety argument:
+     *    start() and close() are synchronized. Requests and decoding share only
+     *    the thread-safe queue, semaphore, client and failure counter.
+     */
+
+    /**
+     * Make a poller. It sends no requests until pollOnce() or start() is called.
+     *
+     * @param endpoints URLs of servers to poll, requires at least one
+     * @param queue queue that receives the decoded tweets
+     * @param maxConcurrentRequests largest number of requests in flight at
+     *                              once, requires maxConcurrentRequests >= 1
+     * @param timeout time allowed to connect to a server, then to receive the
+     *                response headers, and then for each read of the response
+     *                body
+     */
+    public TweetPoller(List<URI> endpoints, BlockingQueue<Tweet> queue, int maxConcurrentRequests,
+            Duration timeout) {
+        if (endpoints.isEmpty() || maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("requires endpoints and maxConcurrentRequests >= 1");
+        }
+        this.endpoints = List.copyOf(endpoints);
+        this.queue = queue;
+        this.timeout = timeout;
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        // decoding blocks on the queue, so it must not run on the client's own threads
+        this.decoders = Executors.newFixedThreadPool(maxConcurrentRequests, runnable -> {
+            Thread thread = new Thread(runnable, "TweetPoller-decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Poll every endpoint once, and wait until their responses have been
+     * decoded into the queue.
+     *
+     * @return number of tweets put into the queue
+     * @throws IOException if any endpoint could not be reached, timed out,
+     *                     answered with a status other than 200, or sent
+     *                     malformed tweets; the tweets of the other endpoints
+     *                     are still put into the queue
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public int pollOnce() throws IOException, InterruptedException {
+        List<CompletableFuture<Integer>> polls = new ArrayList<>(endpoints.size());
+        for (URI endpoint : endpoints) {
+            permits.acquire();
+            polls.add(poll(endpoint));
+        }
+
+        int count = 0;
+        IOException failure = null;
+        for (CompletableFuture<Integer> poll : polls) {
+            try {
+                count += poll.get();
+            } catch (ExecutionException ee) {
+                failures.incrementAndGet();
+                IOException ioe = asIOException(ee.getCause());
+                if (failure == null) {
+                    failure = ioe;
+                } else {
+                    failure.addSuppressed(ioe);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return count;
+    }
+
+    /**
+     * Start polling every endpoint continuously on a background thread,
+     * waiting interval between the end of one round of polls and the start of
+     * the next. Failed polls are counted by failureCount() and do not stop
+     * polling. Does nothing if already started.
+     *
+     * @param interval time to wait between rounds
+     */
+    public synchronized void start(Duration interval) {
+        if (poller != null) {
+            return;
+        }
+        poller = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        pollOnce();
+                    } catch (IOException ioe) {
+                        // counted by pollOnce(); keep polling
+                    }
+                    Thread.sleep(interval.toMillis());
+                }
+            } catch (InterruptedException ie) {
+                // stopped by close()
+            }
+        }, "TweetPoller");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    /**
+     * @return number of polls of a single endpoint that have failed so far
+     */
+    public long failureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Stop polling and release the decoding threads. Responses still being
+     * decoded are abandoned.
+     */
+    @Override public synchronized void close() {
+        if (poller != null) {
+            poller.interrupt();
+            poller = null;
+        }
+        decoders.shutdownNow();
+    }
+
+    /*
+     * Send one request, holding a permit taken by the caller until its
+     * response is decoded.
+     *
+     * @return future number of tweets put into the queue
+     */
+    private CompletableFuture<Integer> poll(URI endpoint) {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        CompletableFuture<Integer> poll;
+        try {
+            poll = client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                    .thenApplyAsync(this::decode, decoders);
+        } catch (RuntimeException re) {
+            permits.release();
+            throw re;
+        }
+        return poll.whenComplete((count, failure) -> permits.release());
+    }
+
+    /*
+     * Decode a response into the queue.
+     *
+     * @return number of tweets put into the queue
+     */
+    private int decode(HttpResponse<InputStream> response) {
+        try (InputStream body = new DeadlineInputStream(response.body(), timeout)) {
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode() + " from " + response.uri());
+            }
+            boolean gzipped = response.headers().firstValue("Content-Encoding")
+                    .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                    .orElse(false);
+            int count = 0;
+            try (TweetParser parser = new TweetParser(gzipped ? new GZIPInputStream(body) : body)) {
+                while (parser.hasNext()) {
+                    queue.put(parser.next());
+                    count++;
+                }
+            }
+            return count;
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(ie);
+        }
+    }
+
+    // helper method to unwrap the cause of a failed poll
+    private static IOException asIOException(Throwable failure) {
+        while ((failure instanceof CompletionException || failure instanceof ExecutionException)
+                && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        if (failure instanceof UncheckedIOException) {
+            return ((UncheckedIOException) failure).getCause();
+        } else if (failure instanceof IOException) {
+            return (IOException) failure;
+        } else if (failure instanceof JsonException) {
+            return new IOException("malformed tweets", failure);
+        }
+        return new IOException(failure);
+    }
+}
@@ -0,0 +1,413 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * TweetQuery is an immutable query over a corpus of tweets, combining author,
+ * timespan and keyword predicates with AND and OR. Queries are evaluated by a
+ * TweetSearcher.
+ *
+ * The leaf predicates have the same semantics as the methods of Filter:
+ *    writtenBy(username)  as Filter.writtenBy()
+ *    inTimespan(timespan) as Filter.inTimespan()
+ *    containing(words)    as Filter.containing()
+ */
+public abstract class TweetQuery {
+
+    /*
+     * An OR whose children are estimated to match more than 1/DENSE_FRACTION
+     * of the corpus is evaluated into a bitset instead of by merging lists.
+     */
+    private static final int DENSE_FRACTION = 16;
+
+    /*
+     * An AND checks each remaining candidate against a child, instead of
+     * intersecting with the child's positions, once the child is estimated to
+     * match more than FILTER_FACTOR times as many tweets as there are candidates.
+     */
+    private static final int FILTER_FACTOR = 8;
+
+    // not subclassable outside this class
+    private TweetQuery() {
+    }
+
+    /**
+     * @param username Twitter username
+     * @return query matching the tweets written by username, as defined by
+     *         Filter.writtenBy()
+     */
+    public static TweetQuery writtenBy(String username) {
+        return new Author(username);
+    }
+
+    /**
+     * @param timespan timespan
+     * @return query matching the tweets sent during timespan, as defined by
+     *         Filter.inTimespan()
+     */
+    public static TweetQuery inTimespan(Timespan timespan) {
+        return new Time(timespan);
+    }
+
+    /**
+     * @param words a list of words, as defined by Filter.containing()
+     * @return query matching the tweets that contain at least one of the
+     *         words, as defined by Filter.containing()
+     */
+    public static TweetQuery containing(List<String> words) {
+        return new Keywords(words);
+    }
+
+    /**
+     * @param queries nonempty list of queries
+     * @return query matching the tweets matched by every one of queries
+     */
+    public static TweetQuery and(TweetQuery... queries) {
+        if (queries.length == 0) {
+            throw new IllegalArgumentException("requires at least one query");
+        }
+        return queries.length == 1 ? queries[0] : new And(Arrays.asList(queries.clone()));
+    }
+
+    /**
+     * @param queries nonempty list of queries
+     * @return query matching the tweets matched by at least one of queries
+     */
+    public static TweetQuery or(TweetQuery... queries) {
+        if (queries.length == 0) {
+            throw new IllegalArgumentException("requires at least one query");
+        }
+        return queries.length == 1 ? queries[0] : new Or(Arrays.asList(queries.clone()));
+    }
+
+    /**
+     * @param other a query
+     * @return query matching the tweets matched by both this and other
+     */
+    public TweetQuery and(TweetQuery other) {
+        return and(this, other);
+    }
+
+    /**
+     * @param other a query
+     * @return query matching the tweets matched by this or other
+     */
+    public TweetQuery or(TweetQuery other) {
+        return or(this, other);
+    }
+
+    /**
+     * @param searcher searcher over a corpus
+     * @return an upper bound on the number of tweets in the corpus this query
+     *         matches, computed from index statistics without evaluating it
+     */
+    abstract int estimate(TweetSearcher searcher);
+
+    /**
+     * @param searcher searcher over a corpus
+     * @return strictly increasing positions of the tweets in the corpus this
+     *         query matches
+     */
+    abstract int[] positions(TweetSearcher searcher);
+
+    /**
+     * Resolve this query against a corpus for checking candidates one by one.
+     * Usernames and words are looked up once here, so that each check is
+     * only an id comparison or a search of a posting list.
+     *
+     * @param searcher searcher over a corpus
+     * @return predicate that, for 0 <= position < corpus size, is true iff
+     *         this query matches the tweet at position
+     */
+    abstract IntPredicate matcher(TweetSearcher searcher);
+
+    /**
+     * @param searcher searcher over a corpus
+     * @return description of how this query is evaluated, with the estimate
+     *         of each part and the parts of each AND in the order they run
+     */
+    abstract String explain(TweetSearcher searcher);
+
+    private static IntPredicate[] matchers(List<TweetQuery> queries, TweetSearcher searcher) {
+        IntPredicate[] matchers = new IntPredicate[queries.size()];
+        for (int i = 0; i < matchers.length; i++) {
+            matchers[i] = queries.get(i).matcher(searcher);
+        }
+        return matchers;
+    }
+
+    /*
+     * Predicate on authors.
+     */
+    private static class Author extends TweetQuery {
+        private final String username;
+
+        Author(String username) {
+            this.username = username;
+        }
+
+        @Override int estimate(TweetSearcher searcher) {
+            return searcher.authors().count(username);
+        }
+
+        @Override int[] positions(TweetSearcher searcher) {
+            return searcher.authors().positionsWrittenBy(username);
+        }
+
+        @Override IntPredicate matcher(TweetSearcher searcher) {
+            AuthorIndex authors = searcher.authors();
+            int id = authors.dictionary().idOf(username);
+            if (id < 0) {
+                return position -> false;
+            }
+            return position -> authors.authorId(position) == id;
+        }
+
+        @Override String explain(TweetSearcher searcher) {
+            return "writtenBy(" + username + ")~" + estimate(searcher);
+        }
+
+        @Override public String toString() {
+            return "writtenBy(" + username + ")";
+        }
+    }
+
+    /*
+     * Predicate on timestamps.
+     */
+    private static class Time extends TweetQuery {
+        private final Timespan timespan;
+
+        Time(Timespan timespan) {
+            this.timespan = timespan;
+        }
+
+        @Override int estimate(TweetSearcher searcher) {
+            return searcher.times().count(timespan);
+        }
+
+        @Override int[] positions(TweetSearcher searcher) {
+            return searcher.times().positionsInTimespan(timespan);
+        }
+
+        @Override IntPredicate matcher(TweetSearcher searcher) {
+            List<Tweet> tweets = searcher.tweets();
+            Instant start = timespan.getStart();
+            Instant end = timespan.getEnd();
+            return position -> {
+                Instant timestamp = tweets.get(position).getTimestamp();
+                return timestamp.isAfter(start) && timestamp.isBefore(end);
+            };
+        }
+
+        @Override String explain(TweetSearcher searcher) {
+            return "inTimespan" + timespan + "~" + estimate(searcher);
+        }
+
+        @Override public String toString() {
+            return "inTimespan" + timespan;
+        }
+    }
+
+    /*
+     * Predicate on words in the text.
+     */
+    private static class Keywords extends TweetQuery {
+        private final List<String> words;
+
+        Keywords(List<String> words) {
+            this.words = Collections.unmodifiableList(new ArrayList<>(words));
+        }
+
+        @Override int estimate(TweetSearcher searcher) {
+            long sum = 0;
+            for (String word : words) {
+                sum += searcher.keywords().frequency(word);
+            }
+            return (int) Math.min(sum, searcher.tweets().size());
+        }
+
+        @Override int[] positions(TweetSearcher searcher) {
+            return searcher.keywords().positionsContainingAny(words);
+        }
+
+        @Override IntPredicate matcher(TweetSearcher searcher) {
+            IntList[] lists = searcher.keywords().postingLists(words);
+            return position -> {
+                for (IntList list : lists) {
+                    if (list.containsSorted(position)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+
+        @Override String explain(TweetSearcher searcher) {
+            return "containing" + words + "~" + estimate(searcher);
+        }
+
+        @Override public String toString() {
+            return "containing" + words;
+        }
+    }
+
+    /*
+     * Conjunction, evaluated most selective child first.
+     */
+    private static class And extends TweetQuery {
+        private final List<TweetQuery> children;
+
+        And(List<TweetQuery> children) {
+            this.children = Collections.unmodifiableList(children);
+        }
+
+        @Override int estimate(TweetSearcher searcher) {
+            int estimate = Integer.MAX_VALUE;
+            for (TweetQuery child : children) {
+                estimate = Math.min(estimate, child.estimate(searcher));
+            }
+            return estimate;
+        }
+
+        /*
+         * @return children in increasing order of estimate
+         */
+        private List<TweetQuery> plan(TweetSearcher searcher) {
+            int[] estimates = new int[children.size()];
+            Integer[] order = new Integer[children.size()];
+            for (int i = 0; i < order.length; i++) {
+                estimates[i] = children.get(i).estimate(searcher);
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> estimates[i]));
+            List<TweetQuery> planned = new ArrayList<>(order.length);
+            for (int i : order) {
+                planned.add(children.get(i));
+            }
+            return planned;
+        }
+
+        @Override int[] positions(TweetSearcher searcher) {
+            List<TweetQuery> planned = plan(searcher);
+            int[] candidates = planned.get(0).positions(searcher);
+            for (TweetQuery child : planned.subList(1, planned.size())) {
+                if (candidates.length == 0) {
+                    break;
+                }
+                if (child.estimate(searcher) > (long) FILTER_FACTOR * candidates.length) {
+                    // few candidates left: check them rather than list the child's matches
+                    IntPredicate matcher = child.matcher(searcher);
+                    int kept = 0;
+                    for (int position : candidates) {
+                        if (matcher.test(position)) {
+                            candidates[kept++] = position;
+                        }
+                    }
+                    candidates = Arrays.copyOf(candidates, kept);
+                } else {
+                    candidates = Postings.intersect(candidates, child.positions(searcher));
+                }
+            }
+            return candidates;
+        }
+
+        @Override IntPredicate matcher(TweetSearcher searcher) {
+            IntPredicate[] matchers = matchers(children, searcher);
+            return position -> {
+                for (IntPredicate matcher : matchers) {
+                    if (!matcher.test(position)) {
+                        return false;
+                    }
+                }
+                return true;
+            };
+        }
+
+        @Override String explain(TweetSearcher searcher) {
+            List<String> parts = new ArrayList<>();
+            for (TweetQuery child : plan(searcher)) {
+                parts.add(child.explain(searcher));
+            }
+            return "AND" + parts + "~" + estimate(searcher);
+        }
+
+        @Override public String toString() {
+            return "AND" + children;
+        }
+    }
+
+    /*
+     * Disjunction, merged as lists when sparse and as a bitset when dense.
+     */
+    private static class Or extends TweetQuery {
+        private final List<TweetQuery> children;
+
+        Or(List<TweetQuery> children) {
+            this.children = Collections.unmodifiableList(children);
+        }
+
+        @Override int estimate(TweetSearcher searcher) {
+            long sum = 0;
+            for (TweetQuery child : children) {
+                sum += child.estimate(searcher);
+            }
+            return (int) Math.min(sum, searcher.tweets().size());
+        }
+
+        private boolean dense(TweetSearcher searcher) {
+            return (long) estimate(searcher) * DENSE_FRACTION > searcher.tweets().size();
+        }
+
+        @Override int[] positions(TweetSearcher searcher) {
+            if (!dense(searcher)) {
+                int[][] lists = new int[children.size()][];
+                for (int i = 0; i < lists.length; i++) {
+                    lists[i] = children.get(i).positions(searcher);
+                }
+                return Postings.union(lists);
+            }
+            BitSet matching = new BitSet(searcher.tweets().size());
+            for (TweetQuery child : children) {
+                for (int position : child.positions(searcher)) {
+                    matching.set(position);
+                }
+            }
+            return matching.stream().toArray();
+        }
+
+        @Override IntPredicate matcher(TweetSearcher searcher) {
+            IntPredicate[] matchers = matchers(children, searcher);
+            return position -> {
+                for (IntPredicate matcher : matchers) {
+                    if (matcher.test(position)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+
+        @Override String explain(TweetSearcher searcher) {
+            List<String> parts = new ArrayList<>();
+            for (TweetQuery child : children) {
+                parts.add(child.explain(searcher));
+            }
+            return (dense(searcher) ? "OR-bitset" : "OR") + parts + "~" + estimate(searcher);
+        }
+
+        @Override public String toString() {
+            return "OR" + children;
+        }
+    }
+}
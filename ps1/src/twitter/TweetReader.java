@@ -4,25 +4,13 @@
 package twitter;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.Reader;
 import java.net.URL;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
-
-import javax.json.Json;
-import javax.json.JsonArray;
-import javax.json.JsonException;
-import javax.json.JsonNumber;
-import javax.json.JsonObject;
-import javax.json.JsonReader;
-import javax.json.JsonString;
-import javax.json.JsonValue;
+import java.util.stream.Stream;
 
 /**
  * Read tweets from files or from a web server. Uses a simplified representation
@@ -41,80 +29,78 @@ public class TweetReader {
      *                     or some other network-related error occurs.
      */
     public static List<Tweet> readTweetsFromWeb(URL url) throws IOException {
-        return readTweets(new InputStreamReader(url.openStream()));
+        return readTweets(url.openStream());
     }
     
-    /*
-     * Read a list of tweets from a stream.
+    /**
+     * Get a list of tweets from a web server, through a cache on local disk.
+     * The server is asked whether the cached response is still current, and
+     * if so the tweets are loaded from the cache instead of downloaded again.
      * 
-     * @return a list of tweets parsed out of the stream.
+     * @param url URL of server to retrieve tweets from
+     * @param cacheDirectory directory of the cache, created if it does not exist
+     * @return a list of tweets retrieved from the server, with timestamps
+     *         rounded to the millisecond.
+     * @throws IOException if the url is invalid, the server is unreachable,
+     *                     some other network-related error occurs, or the
+     *                     cache cannot be read or written.
      */
-    private static List<Tweet> readTweets(Reader reader) {
-        JsonReader jsonReader = Json.createReader(reader);
-        JsonArray array = jsonReader.readArray();
-        ArrayList<Tweet> tweetList = new ArrayList<Tweet>();
-        for (int i = 0; i < array.size(); i++) {
-            Map<String, Object> map = constructTweetMap(array.get(i), null);
-            tweetList.add(createTweetFromMap(map));
-        }
-        return tweetList;
+    public static List<Tweet> readTweetsFromWeb(URL url, Path cacheDirectory) throws IOException {
+        return new TweetCache(cacheDirectory).fetch(url);
     }
     
-    /*
-     * Crawl recursively through the JSON tree representing a single tweet.
+    /**
+     * Get a list of tweets from a local file. The file is memory-mapped and
+     * decoded in parallel, in chunks split at record boundaries.
      * 
-     * @return a map that maps key paths (like "id" and "user.screen_name") to values.
+     * @param file path of a file holding either a JSON array of tweets (in the
+     *             same format the web server sends) or newline-delimited JSON,
+     *             one tweet object per line.
+     * @return a list of the tweets in the file, in the same order as in the file.
+     * @throws IOException if the file cannot be read.
      */
-    private static Map<String, Object> constructTweetMap(JsonValue tree, String key) {
-        Map<String, Object> tweetMap = new HashMap<String, Object>();
-        switch (tree.getValueType()) {
-        case OBJECT:
-            JsonObject object = (JsonObject) tree;
-            Map<String, Object> subMap = new HashMap<String, Object>();
-            for (String name : object.keySet()) {
-                subMap.putAll(constructTweetMap(object.get(name), name));
-            }
-            if (key == null) {
-                tweetMap.putAll(subMap);
-            } else {
-                tweetMap.put(key, subMap);
-            }
-            break;
-        case ARRAY:
-            JsonArray array = (JsonArray) tree;
-            for (JsonValue val : array)
-                tweetMap.putAll(constructTweetMap(val, null));
-            break;
-        case STRING:
-            JsonString st = (JsonString) tree;
-            tweetMap.put(key, st.getString());
-            break;
-        case NUMBER:
-            JsonNumber num = (JsonNumber) tree;
-            tweetMap.put(key, num.toString());
-            break;
-        case TRUE:
-        case FALSE:
-        case NULL:
-            tweetMap.put(key, tree.getValueType().toString());
-            break;
-        default:
-            throw new JsonException("Unexpected value type " + tree.getValueType());
-        }
-        
-        return tweetMap;
+    public static List<Tweet> readTweetsFromFile(Path file) throws IOException {
+        return TweetFileReader.read(file, TweetFileReader.DEFAULT_CHUNK_BYTES);
+    }
+    
+    /**
+     * Get a stream of tweets from a web server, decoding each tweet only when
+     * it is consumed.
+     * 
+     * @param url URL of server to retrieve tweets from
+     * @return a sequential stream of the tweets retrieved from the server, in
+     *         the order the server sends them. The stream must be closed to
+     *         release the connection.
+     * @throws IOException if the url is invalid, the server is unreachable,
+     *                     or some other network-related error occurs.
+     */
+    public static Stream<Tweet> streamTweetsFromWeb(URL url) throws IOException {
+        return new TweetParser(url.openStream()).stream();
+    }
+    
+    /**
+     * Get a stream of tweets from a character stream holding a JSON array of
+     * tweets, decoding each tweet only when it is consumed.
+     * 
+     * @param reader stream of JSON text; closed when the returned stream is closed.
+     * @return a sequential stream of the tweets in the array, in order.
+     */
+    public static Stream<Tweet> streamTweets(Reader reader) {
+        return new TweetParser(reader).stream();
     }
     
     /*
-     * Construct a Tweet from a map of (key,value) pairs parsed from JSON.
+     * Read a list of tweets from a stream.
+     * 
+     * @return a list of tweets parsed out of the stream.
      */
-    private static Tweet createTweetFromMap(Map<String, Object> tweetMap) {
-        // make the Tweet
-        Long id = Long.valueOf(tweetMap.get("id").toString());
-        String screenName = tweetMap.get("user.screen_name").toString();
-        String text = tweetMap.get("text").toString();
-        ZonedDateTime timestamp = ZonedDateTime.parse(tweetMap.get("created_at").toString(),
-                                                      DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.US));
-        return new Tweet(id, screenName, text, timestamp.toInstant());
+    private static List<Tweet> readTweets(InputStream in) {
+        ArrayList<Tweet> tweetList = new ArrayList<Tweet>();
+        try (TweetParser parser = new TweetParser(in)) {
+            while (parser.hasNext()) {
+                tweetList.add(parser.next());
+            }
+        }
+        return tweetList;
     }
 }
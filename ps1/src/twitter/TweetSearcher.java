@@ -0,0 +1,110 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TweetSearcher is an immutable query engine over a list of tweets. It builds
+ * an AuthorIndex, a TimeIndex and a KeywordIndex once, then evaluates each
+ * TweetQuery against them.
+ *
+ * A small planner orders the parts of each AND by their estimated number of
+ * matches, taken from the index statistics, and runs the most selective part
+ * first. Later parts either intersect posting lists with the candidates so
+ * far, or, once few candidates remain, check each one directly. ORs merge
+ * posting lists, or set bits in a bitset when they are expected to match a
+ * large fraction of the corpus. Intermediate results are arrays of positions;
+ * Tweets are only looked up for the final result.
+ */
+public class TweetSearcher {
+
+    private final List<Tweet> tweets;
+    private final AuthorIndex authors;
+    private final TimeIndex times;
+    private final KeywordIndex keywords;
+    /* Rep invariant:
+     *    authors, times and keywords each index exactly tweets, in order
+     * Abstraction function:
+     *    represents a searchable view of the list tweets.
+     */
+
+    /**
+     * Build a searcher over a list of tweets.
+     *
+     * @param tweets list of tweets with distinct ids; must not be modified
+     *               while the searcher is in use.
+     */
+    public TweetSearcher(List<Tweet> tweets) {
+        this.tweets = tweets;
+        this.authors = new AuthorIndex(tweets);
+        this.times = new TimeIndex(tweets);
+        this.keywords = new KeywordIndex(tweets);
+    }
+
+    /**
+     * Find the tweets matching a query.
+     *
+     * @param query query to evaluate
+     * @return a new list of all and only the tweets in the list that match
+     *         query, in the same order as in the list
+     */
+    public List<Tweet> search(TweetQuery query) {
+        int[] positions = query.positions(this);
+        List<Tweet> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(tweets.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * Find the tweets matching a query, without copying them.
+     *
+     * @param query query to evaluate
+     * @return an unmodifiable view of the tweets returned by search(query)
+     */
+    public List<Tweet> searchView(TweetQuery query) {
+        return new PositionList(tweets, query.positions(this));
+    }
+
+    /**
+     * Count the tweets matching a query, without looking up any tweets.
+     *
+     * @param query query to evaluate
+     * @return number of tweets in the list that match query
+     */
+    public int count(TweetQuery query) {
+        return query.positions(this).length;
+    }
+
+    /**
+     * Describe how a query would be evaluated, for tuning and debugging.
+     *
+     * @param query query to plan
+     * @return a description of the plan: each part with its estimated number
+     *         of matches after "~", and the parts of each AND in the order
+     *         they run. The format may change.
+     */
+    public String explain(TweetQuery query) {
+        return query.explain(this);
+    }
+
+    List<Tweet> tweets() {
+        return tweets;
+    }
+
+    AuthorIndex authors() {
+        return authors;
+    }
+
+    TimeIndex times() {
+        return times;
+    }
+
+    KeywordIndex keywords() {
+        return keywords;
+    }
+}
@@ -0,0 +1,420 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * TweetStore is a mutable, append-only collection of tweets kept in columns
+ * instead of as Tweet objects.
+ *
+ * Ids and timestamps are primitive long arrays, authors are dictionary-encoded
+ * as int ids, and text is packed as UTF-8 into one byte array. Tweet objects
+ * are made on demand by get() and asList(). Timestamps are kept to the
+ * millisecond. A store holds at most MAX_TEXT_BYTES bytes of UTF-8 text, a
+ * little under 2 GB.
+ *
+ * A store can be saved to and loaded from a versioned binary snapshot file,
+ * which is much faster to load than re-parsing the original JSON.
+ *
+ * TweetStore is not safe for use by multiple threads while tweets are being
+ * added.
+ */
+public class TweetStore {
+
+    private static final int MAGIC = 0x54575453; // "TWTS"
+    private static final int VERSION = 1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int IO_BUFFER_BYTES = 1 << 20;
+    private static final int TWEET_BYTES = 2 * Long.BYTES + 2 * Integer.BYTES;
+
+    /** Largest total size of the UTF-8 text of the tweets in a store, in bytes. */
+    public static final int MAX_TEXT_BYTES = Integer.MAX_VALUE - 8;
+
+    private int size = 0;
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] epochMillis = new long[INITIAL_CAPACITY];
+    private int[] authorIds = new int[INITIAL_CAPACITY];
+    private int[] textOffsets = new int[INITIAL_CAPACITY + 1];
+    private byte[] text = new byte[INITIAL_CAPACITY * 64];
+    private final List<String> authors = new ArrayList<>();
+    private final Map<String, Integer> authorIdsByName = new HashMap<>();
+    /* Rep invariant:
+     *    0 <= size <= ids.length == epochMillis.length == authorIds.length == textOffsets.length - 1
+     *    textOffsets[0] == 0, and textOffsets[0..size] is nondecreasing with textOffsets[size] <= text.length
+     *    text.length <= MAX_TEXT_BYTES
+     *    0 <= authorIds[i] < authors.size() for all 0 <= i < size
+     *    authorIdsByName.get(authors.get(a)) == a for all 0 <= a < authors.size()
+     * Abstraction function:
+     *    represents the sequence of tweets t_0 .. t_(size-1) where t_i has id ids[i],
+     *    author authors[authorIds[i]], timestamp epochMillis[i] milliseconds after
+     *    the epoch, and text the UTF-8 decoding of text[textOffsets[i]..textOffsets[i+1]).
+     */
+
+    /**
+     * Make an empty TweetStore.
+     */
+    public TweetStore() {
+    }
+
+    /**
+     * Make a TweetStore holding a list of tweets.
+     *
+     * @param tweets tweets to add, in order; not modified by this constructor.
+     * @throws IllegalStateException if the text of the tweets would exceed
+     *                               MAX_TEXT_BYTES
+     */
+    public TweetStore(List<Tweet> tweets) {
+        ensureCapacity(tweets.size());
+        for (Tweet tweet : tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * Append a tweet to the end of this store.
+     *
+     * @param tweet tweet to add
+     * @throws IllegalStateException if the text of this store would exceed
+     *                               MAX_TEXT_BYTES; the store is unchanged
+     */
+    public void add(Tweet tweet) {
+        byte[] encoded = tweet.getText().getBytes(StandardCharsets.UTF_8);
+        int textStart = textOffsets[size];
+        if (encoded.length > MAX_TEXT_BYTES - textStart) {
+            throw new IllegalStateException("tweet store text would exceed " + MAX_TEXT_BYTES + " bytes");
+        }
+        int textEnd = Math.addExact(textStart, encoded.length);
+        ensureCapacity(size + 1);
+        if (textEnd > text.length) {
+            text = Arrays.copyOf(text, Math.max(textEnd, grown(text.length)));
+        }
+        System.arraycopy(encoded, 0, text, textStart, encoded.length);
+
+        ids[size] = tweet.getId();
+        epochMillis[size] = tweet.getTimestamp().toEpochMilli();
+        authorIds[size] = authorId(tweet.getAuthor());
+        textOffsets[size + 1] = textEnd;
+        size++;
+    }
+
+    /**
+     * @return number of tweets in this store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index position of a tweet, requires 0 <= index < size()
+     * @return id of the tweet at index
+     */
+    public long getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    /**
+     * @param index position of a tweet, requires 0 <= index < size()
+     * @return timestamp of the tweet at index, in milliseconds since the epoch
+     */
+    public long getEpochMilli(int index) {
+        checkIndex(index);
+        return epochMillis[index];
+    }
+
+    /**
+     * @param index position of a tweet, requires 0 <= index < size()
+     * @return author of the tweet at index
+     */
+    public String getAuthor(int index) {
+        checkIndex(index);
+        return authors.get(authorIds[index]);
+    }
+
+    /**
+     * @param index position of a tweet, requires 0 <= index < size()
+     * @return text of the tweet at index
+     */
+    public String getText(int index) {
+        checkIndex(index);
+        return new String(text, textOffsets[index], textOffsets[index + 1] - textOffsets[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param index position of a tweet, requires 0 <= index < size()
+     * @return a new Tweet equal to the tweet at index
+     */
+    public Tweet get(int index) {
+        return new Tweet(getId(index), getAuthor(index), getText(index), Instant.ofEpochMilli(getEpochMilli(index)));
+    }
+
+    /**
+     * @return an unmodifiable list view of the tweets in this store, in order.
+     *         Elements are made on demand by get(), and the view reflects
+     *         tweets added later.
+     */
+    public List<Tweet> asList() {
+        return new TweetList();
+    }
+
+    /*
+     * Read-only list view over the store.
+     */
+    private class TweetList extends AbstractList<Tweet> implements RandomAccess {
+        @Override public Tweet get(int index) {
+            return TweetStore.this.get(index);
+        }
+
+        @Override public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Save this store as a binary snapshot, replacing the file if it exists.
+     *
+     * @param file path of the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(authors.size());
+            for (String author : authors) {
+                byte[] name = author.getBytes(StandardCharsets.UTF_8);
+                ensureRemaining(channel, buffer, Integer.BYTES);
+                buffer.putInt(name.length);
+                put(channel, buffer, name, name.length);
+            }
+            for (int i = 0; i < size; i++) {
+                ensureRemaining(channel, buffer, Long.BYTES);
+                buffer.putLong(ids[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                ensureRemaining(channel, buffer, Long.BYTES);
+                buffer.putLong(epochMillis[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                ensureRemaining(channel, buffer, Integer.BYTES);
+                buffer.putInt(authorIds[i]);
+            }
+            for (int i = 0; i <= size; i++) {
+                ensureRemaining(channel, buffer, Integer.BYTES);
+                buffer.putInt(textOffsets[i]);
+            }
+            put(channel, buffer, text, textOffsets[size]);
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Load a store from a binary snapshot written by save().
+     *
+     * @param file path of the snapshot file
+     * @return a new store holding the tweets in the snapshot
+     * @throws IOException if the file cannot be read, or is not a complete,
+     *                     well-formed snapshot of a supported version
+     */
+    public static TweetStore load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+            buffer.flip();
+            fill(channel, buffer, 4 * Integer.BYTES);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a tweet store snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported tweet store snapshot version " + version);
+            }
+            int size = buffer.getInt();
+            int authorCount = buffer.getInt();
+            // check counts against the file before allocating for them
+            if (size < 0 || authorCount < 0
+                    || (long) size * TWEET_BYTES + Integer.BYTES > remaining(channel, buffer)) {
+                throw corrupt(file);
+            }
+
+            TweetStore store = new TweetStore();
+            store.ensureCapacity(size);
+            for (int a = 0; a < authorCount; a++) {
+                fill(channel, buffer, Integer.BYTES);
+                int nameLength = buffer.getInt();
+                if (nameLength < 0 || nameLength > remaining(channel, buffer)) {
+                    throw corrupt(file);
+                }
+                byte[] name = new byte[nameLength];
+                get(channel, buffer, name);
+                store.authorId(new String(name, StandardCharsets.UTF_8));
+            }
+            for (int i = 0; i < size; i++) {
+                fill(channel, buffer, Long.BYTES);
+                store.ids[i] = buffer.getLong();
+            }
+            for (int i = 0; i < size; i++) {
+                fill(channel, buffer, Long.BYTES);
+                store.epochMillis[i] = buffer.getLong();
+            }
+            for (int i = 0; i < size; i++) {
+                fill(channel, buffer, Integer.BYTES);
+                store.authorIds[i] = buffer.getInt();
+                if (store.authorIds[i] < 0 || store.authorIds[i] >= store.authors.size()) {
+                    throw corrupt(file);
+                }
+            }
+            for (int i = 0; i <= size; i++) {
+                fill(channel, buffer, Integer.BYTES);
+                store.textOffsets[i] = buffer.getInt();
+                if (i == 0 ? store.textOffsets[i] != 0 : store.textOffsets[i] < store.textOffsets[i - 1]) {
+                    throw corrupt(file);
+                }
+            }
+            if (store.textOffsets[size] > MAX_TEXT_BYTES || store.textOffsets[size] != remaining(channel, buffer)) {
+                throw corrupt(file);
+            }
+            store.text = new byte[store.textOffsets[size]];
+            get(channel, buffer, store.text);
+            store.size = size;
+            store.checkRep();
+            return store;
+        }
+    }
+
+    /**
+     * @return the timestamp column, in milliseconds since the epoch; only the
+     *         first size() elements are meaningful, and it must not be modified
+     */
+    long[] epochMillis() {
+        return epochMillis;
+    }
+
+    /*
+     * @return dictionary id of author, adding it to the dictionary if needed
+     */
+    private int authorId(String author) {
+        Integer id = authorIdsByName.get(author);
+        if (id == null) {
+            id = authors.size();
+            authors.add(author);
+            authorIdsByName.put(author, id);
+        }
+        return id;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, grown(ids.length));
+        ids = Arrays.copyOf(ids, newCapacity);
+        epochMillis = Arrays.copyOf(epochMillis, newCapacity);
+        authorIds = Arrays.copyOf(authorIds, newCapacity);
+        textOffsets = Arrays.copyOf(textOffsets, newCapacity + 1);
+    }
+
+    // helper method to double an array length without overflow
+    private static int grown(int length) {
+        return (int) Math.min(2L * length, MAX_TEXT_BYTES);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+
+    private void checkRep() {
+        assert 0 <= size && size <= ids.length;
+        assert textOffsets[0] == 0 && textOffsets[size] == text.length;
+        for (int i = 0; i < size; i++) {
+            assert textOffsets[i] <= textOffsets[i + 1];
+            assert 0 <= authorIds[i] && authorIds[i] < authors.size();
+        }
+    }
+
+    /*
+     * Make room for count more bytes in buffer, writing it out if needed.
+     */
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int count) throws IOException {
+        if (buffer.remaining() < count) {
+            flush(channel, buffer);
+        }
+    }
+
+    /*
+     * Write bytes[0..length) through buffer, a buffer-sized piece at a time.
+     */
+    private static void put(FileChannel channel, ByteBuffer buffer, byte[] bytes, int length) throws IOException {
+        for (int written = 0; written < length; ) {
+            ensureRemaining(channel, buffer, 1);
+            int count = Math.min(buffer.remaining(), length - written);
+            buffer.put(bytes, written, count);
+            written += count;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /*
+     * @return number of bytes of the file not yet consumed from buffer
+     */
+    private static long remaining(FileChannel channel, ByteBuffer buffer) throws IOException {
+        return channel.size() - channel.position() + buffer.remaining();
+    }
+
+    private static IOException corrupt(Path file) {
+        return new IOException("corrupt tweet store snapshot " + file);
+    }
+
+    /*
+     * Make at least count bytes (at most the buffer's capacity) readable from buffer.
+     */
+    private static void fill(FileChannel channel, ByteBuffer buffer, int count) throws IOException {
+        int needed = Math.min(count, buffer.capacity());
+        if (buffer.remaining() >= needed) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < needed) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("truncated tweet store snapshot");
+            }
+        }
+        buffer.flip();
+    }
+
+    /*
+     * Read bytes.length bytes into bytes through buffer, a buffer-sized piece at a time.
+     */
+    private static void get(FileChannel channel, ByteBuffer buffer, byte[] bytes) throws IOException {
+        for (int read = 0; read < bytes.length; ) {
+            fill(channel, buffer, 1);
+            int count = Math.min(buffer.remaining(), bytes.length - read);
+            buffer.get(bytes, read, count);
+            read += count;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * UsernameDictionary is a mutable dictionary that assigns dense int ids
+ * 0, 1, 2, ... to Twitter usernames, ignoring case, as a CaseFoldedDictionary
+ * does for any strings.
+ *
+ * Usernames that are the same ignoring case (like "jbieber" and "JBieBer")
+ * get the same id, so code that has interned its usernames can compare ints
+ * instead of case-folding strings. Each id remembers the spelling it was
+ * first interned with.
+ *
+ * UsernameDictionary is not safe for use by multiple threads while usernames
+ * are being interned.
+ */
+public class UsernameDictionary extends CaseFoldedDictionary {
+
+    /**
+     * Make an empty UsernameDictionary.
+     */
+    public UsernameDictionary() {
+    }
+}
@@ -0,0 +1,107 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class AuthorIndexTest {
+
+    /* Testing strategy
+     *
+     * Partition for UsernameDictionary.intern(), idOf(), name()
+     *
+     * username new to the dictionary, or already present in the same or different case
+     * username given as a whole string, or as a region of a longer text
+     * dictionary grows past its initial capacity, or doesn't
+     *
+     * Partition for AuthorIndex.writtenBy(username), count(username)
+     *
+     * corpus contains 0, 1, >1 tweets by username
+     * username in the same or different case as the tweets' authors
+     * dictionary shared with other code, or not
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "can we stop talking about rivest?", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers new username, then the same username in a different case
+    @Test
+    public void testInternIgnoresCase() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        int id = dictionary.intern("Alyssa");
+
+        assertEquals("expected same id", id, dictionary.intern("aLYSSA"));
+        assertEquals("expected first spelling", "Alyssa", dictionary.name(id));
+        assertEquals("expected one username", 1, dictionary.size());
+        assertEquals("expected absent username", -1, dictionary.idOf("bbitdiddle"));
+    }
+
+    // covers username given as a region of text
+    @Test
+    public void testInternRegion() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        int id = dictionary.intern("alyssa");
+        String text = "hi @ALYSSA and @bob";
+
+        assertEquals("expected same id", id, dictionary.idOf(text, 4, 10));
+        assertEquals("expected new id", 1, dictionary.intern(text, 16, 19));
+        assertEquals("expected spelling from text", "bob", dictionary.name(1));
+    }
+
+    // covers dictionary growing past its initial capacity
+    @Test
+    public void testInternMany() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("expected dense ids", i, dictionary.intern("user" + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("expected same ids", i, dictionary.idOf("USER" + i));
+        }
+    }
+
+    // covers corpus with 0 tweets by username
+    @Test
+    public void testWrittenByEmptyResult() {
+        AuthorIndex index = new AuthorIndex(Arrays.asList(tweet1, tweet2));
+
+        assertTrue("expected empty list", index.writtenBy("alex").isEmpty());
+        assertEquals("expected zero count", 0, index.count("alex"));
+    }
+
+    // covers corpus with >1 tweets by username in different case
+    @Test
+    public void testWrittenByIgnoresCase() {
+        AuthorIndex index = new AuthorIndex(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals("expected tweets in order", Arrays.asList(tweet1, tweet3), index.writtenBy("ALYSSA"));
+        assertEquals("expected view in order", Arrays.asList(tweet1, tweet3), index.writtenByView("alyssa"));
+        assertEquals("expected one tweet", Arrays.asList(tweet2), Filter.writtenBy(index, "bbitdiddle"));
+    }
+
+    // covers shared dictionary
+    @Test
+    public void testSharedDictionary() {
+        UsernameDictionary dictionary = new UsernameDictionary();
+        int bob = dictionary.intern("bbitdiddle");
+        AuthorIndex index = new AuthorIndex(dictionary);
+        index.addAll(Arrays.asList(tweet1, tweet2));
+
+        assertEquals("expected shared id", bob, index.authorId(1));
+        assertEquals("expected author interned in shared dictionary", index.authorId(0), dictionary.idOf("alyssa"));
+    }
+}
@@ -0,0 +1,159 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CommunitiesTest {
+
+    /* Testing strategy
+     *
+     * Partition for CsrGraph.undirected()
+     *
+     * edges: one-way, mutual
+     *
+     * Partition for Communities.detect(graph, seed, maxIterations, threads)
+     *
+     * graph: empty, isolated users, separate cliques, cliques joined by an
+     *        edge, large planted partition
+     * threads: 1, > 1 with colors above the parallel threshold
+     * seed: same, different
+     * stops by convergence or by maxIterations
+     *
+     * Partition for communityOf, size, members, internalLinks, density
+     *
+     * username: in the graph in different case, not in the graph
+     * community: one user, several users
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers one-way and mutual edges
+    @Test
+    public void testUndirected() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("alyssa", new HashSet<>(Arrays.asList("ben", "cy")));
+        graph.put("ben", new HashSet<>(Arrays.asList("alyssa")));
+        CsrGraph links = new CsrGraph(graph).undirected();
+
+        assertEquals(4, links.edgeCount());
+        assertEquals(2, links.outDegree(links.idOf("alyssa")));
+        assertArrayEquals(new int[] { links.idOf("alyssa") }, links.neighbors(links.idOf("cy")));
+    }
+
+    // covers empty graph
+    @Test
+    public void testEmpty() {
+        Communities communities = Communities.detect(new HashMap<>());
+        assertEquals(0, communities.count());
+        assertEquals(-1, communities.communityOf("alyssa"));
+        assertTrue(communities.converged());
+    }
+
+    // covers cliques joined by an edge, isolated user, usernames in different case
+    @Test
+    public void testCliques() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        clique(graph, "a", 5);
+        clique(graph, "b", 4);
+        graph.get("a0").add("b0");
+        graph.put("loner", new HashSet<>());
+        Communities communities = Communities.detect(new CsrGraph(graph), Communities.DEFAULT_SEED, 20, 1);
+
+        assertTrue(communities.converged());
+        assertEquals(3, communities.count());
+        assertEquals(0, communities.communityOf("A3"));
+        assertEquals(Arrays.asList("a0", "a1", "a2", "a3", "a4"), communities.members(0));
+        assertEquals(10, communities.internalLinks(0));
+        assertEquals(1.0, communities.density(0), 1e-9);
+        assertEquals(1, communities.communityOf("b2"));
+        assertEquals(4, communities.size(1));
+        assertEquals(Arrays.asList("loner"), communities.members(2));
+        assertEquals(0, communities.density(2), 1e-9);
+        assertEquals(-1, communities.communityOf("nobody"));
+    }
+
+    // covers stopping by maxIterations
+    @Test
+    public void testMaxIterations() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        clique(graph, "a", 5);
+        Communities communities = Communities.detect(new CsrGraph(graph), 1, 1, 1);
+        assertEquals(1, communities.iterations());
+        assertFalse(communities.converged());
+    }
+
+    // covers planted partition, threads > 1, same and different seed
+    @Test
+    public void testPlantedPartitionDeterministic() {
+        Random random = new Random(24);
+        int groups = 8;
+        int n = 8000;
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            Set<String> follows = new HashSet<>();
+            for (int j = 0; j < 8; j++) {
+                int w = random.nextInt(20) == 0
+                        ? random.nextInt(n)
+                        : (random.nextInt(n / groups) * groups + v % groups);
+                if (w != v) {
+                    follows.add("user" + w);
+                }
+            }
+            graph.put("user" + v, follows);
+        }
+        CsrGraph csr = new CsrGraph(graph);
+        Communities single = Communities.detect(csr, 7, 50, 1);
+        Communities parallel = Communities.detect(csr, 7, 50, 4);
+
+        assertEquals(single.count(), parallel.count());
+        assertEquals(single.iterations(), parallel.iterations());
+        for (int v = 0; v < n; v++) {
+            assertEquals(single.communityOf("user" + v), parallel.communityOf("user" + v));
+        }
+        // most users share a community with the others of their planted group
+        int agreeing = 0;
+        for (int v = groups; v < n; v++) {
+            if (single.communityOf("user" + v) == single.communityOf("user" + (v % groups))) {
+                agreeing++;
+            }
+        }
+        assertTrue("expected planted groups recovered, " + agreeing, agreeing > 0.9 * (n - groups));
+
+        Communities reseeded = Communities.detect(csr, 8, 50, 4);
+        assertEquals(n, sum(reseeded));
+    }
+
+    private static void clique(Map<String, Set<String>> graph, String prefix, int size) {
+        for (int i = 0; i < size; i++) {
+            Set<String> follows = new HashSet<>();
+            for (int j = 0; j < size; j++) {
+                if (j != i) {
+                    follows.add(prefix + j);
+                }
+            }
+            graph.put(prefix + i, follows);
+        }
+    }
+
+    private static int sum(Communities communities) {
+        int total = 0;
+        for (int c = 0; c < communities.count(); c++) {
+            total += communities.size(c);
+        }
+        return total;
+    }
+}
@@ -21,11 +21,18 @@ public class ExtractTest {
      *  tweets having same timestamp or different timestamps
      *
      *
+     *  Partition for getTimespan(store), getTimespan(epochMillis) -> timespan
+     *
+     *  size : 1, >1, large enough to reduce in parallel
+     *  extremes at the start, middle, or end of the column
+     *
+     *
      *  Partition for getMentionedUsers(tweets) -> Set of usernames
      *
      *  tweets.length : 1, >1
      *  tweets having usernames or doesnt
      *  text of tweet contains username at start, at end or somewhere between start and end
+     *  username-mention followed by punctuation, or "@" preceded by a username character
      */
     
     private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
@@ -37,6 +44,7 @@ public class ExtractTest {
     private static final Tweet tweet4 = new Tweet(4, "caro", "baby shark dududu.. @alex", d1);
     private static final Tweet tweet5 = new Tweet(5, "cedric", "mama @caro shark dududu..", d1);
     private static final Tweet tweet6 = new Tweet(6, "tim", "@alice fifi, @bob kl @Alex", d1);
+    private static final Tweet tweet7 = new Tweet(7, "bbitdiddle", "mail bitdiddle@mit.edu or ask @alyssa.", d2);
     
     @Test(expected=AssertionError.class)
     public void testAssertionsEnabled() {
@@ -82,6 +90,31 @@ public class ExtractTest {
         assertEquals("expected end", d2, timespan.getEnd());
     }
     
+    // covers store size 1 and >1, extremes at the end
+    @Test
+    public void testGetTimespanStore() {
+        TweetStore store = new TweetStore(Arrays.asList(tweet1));
+        assertEquals(new Timespan(d1, d1), Extract.getTimespan(store));
+
+        store.add(tweet2);
+        assertEquals(Extract.getTimespan(Arrays.asList(tweet1, tweet2)), Extract.getTimespan(store));
+    }
+
+    // covers column reduced in parallel, extremes in the middle and at the start
+    @Test
+    public void testGetTimespanEpochMillisParallel() {
+        long[] epochMillis = new long[1_000_003];
+        for (int i = 0; i < epochMillis.length; i++) {
+            epochMillis[i] = 1_455_703_200_000L + (i * 7919L) % 100_000;
+        }
+        epochMillis[0] = 1_455_703_100_000L;
+        epochMillis[612_345] = 1_455_703_400_000L;
+
+        Timespan timespan = Extract.getTimespan(epochMillis);
+        assertEquals("expected start", Instant.ofEpochMilli(1_455_703_100_000L), timespan.getStart());
+        assertEquals("expected end", Instant.ofEpochMilli(1_455_703_400_000L), timespan.getEnd());
+    }
+
     // covers tweets.length = 1 and tweets having no usernames
     @Test
     public void testGetMentionedUsersNoMention() {
@@ -200,4 +233,14 @@ public class ExtractTest {
         assertEquals("expected usernames", expectedUsers1, mentionedUsers);
         assertEquals("expected usernames", expectedUsers2, mentionedUsers);
     }
+
+    // covers tweets.length = 1, username-mention followed by punctuation and "@" preceded by a username character
+    @Test
+    public void testGetMentionedUsersEmailAndPunctuation() {
+        Set<String> mentionedUsers = Extract.getMentionedUsers(Arrays.asList(tweet7));
+        Set<String> expectedUsers = new HashSet<>();
+        expectedUsers.add("alyssa");
+
+        assertEquals("expected usernames", expectedUsers, mentionedUsers);
+    }
 }
@@ -0,0 +1,151 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+/*
+ * Tests for the lazy stream and view variants of Filter, which are beyond
+ * Filter's original spec and so are kept out of FilterTest.
+ */
+public class FilterViewTest {
+
+    /* Testing strategy
+     *
+     * Partition for writtenBy(stream, username), inTimespan(stream, timespan),
+     * containing(stream, words) and their predicates
+     *
+     * result: empty, nonempty
+     * filters: one, chained
+     * stream: consumed or not
+     *
+     * Partition for writtenByView, inTimespanView, containingView, matchingView
+     *
+     * result: empty, nonempty
+     * view: read, modified
+     *
+     * Partition for containing(list), containing(stream), containing(index)
+     * and TweetSearcher agreeing on the same words
+     *
+     * words: non-ASCII whose lowercase differs per character and per string,
+     *        with a final sigma
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "can we stop talking about rivest?", d3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers one filter, empty and nonempty results
+    @Test
+    public void testStreams() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+
+        assertEquals(Arrays.asList(tweet1, tweet3),
+                Filter.writtenBy(tweets.stream(), "ALYSSA").collect(Collectors.toList()));
+        assertEquals(Arrays.asList(tweet2),
+                Filter.inTimespan(tweets.stream(), new Timespan(d1, d3)).collect(Collectors.toList()));
+        assertEquals(0, Filter.containing(tweets.stream(), Arrays.asList("bob")).count());
+    }
+
+    // covers chained filters, stream not consumed
+    @Test
+    public void testStreamsFuse() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        AtomicInteger visited = new AtomicInteger();
+        Stream<Tweet> stream = tweets.stream().peek(tweet -> visited.incrementAndGet());
+
+        Stream<Tweet> chained = Filter.containing(
+                Filter.writtenBy(stream, "alyssa"), Arrays.asList("Talk", "talking"));
+        assertEquals("expected no tweets read before consuming", 0, visited.get());
+
+        assertEquals(Arrays.asList(tweet1, tweet3), chained.collect(Collectors.toList()));
+        assertEquals("expected each tweet read once", 3, visited.get());
+    }
+
+    // covers predicates against the eager filters
+    @Test
+    public void testPredicatesMatchEagerFilters() {
+        Random random = new Random(20);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tweets.add(new Tweet(i, "user" + random.nextInt(10), "w" + random.nextInt(20) + " W" + random.nextInt(20),
+                    d1.plusSeconds(random.nextInt(7200))));
+        }
+        List<String> words = Arrays.asList("w3", "W7");
+        Timespan timespan = new Timespan(d1.plusSeconds(1000), d2.plusSeconds(1000));
+
+        assertEquals(Filter.writtenBy(tweets, "USER4"),
+                tweets.stream().filter(Filter.isWrittenBy("USER4")).collect(Collectors.toList()));
+        assertEquals(Filter.inTimespan(tweets, timespan),
+                tweets.stream().filter(Filter.isInTimespan(timespan)).collect(Collectors.toList()));
+        assertEquals(Filter.containing(tweets, words),
+                tweets.stream().filter(Filter.isContaining(words)).collect(Collectors.toList()));
+    }
+
+    // covers index views, empty and nonempty results
+    @Test
+    public void testViews() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+
+        assertEquals(Arrays.asList(tweet1, tweet3), Filter.writtenByView(new AuthorIndex(tweets), "alyssa"));
+        assertEquals(Arrays.asList(tweet2), Filter.inTimespanView(new TimeIndex(tweets), new Timespan(d1, d3)));
+        assertEquals(Arrays.asList(tweet1, tweet2),
+                Filter.containingView(new KeywordIndex(tweets), Arrays.asList("talk")));
+        assertTrue(Filter.containingView(new KeywordIndex(tweets), Arrays.asList("bob")).isEmpty());
+        assertEquals(Arrays.asList(tweet3), Filter.matchingView(new TweetSearcher(tweets),
+                TweetQuery.writtenBy("alyssa").and(TweetQuery.containing(Arrays.asList("talking")))));
+    }
+
+    // covers modified view
+    @Test(expected=UnsupportedOperationException.class)
+    public void testViewUnmodifiable() {
+        Filter.containingView(new KeywordIndex(Arrays.asList(tweet1)), Arrays.asList("talk")).remove(0);
+    }
+
+    // covers non-ASCII words folded the same way by every containing filter
+    @Test
+    public void testContainingAgreesOnNonAscii() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "\u0130stanbul rocks", d1),
+                new Tweet(2, "bbitdiddle", "\u039f\u0394\u039f\u03a3 trip", d2),
+                new Tweet(3, "rivest", "istanbul \u03bf\u03b4\u03bf\u03c2", d3),
+                new Tweet(4, "alyssa", "caf\u00c9 Stra\u00dfe", d3));
+        KeywordIndex index = new KeywordIndex(tweets);
+        TweetSearcher searcher = new TweetSearcher(tweets);
+        for (String word : Arrays.asList("istanbul", "\u0130STANBUL", "\u03bf\u03b4\u03bf\u03c2",
+                "\u03bf\u03b4\u03bf\u03c3", "caf\u00e9", "stra\u00dfe", "strasse")) {
+            List<String> words = Arrays.asList(word);
+            List<Tweet> expected = Filter.containing(tweets, words);
+            assertEquals("expected stream to agree on " + word, expected,
+                    Filter.containing(tweets.stream(), words).collect(Collectors.toList()));
+            assertEquals("expected index to agree on " + word, expected, Filter.containing(index, words));
+            assertEquals("expected searcher to agree on " + word, expected,
+                    searcher.search(TweetQuery.containing(words)));
+        }
+        assertEquals(Arrays.asList(tweets.get(0), tweets.get(2)),
+                Filter.containing(tweets, Arrays.asList("istanbul")));
+        assertEquals(Arrays.asList(tweets.get(1), tweets.get(2)),
+                Filter.containing(new KeywordIndex(tweets), Arrays.asList("\u03bf\u03b4\u03bf\u03c2")));
+    }
+}
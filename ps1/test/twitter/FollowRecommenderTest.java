@@ -0,0 +1,150 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowRecommenderTest {
+
+    /* Testing strategy
+     *
+     * Partition for recommend(username, k), recommendAll(k), overlap(username, candidate)
+     *
+     * username: not in the network, follows nobody, follows users who follow others
+     * candidates: none, fewer than k, more than k, tied in overlap, tied in followers
+     * candidates include username itself or users it already follows
+     * k: 0, > 0
+     * walk: within the cap, cut short by the cap
+     * users: fewer or more than the parallel threshold
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers unknown user, user following nobody, k = 0
+    @Test
+    public void testNoRecommendations() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("alyssa", new HashSet<>(Arrays.asList("bbitdiddle")));
+        FollowRecommender recommender = new FollowRecommender(graph);
+
+        assertEquals(Collections.emptyList(), recommender.recommend("nobody", 3));
+        assertEquals(Collections.emptyList(), recommender.recommend("bbitdiddle", 3));
+        assertEquals(Collections.emptyList(), recommender.recommend("alyssa", 0));
+        assertEquals(Collections.emptyMap(), recommender.recommendAll(3));
+    }
+
+    // covers candidates that are self or already followed, ties, more than k
+    @Test
+    public void testTriadicClosure() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("alyssa", new HashSet<>(Arrays.asList("ben", "cy", "dee")));
+        graph.put("ben", new HashSet<>(Arrays.asList("eva", "fay", "alyssa", "cy")));
+        graph.put("cy", new HashSet<>(Arrays.asList("eva", "fay", "gus")));
+        graph.put("dee", new HashSet<>(Arrays.asList("eva", "hal")));
+        graph.put("hal", new HashSet<>(Arrays.asList("gus")));
+        FollowRecommender recommender = new FollowRecommender(graph);
+
+        assertEquals(3, recommender.overlap("ALYSSA", "eva"));
+        assertEquals(2, recommender.overlap("alyssa", "fay"));
+        // gus and hal tie on overlap; gus has more followers
+        assertEquals(Arrays.asList("eva", "fay", "gus", "hal"), recommender.recommend("Alyssa", 10));
+        assertEquals(Arrays.asList("eva", "fay"), recommender.recommend("alyssa", 2));
+        assertEquals(Arrays.asList("eva", "fay", "gus", "hal"), recommender.recommendAll(10).get("alyssa"));
+    }
+
+    // covers random networks against brute force, more users than the threshold
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(23);
+        int n = FollowRecommender.PARALLEL_THRESHOLD * 3;
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Set<String> follows = new HashSet<>();
+            for (int j = random.nextInt(12); j > 0; j--) {
+                // skewed, so that some users are hubs
+                follows.add("user" + (int) (n * Math.pow(random.nextDouble(), 3)));
+            }
+            follows.remove("user" + i);
+            graph.put("user" + i, follows);
+        }
+        FollowRecommender recommender = new FollowRecommender(graph);
+        Map<String, List<String>> all = recommender.recommendAll(5);
+
+        for (int i = 0; i < n; i++) {
+            String user = "user" + i;
+            List<String> expected = bruteForce(graph, user, 5);
+            assertEquals("recommendations for " + user, expected, recommender.recommend(user, 5));
+            assertEquals("recommendations for " + user,
+                    expected.isEmpty() ? null : expected, all.get(user));
+        }
+    }
+
+    // covers walk cut short by the cap
+    @Test
+    public void testCapped() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        Set<String> hubFollows = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            hubFollows.add("fan" + i);
+        }
+        graph.put("hub", hubFollows);
+        graph.put("alyssa", new HashSet<>(Arrays.asList("hub", "ben", "cy")));
+        graph.put("ben", new HashSet<>(Arrays.asList("fan7")));
+        graph.put("cy", new HashSet<>(Arrays.asList("fan7", "fan8")));
+        FollowRecommender recommender = new FollowRecommender(graph, 100);
+
+        List<String> recommended = recommender.recommend("alyssa", 3);
+        assertEquals(3, recommended.size());
+        for (String candidate : recommended) {
+            assertTrue("expected positive overlap for " + candidate, recommender.overlap("alyssa", candidate) > 0);
+            assertFalse(graph.get("alyssa").contains(candidate));
+        }
+        for (int i = 0; i + 1 < recommended.size(); i++) {
+            assertTrue("expected descending overlap", recommender.overlap("alyssa", recommended.get(i))
+                    >= recommender.overlap("alyssa", recommended.get(i + 1)));
+        }
+    }
+
+    private static List<String> bruteForce(Map<String, Set<String>> graph, String user, int k) {
+        Map<String, Integer> followers = new HashMap<>();
+        for (Set<String> follows : graph.values()) {
+            for (String followed : follows) {
+                followers.merge(followed, 1, Integer::sum);
+            }
+        }
+        Map<String, Integer> overlap = new HashMap<>();
+        for (String followed : graph.get(user)) {
+            for (String candidate : graph.getOrDefault(followed, Collections.emptySet())) {
+                if (!candidate.equals(user) && !graph.get(user).contains(candidate)) {
+                    overlap.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        List<String> candidates = new ArrayList<>(overlap.keySet());
+        candidates.sort((a, b) -> {
+            int byOverlap = Integer.compare(overlap.get(b), overlap.get(a));
+            if (byOverlap != 0) {
+                return byOverlap;
+            }
+            int byFollowers = Integer.compare(followers.getOrDefault(b, 0), followers.getOrDefault(a, 0));
+            return byFollowers != 0 ? byFollowers : a.compareTo(b);
+        });
+        return candidates.subList(0, Math.min(k, candidates.size()));
+    }
+}
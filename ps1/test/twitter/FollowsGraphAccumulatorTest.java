@@ -0,0 +1,134 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class FollowsGraphAccumulatorTest {
+
+    /* Testing strategy
+     *
+     * Partition for add(tweet), addAll(tweets), leaderboard(), followerCount(), follows(), followsGraph()
+     *
+     * k: 0, smaller than number of users, larger than number of users
+     * tweets: none, self-mention only, repeated edge, mention spelled in different case
+     * ingestion: one tweet at a time, in batches
+     * leaderboard: unchanged, user climbs past leaders, user enters from outside
+     * reads while another thread ingests
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "tim", "@cedric yes @fynn", d1);
+    private static final Tweet tweet2 = new Tweet(2, "Fynn", "@Tim is a good guy, says @CEDRIC", d1);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "@alyssa talking to myself", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers no tweets, k = 0
+    @Test
+    public void testEmpty() {
+        FollowsGraphAccumulator accumulator = new FollowsGraphAccumulator(0);
+        accumulator.add(tweet1);
+
+        assertEquals("expected empty leaderboard", Collections.emptyList(), accumulator.leaderboard());
+        assertEquals("expected one tweet", 1, accumulator.tweetCount());
+        assertEquals(0, new FollowsGraphAccumulator(3).leaderboard().size());
+    }
+
+    // covers self-mention only, repeated edge, different case
+    @Test
+    public void testCounts() {
+        FollowsGraphAccumulator accumulator = new FollowsGraphAccumulator(5);
+        accumulator.add(tweet1);
+        accumulator.add(tweet2);
+        accumulator.add(tweet3);
+        accumulator.add(new Tweet(4, "TIM", "@Cedric again", d1));
+
+        assertEquals("expected repeated edge counted once", 2, accumulator.followerCount("cedric"));
+        assertEquals(1, accumulator.followerCount("FYNN"));
+        assertEquals("expected self-mention ignored", 0, accumulator.followerCount("alyssa"));
+        assertEquals(new HashSet<>(Arrays.asList("cedric", "fynn")), accumulator.follows("Tim"));
+        assertEquals(Collections.emptySet(), accumulator.follows("alyssa"));
+        assertEquals("expected same graph as guessFollowsGraph",
+                SocialNetwork.guessFollowsGraph(Arrays.asList(tweet1, tweet2, tweet3)),
+                accumulator.followsGraph());
+        assertEquals(Arrays.asList("cedric", "fynn", "tim"), accumulator.leaderboard());
+    }
+
+    // covers k smaller than number of users, user entering from outside and climbing
+    @Test
+    public void testLeaderboardChanges() {
+        FollowsGraphAccumulator accumulator = new FollowsGraphAccumulator(2);
+        accumulator.add(new Tweet(1, "a", "@bob @carol", d1));
+        accumulator.add(new Tweet(2, "d", "@bob", d1));
+        assertEquals(Arrays.asList("bob", "carol"), accumulator.leaderboard());
+
+        accumulator.addAll(Arrays.asList(
+                new Tweet(3, "e", "@zed", d1),
+                new Tweet(4, "f", "@zed", d1),
+                new Tweet(5, "g", "@zed", d1)));
+        assertEquals(Arrays.asList("zed", "bob"), accumulator.leaderboard());
+    }
+
+    // covers random batches against the batch ranking
+    @Test
+    public void testMatchesInfluencers() {
+        Random random = new Random(11);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String text = "@u" + random.nextInt(40) + " and @U" + random.nextInt(40);
+            tweets.add(new Tweet(i, "u" + random.nextInt(40), text, d1));
+        }
+        FollowsGraphAccumulator accumulator = new FollowsGraphAccumulator(7);
+        for (int i = 0; i < tweets.size(); i += 13) {
+            accumulator.addAll(tweets.subList(i, Math.min(tweets.size(), i + 13)));
+            List<Tweet> seen = tweets.subList(0, Math.min(tweets.size(), i + 13));
+            assertEquals("expected same leaderboard after " + seen.size() + " tweets",
+                    SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(seen), 7),
+                    accumulator.leaderboard());
+        }
+    }
+
+    // covers reads while another thread ingests
+    @Test
+    public void testConcurrentReads() throws InterruptedException {
+        FollowsGraphAccumulator accumulator = new FollowsGraphAccumulator(3);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                accumulator.add(new Tweet(i, "u" + (i % 50), "@star @u" + (i % 17), d1));
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            List<String> leaders = accumulator.leaderboard();
+            Set<String> distinct = new HashSet<>(leaders);
+            if (leaders.size() > 3 || distinct.size() != leaders.size()) {
+                failed.set(true);
+            }
+            accumulator.followsGraph();
+        }
+        writer.join();
+
+        assertFalse("expected consistent snapshots", failed.get());
+        assertEquals(2000, accumulator.tweetCount());
+        assertEquals("star", accumulator.leaderboard().get(0));
+    }
+}
@@ -0,0 +1,85 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowsGraphBuilderTest {
+
+    /* Testing strategy
+     *
+     * Partition for add(tweet), merge(other), build()
+     *
+     * builders merged: none, one empty, both nonempty
+     * same user spelled differently in the merged builders
+     * same edge added by both merged builders
+     *
+     * Partition for SocialNetwork.followsGraphCollector(), guessFollowsGraphParallel()
+     *
+     * stream sequential or parallel
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "tim", "@cedric yes @fynn", d1);
+    private static final Tweet tweet2 = new Tweet(2, "Fynn", "@Tim is a good guy, says @CEDRIC", d1);
+    private static final Tweet tweet3 = new Tweet(3, "TIM", "@cedric again", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers merging into an empty builder
+    @Test
+    public void testMergeIntoEmpty() {
+        FollowsGraphBuilder left = new FollowsGraphBuilder();
+        FollowsGraphBuilder right = new FollowsGraphBuilder();
+        right.add(tweet1);
+        left.merge(right);
+
+        assertEquals("expected same graph", right.build(), left.build());
+    }
+
+    // covers merging nonempty builders with different spellings and a shared edge
+    @Test
+    public void testMergeKeepsFirstSpelling() {
+        FollowsGraphBuilder left = new FollowsGraphBuilder();
+        left.add(tweet1);
+        FollowsGraphBuilder right = new FollowsGraphBuilder();
+        right.add(tweet2);
+        right.add(tweet3);
+        left.merge(right);
+        Map<String, Set<String>> graph = left.build();
+
+        assertEquals("expected two users following", new HashSet<>(Arrays.asList("tim", "fynn")), graph.keySet());
+        assertEquals("expected tim's follows", new HashSet<>(Arrays.asList("cedric", "fynn")), graph.get("tim"));
+        assertEquals("expected fynn's follows", new HashSet<>(Arrays.asList("tim", "cedric")), graph.get("fynn"));
+    }
+
+    // covers parallel stream, compared with guessFollowsGraph
+    @Test
+    public void testParallelMatchesSequential() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            tweets.add(new Tweet(i, "user" + random.nextInt(300),
+                    "@user" + random.nextInt(300) + " and @user" + random.nextInt(300), d1));
+        }
+
+        assertEquals("expected same graph", SocialNetwork.guessFollowsGraph(tweets),
+                SocialNetwork.guessFollowsGraphParallel(tweets));
+    }
+}
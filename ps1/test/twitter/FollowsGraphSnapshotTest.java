@@ -0,0 +1,199 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowsGraphSnapshotTest {
+
+    /* Testing strategy
+     *
+     * Partition for save(graph, file), open(file), toMap()
+     *
+     * graph: empty, small, large with long follower lists
+     * usernames: ASCII, differing only in case, non-ASCII
+     * users: with a key, or only followed
+     * file: a snapshot, not a snapshot, truncated, replaced while open
+     *
+     * Partition for following(), followers(), followingCount(),
+     * followerCount(), follows(), contains()
+     *
+     * username: in the network in the same case, in different case, absent
+     * list: empty, one user, many users
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers empty graph, username absent
+    @Test
+    public void testEmpty() throws IOException {
+        Path file = tempFile();
+        FollowsGraphSnapshot.save(new HashMap<>(), file);
+        FollowsGraphSnapshot snapshot = FollowsGraphSnapshot.open(file);
+
+        assertEquals("expected no users", 0, snapshot.userCount());
+        assertFalse("expected absent user", snapshot.contains("alyssa"));
+        assertTrue("expected no following", snapshot.following("alyssa").isEmpty());
+        assertEquals("expected no followers", 0, snapshot.followerCount("alyssa"));
+        assertTrue("expected empty map", snapshot.toMap().isEmpty());
+    }
+
+    // covers small graph, names differing only in case and non-ASCII, users
+    // only followed, different case, empty and one-user and many-user lists
+    @Test
+    public void testQueries() throws IOException {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("alyssa", new HashSet<>(Arrays.asList("bbitdiddle", "Rivest", "caf\u00e9")));
+        graph.put("BBitdiddle", new HashSet<>(Arrays.asList("alyssa")));
+        graph.put("rivest", new HashSet<>());
+        Path file = tempFile();
+        FollowsGraphSnapshot.save(graph, file);
+        FollowsGraphSnapshot snapshot = FollowsGraphSnapshot.open(file);
+
+        assertEquals("expected four users", 4, snapshot.userCount());
+        assertTrue("expected case-insensitive lookup", snapshot.contains("ALYSSA"));
+        assertTrue("expected user only followed", snapshot.contains("CAF\u00c9"));
+        assertFalse("expected absent user", snapshot.contains("eve"));
+
+        assertEquals("expected three followed", 3, snapshot.followingCount("Alyssa"));
+        assertEquals("expected followed users", lower(Arrays.asList("bbitdiddle", "rivest", "caf\u00e9")),
+                lower(snapshot.following("alyssa")));
+        assertEquals("expected one follower", Collections.singleton("bbitdiddle"),
+                lower(snapshot.followers("alyssa")));
+        assertEquals("expected one follower of rivest", 1, snapshot.followerCount("rivest"));
+        assertEquals("expected no following", 0, snapshot.followingCount("RIVEST"));
+        assertTrue("expected no following", snapshot.following("caf\u00e9").isEmpty());
+
+        assertTrue("expected edge", snapshot.follows("ALYSSA", "bbitdiddle"));
+        assertTrue("expected edge", snapshot.follows("bbitdiddle", "alyssa"));
+        assertFalse("expected no edge", snapshot.follows("rivest", "alyssa"));
+        assertFalse("expected no edge to absent user", snapshot.follows("alyssa", "eve"));
+    }
+
+    // covers toMap() of a graph with differing case
+    @Test
+    public void testToMap() throws IOException {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("alyssa", new HashSet<>(Arrays.asList("bbitdiddle")));
+        graph.put("bbitdiddle", new HashSet<>(Arrays.asList("Alyssa", "rivest")));
+        Path file = tempFile();
+        FollowsGraphSnapshot.save(graph, file);
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        expected.put("alyssa", Collections.singleton("bbitdiddle"));
+        expected.put("bbitdiddle", new HashSet<>(Arrays.asList("alyssa", "rivest")));
+        expected.put("rivest", Collections.emptySet());
+        assertEquals("expected same graph up to case", expected, lower(FollowsGraphSnapshot.open(file).toMap()));
+    }
+
+    // covers large graph with long follower lists, all query kinds
+    @Test
+    public void testLargeGraph() throws IOException {
+        Random random = new Random(25);
+        int users = 20000;
+        Map<String, Set<String>> graph = new HashMap<>();
+        Map<String, Set<String>> followers = new HashMap<>();
+        for (int i = 0; i < users; i++) {
+            Set<String> followed = new HashSet<>();
+            for (int j = random.nextInt(20); j > 0; j--) {
+                // skew towards low-numbered users, so some lists are long
+                int target = (int) (users * Math.pow(random.nextDouble(), 4));
+                if (target != i) {
+                    followed.add("user" + target);
+                    followers.computeIfAbsent("user" + target, key -> new HashSet<>()).add("user" + i);
+                }
+            }
+            graph.put("user" + i, followed);
+        }
+        Path file = tempFile();
+        FollowsGraphSnapshot.save(graph, file);
+        FollowsGraphSnapshot snapshot = FollowsGraphSnapshot.open(file);
+
+        assertEquals("expected all users", users, snapshot.userCount());
+        assertTrue("expected a long follower list", snapshot.followerCount("user0") > 1000);
+        for (int i = 0; i < users; i += 97) {
+            String user = "user" + i;
+            assertEquals("expected following of " + user, graph.get(user), snapshot.following(user));
+            Set<String> expected = followers.getOrDefault(user, Collections.emptySet());
+            assertEquals("expected followers of " + user, expected, snapshot.followers(user));
+            assertEquals("expected follower count of " + user, expected.size(), snapshot.followerCount(user));
+            for (String follower : expected) {
+                assertTrue("expected edge", snapshot.follows(follower, user));
+            }
+            assertEquals("expected edge iff followed", graph.get("user1").contains(user),
+                    snapshot.follows("user1", user));
+        }
+        assertEquals("expected same graph", graph, snapshot.toMap());
+    }
+
+    // covers snapshot replaced while open
+    @Test
+    public void testReplaceWhileOpen() throws IOException {
+        Path file = tempFile();
+        FollowsGraphSnapshot.save(Collections.singletonMap("alyssa", Collections.singleton("rivest")), file);
+        FollowsGraphSnapshot before = FollowsGraphSnapshot.open(file);
+        FollowsGraphSnapshot.save(Collections.singletonMap("bbitdiddle", Collections.emptySet()), file);
+
+        assertTrue("expected old snapshot unchanged", before.follows("alyssa", "rivest"));
+        assertEquals("expected new snapshot", 1, FollowsGraphSnapshot.open(file).userCount());
+    }
+
+    // covers open of a file that is not a snapshot
+    @Test(expected=IOException.class)
+    public void testOpenNotSnapshot() throws IOException {
+        Path file = tempFile();
+        Files.write(file, "{\"alyssa\": [\"rivest\"], \"bbitdiddle\": []}".getBytes("UTF-8"));
+
+        FollowsGraphSnapshot.open(file);
+    }
+
+    // covers open of a truncated snapshot
+    @Test(expected=IOException.class)
+    public void testOpenTruncated() throws IOException {
+        Path file = tempFile();
+        FollowsGraphSnapshot.save(Collections.singletonMap("alyssa", Collections.singleton("rivest")), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+        FollowsGraphSnapshot.open(file);
+    }
+
+    private static Set<String> lower(Iterable<String> usernames) {
+        Set<String> result = new HashSet<>();
+        for (String username : usernames) {
+            result.add(username.toLowerCase());
+        }
+        return result;
+    }
+
+    private static Map<String, Set<String>> lower(Map<String, Set<String>> graph) {
+        Map<String, Set<String>> result = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : graph.entrySet()) {
+            result.put(entry.getKey().toLowerCase(), lower(entry.getValue()));
+        }
+        return result;
+    }
+
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("follows", ".graph");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+}
@@ -0,0 +1,88 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class HashtagScannerTest {
+
+    /* Testing strategy
+     *
+     * Partition for scan(text, consumer), Extract.getHashtags(tweets)
+     *
+     * hashtag at start, middle, end of text
+     * "#" preceded by a letter, followed by nothing valid, doubled
+     * tag all digits, all non-ASCII digits, digits and letters, non-ASCII letters
+     * same tag in different case
+     *
+     * Partition for Extract.getTrendingHashtags(tweets, capacity)
+     *
+     * tweets scanned by one task or several
+     * same tag twice in one tweet
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static List<String> scan(String text) {
+        List<String> tags = new ArrayList<>();
+        HashtagScanner.scan(text, (t, start, end) -> tags.add(t.subSequence(start, end).toString()));
+        return tags;
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers start, middle, end, preceded by a letter, nothing valid after "#", doubled "#"
+    @Test
+    public void testScan() {
+        assertEquals(Arrays.asList("hype", "rivest", "end"), scan("#hype talk by #rivest, C# ## # ok #end"));
+        assertEquals(Arrays.asList("b", "b"), scan("a#b ##b #b"));
+    }
+
+    // covers all digits, all non-ASCII digits, digits and letters, non-ASCII letters
+    @Test
+    public void testScanTagCharacters() {
+        assertEquals(Arrays.asList("6005rocks", "caf\u00e9", "mit_csail", "\u0661\u0662x"),
+                scan("#6005 #6005rocks #caf\u00e9! #mit_csail #\u0661\u0662\u0663 #\u0661\u0662x"));
+    }
+
+    // covers same tag in different case
+    @Test
+    public void testGetHashtags() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "#Hype for #rivest", d1),
+                new Tweet(2, "bbitdiddle", "#HYPE #hype", d1));
+        Set<String> expected = new HashSet<>(Arrays.asList("Hype", "rivest"));
+        assertEquals(expected, Extract.getHashtags(tweets));
+    }
+
+    // covers several tasks, same tag twice in one tweet
+    @Test
+    public void testGetTrendingHashtags() {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 3 * HashtagScanner.PARALLEL_THRESHOLD; i++) {
+            String text = i % 3 == 0 ? "#common #Common #tag" + (i % 50) : "#common #rare" + i;
+            tweets.add(new Tweet(i, "alyssa", text, d1));
+        }
+        HeavyHitters trending = Extract.getTrendingHashtags(tweets, 100);
+
+        List<HeavyHitters.Entry> top = trending.top(2);
+        assertEquals("common", top.get(0).getItem());
+        assertTrue("expected count at least the true count", top.get(0).getCount() >= tweets.size());
+        assertTrue("expected lower bound at most the true count",
+                top.get(0).getCount() - top.get(0).getError() <= tweets.size());
+        assertEquals("expected one count per distinct tag per tweet", 2L * tweets.size(), trending.total());
+    }
+}
@@ -0,0 +1,116 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HeavyHittersTest {
+
+    /* Testing strategy
+     *
+     * Partition for add(item), add(item, weight), estimate(), error(), top(k)
+     *
+     * distinct items: fewer than capacity, more than capacity
+     * same item in different case
+     * k: 0, < counted items, > counted items
+     *
+     * Partition for merge(other)
+     *
+     * summaries: one empty, both partly full, both full
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers fewer items than capacity, different case, k = 0 and k > counted
+    @Test
+    public void testExactWhenRoomy() {
+        HeavyHitters summary = new HeavyHitters(10);
+        summary.add("hype");
+        summary.add("HYPE");
+        summary.add("rivest", 5);
+
+        assertEquals(2, summary.estimate("Hype"));
+        assertEquals(0, summary.error("hype"));
+        assertEquals(0, summary.estimate("missing"));
+        assertEquals(7, summary.total());
+        assertEquals(0, summary.top(0).size());
+        List<HeavyHitters.Entry> top = summary.top(5);
+        assertEquals(2, top.size());
+        assertEquals("rivest", top.get(0).getItem());
+        assertEquals("hype", top.get(1).getItem());
+    }
+
+    // covers more items than capacity, k < counted
+    @Test
+    public void testBoundsOnSkewedStream() {
+        Random random = new Random(17);
+        HeavyHitters summary = new HeavyHitters(50);
+        Map<String, Long> exact = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            String item = "tag" + skewed(random);
+            summary.add(item);
+            exact.merge(item, 1L, Long::sum);
+        }
+
+        assertBounds(summary, exact);
+        List<HeavyHitters.Entry> top = summary.top(3);
+        assertEquals(Arrays.asList("tag0", "tag1", "tag2"),
+                Arrays.asList(top.get(0).getItem(), top.get(1).getItem(), top.get(2).getItem()));
+    }
+
+    // covers merging empty, partly full and full summaries
+    @Test
+    public void testMerge() {
+        Random random = new Random(18);
+        HeavyHitters left = new HeavyHitters(40);
+        HeavyHitters right = new HeavyHitters(40);
+        Map<String, Long> exact = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            String item = "tag" + skewed(random);
+            (i % 3 == 0 ? left : right).add(item);
+            exact.merge(item, 1L, Long::sum);
+        }
+        left.merge(new HeavyHitters(5));
+        left.merge(right);
+
+        assertEquals(10_000, left.total());
+        assertBounds(left, exact);
+        assertEquals("tag0", left.top(1).get(0).getItem());
+
+        HeavyHitters small = new HeavyHitters(40);
+        small.add("a", 3);
+        HeavyHitters other = new HeavyHitters(40);
+        other.add("A", 2);
+        other.add("b");
+        small.merge(other);
+        assertEquals("expected exact counts for partly full summaries", 5, small.estimate("a"));
+        assertEquals(0, small.error("a"));
+        assertEquals(1, small.estimate("b"));
+    }
+
+    // helper method: rank drawn from a roughly Zipf distribution over 1000 items
+    private static int skewed(Random random) {
+        return (int) Math.floor(Math.pow(1000, random.nextDouble())) - 1;
+    }
+
+    private static void assertBounds(HeavyHitters summary, Map<String, Long> exact) {
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long estimate = summary.estimate(entry.getKey());
+            long lower = estimate - summary.error(entry.getKey());
+            assertTrue("expected estimate >= true count for " + entry.getKey(), estimate >= entry.getValue());
+            assertTrue("expected lower bound <= true count for " + entry.getKey(), lower <= entry.getValue());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+    /* Testing strategy
+     *
+     * Partition for add(username), estimate(), merge(other)
+     *
+     * distinct usernames: 0, few (linear counting), many (raw estimate)
+     * same username repeated or in different case
+     * precision: minimum, default
+     * merged estimates: disjoint, overlapping, different precision
+     *
+     * Partition for Extract.countMentionedUsers(tweets, precision)
+     *
+     * tweets with no mentions, repeated mentions in different case
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers 0 and few usernames, repeats in different case
+    @Test
+    public void testSmall() {
+        HyperLogLog estimate = new HyperLogLog();
+        assertEquals(0, estimate.estimate());
+
+        for (String username : Arrays.asList("alyssa", "ALYSSA", "Alyssa", "bbitdiddle", "ben")) {
+            estimate.add(username);
+        }
+        assertEquals(3, estimate.estimate());
+    }
+
+    // covers many usernames, default and minimum precision
+    @Test
+    public void testLarge() {
+        for (int precision : new int[] { HyperLogLog.MIN_PRECISION, HyperLogLog.DEFAULT_PRECISION }) {
+            HyperLogLog estimate = new HyperLogLog(precision);
+            int n = 200_000;
+            for (int i = 0; i < n; i++) {
+                estimate.add("user" + i);
+                estimate.add("USER" + i);
+            }
+            double error = Math.abs(estimate.estimate() - n) / (double) n;
+            assertTrue("expected error within 4 standard errors, was " + error,
+                    error < 4 * estimate.relativeError());
+        }
+    }
+
+    // covers disjoint and overlapping merges
+    @Test
+    public void testMerge() {
+        HyperLogLog left = new HyperLogLog(12);
+        HyperLogLog right = new HyperLogLog(12);
+        HyperLogLog both = new HyperLogLog(12);
+        for (int i = 0; i < 30_000; i++) {
+            left.add("user" + i);
+            both.add("user" + i);
+        }
+        for (int i = 20_000; i < 60_000; i++) {
+            right.add("user" + i);
+            both.add("user" + i);
+        }
+        left.merge(right);
+
+        assertEquals("expected same estimate as the union", both.estimate(), left.estimate());
+    }
+
+    // covers different precision
+    @Test(expected=IllegalArgumentException.class)
+    public void testMergeDifferentPrecision() {
+        new HyperLogLog(10).merge(new HyperLogLog(11));
+    }
+
+    // covers tweets with no mentions and repeated mentions
+    @Test
+    public void testCountMentionedUsers() {
+        List<Tweet> tweets = new ArrayList<>();
+        tweets.add(new Tweet(1, "alyssa", "no mentions here", d1));
+        for (int i = 0; i < 1000; i++) {
+            tweets.add(new Tweet(i + 2, "alyssa", "@User" + i + " and @user" + (i / 2), d1));
+        }
+        HyperLogLog estimate = Extract.countMentionedUsers(tweets, HyperLogLog.DEFAULT_PRECISION);
+
+        double error = Math.abs(estimate.estimate() - 1000) / 1000.0;
+        assertTrue("expected error within 4 standard errors, was " + error, error < 4 * estimate.relativeError());
+    }
+}
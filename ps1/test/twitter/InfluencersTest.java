@@ -0,0 +1,71 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class InfluencersTest {
+
+    /* Testing strategy
+     *
+     * Partition for SocialNetwork.influencers(followsGraph, k)
+     *
+     * k: 0, < number of users, >= number of users
+     * users with equal follower counts, or not
+     * same user spelled in different case
+     * users who follow others but have no followers
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers k = 0
+    @Test
+    public void testZero() {
+        assertTrue("expected empty list", SocialNetwork.influencers(graph(), 0).isEmpty());
+    }
+
+    // covers k < number of users, different case
+    @Test
+    public void testTopTwo() {
+        List<String> top = SocialNetwork.influencers(graph(), 2);
+
+        assertEquals("expected two users", 2, top.size());
+        assertTrue("expected cedric first", top.get(0).equalsIgnoreCase("cedric"));
+        assertEquals("expected alyssa second, by username", "alyssa", top.get(1));
+    }
+
+    // covers k >= number of users, ties broken by username, users without followers
+    @Test
+    public void testAllUsers() {
+        List<String> all = SocialNetwork.influencers(graph(), 10);
+
+        assertEquals("expected every user", 5, all.size());
+        assertEquals("expected ties ordered by username", Arrays.asList("alyssa", "fynn", "tim"), all.subList(1, 4));
+        assertEquals("expected user without followers last", "bbitdiddle", all.get(4));
+        assertEquals("expected same order as full ranking", SocialNetwork.influencers(graph()), all);
+    }
+
+    /*
+     * cedric has 3 followers; fynn, tim and alyssa have 1; bbitdiddle has none
+     */
+    private static Map<String, Set<String>> graph() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("tim", new HashSet<>(Arrays.asList("cedric", "fynn")));
+        graph.put("fynn", new HashSet<>(Arrays.asList("Cedric", "tim")));
+        graph.put("bbitdiddle", new HashSet<>(Arrays.asList("CEDRIC", "alyssa")));
+        return graph;
+    }
+}
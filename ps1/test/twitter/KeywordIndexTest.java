@@ -0,0 +1,111 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class KeywordIndexTest {
+
+    /* Testing strategy
+     *
+     * Partition for containing(words), containingAll(words)
+     *
+     * corpus size: 0, 1, >1
+     * words.length: 1, >1
+     * words differ from tweet words only in case, or are repeated
+     * tweet text has repeated words, or repeated spaces
+     * result contains 0, 1, >1 tweets
+     * tweets appended after earlier queries
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "Talk  talk   TALK", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers corpus size 0
+    @Test
+    public void testEmptyCorpus() {
+        KeywordIndex index = new KeywordIndex();
+
+        assertTrue("expected empty list", index.containing(Arrays.asList("talk")).isEmpty());
+        assertEquals("expected zero frequency", 0, index.frequency("talk"));
+    }
+
+    // covers corpus size 1, words in different case, result contains 1 tweet
+    @Test
+    public void testSingleTweetIgnoresCase() {
+        KeywordIndex index = new KeywordIndex(Arrays.asList(tweet1));
+
+        assertEquals("expected tweet", Arrays.asList(tweet1), index.containing(Arrays.asList("RIVEST")));
+    }
+
+    // covers repeated words and spaces in text, repeated query words
+    @Test
+    public void testRepeatedWords() {
+        KeywordIndex index = new KeywordIndex(Arrays.asList(tweet3));
+
+        assertEquals("expected tweet once", Arrays.asList(tweet3), index.containing(Arrays.asList("talk", "Talk")));
+        assertEquals("expected one tweet", 1, index.frequency("talk"));
+    }
+
+    // covers words.length > 1 with OR and AND semantics, result contains >1 tweets
+    @Test
+    public void testAnyAndAll() {
+        KeywordIndex index = new KeywordIndex(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals("expected tweets with either word", Arrays.asList(tweet1, tweet2),
+                index.containing(Arrays.asList("rivest", "minutes")));
+        assertEquals("expected tweets with both words", Arrays.asList(tweet1, tweet2),
+                index.containingAll(Arrays.asList("rivest", "talk")));
+        assertTrue("expected empty list", index.containingAll(Arrays.asList("rivest", "alex")).isEmpty());
+    }
+
+    // covers tweets appended after an earlier query
+    @Test
+    public void testAppend() {
+        KeywordIndex index = new KeywordIndex(Arrays.asList(tweet1));
+        assertEquals("expected one tweet", 1, index.containing(Arrays.asList("talk")).size());
+
+        index.add(tweet2);
+
+        assertEquals("expected appended tweet", Arrays.asList(tweet1, tweet2), index.containing(Arrays.asList("talk")));
+    }
+
+    // covers many tweets, compared with Filter.containing
+    @Test
+    public void testMatchesFilter() {
+        Random random = new Random(6005);
+        String[] vocabulary = { "talk", "Rivest", "shark", "#hype", "so", "much?", "TALK", "baby" };
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = random.nextInt(6); w > 0; w--) {
+                text.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+            }
+            tweets.add(new Tweet(i, "user", text.toString(), d1));
+        }
+        KeywordIndex index = new KeywordIndex(tweets);
+
+        for (int q = 0; q < 50; q++) {
+            List<String> words = Arrays.asList(vocabulary[random.nextInt(vocabulary.length)],
+                    vocabulary[random.nextInt(vocabulary.length)]);
+            assertEquals("expected same tweets as Filter", Filter.containing(tweets, words), index.containing(words));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class KeywordMatcherTest {
+
+    /* Testing strategy
+     *
+     * Partition for matches(text)
+     *
+     * words: none, one, several sharing a prefix, empty or containing a space
+     * match: whole word, prefix or suffix or substring of a word only, none
+     * position of match: first word, middle, last word
+     * case: same, different, non-ASCII
+     * spaces: single, repeated, leading or trailing
+     *
+     * Partition for filter(tweets)
+     *
+     * tweets: empty, below and above the parallel threshold, random access or not
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers no words, empty word, word containing a space
+    @Test
+    public void testNoWords() {
+        assertFalse(new KeywordMatcher(Collections.emptyList()).matches("talk about rivest"));
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("", "about rivest"));
+        assertFalse(matcher.matches("talk about rivest"));
+        assertFalse(matcher.matches(""));
+    }
+
+    // covers whole word in first, middle and last position, different case
+    @Test
+    public void testWholeWords() {
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("Rivest"));
+        assertTrue(matcher.matches("rivest talk in 30 minutes"));
+        assertTrue(matcher.matches("talk about RIVEST today"));
+        assertTrue(matcher.matches("talk about rivest"));
+    }
+
+    // covers prefix, suffix and substring only, words sharing a prefix
+    @Test
+    public void testWordBoundaries() {
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("talk", "talking", "much"));
+        assertFalse(matcher.matches("talked about rivest so much?"));
+        assertFalse(matcher.matches("stalk #talk"));
+        assertFalse(matcher.matches("tal"));
+        assertTrue(matcher.matches("TALKING about rivest"));
+        assertTrue(matcher.matches("we should talk"));
+    }
+
+    // covers repeated, leading and trailing spaces, non-ASCII case
+    @Test
+    public void testSpacesAndUnicode() {
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("caf\u00e9"));
+        assertTrue(matcher.matches("  CAF\u00c9  "));
+        assertTrue(matcher.matches("meet at the caf\u00e9"));
+        assertFalse(matcher.matches("cafe"));
+    }
+
+    // covers empty list, below and above threshold, not random access
+    @Test
+    public void testFilterMatchesSplit() {
+        assertTrue(new KeywordMatcher(Arrays.asList("a")).filter(new ArrayList<>()).isEmpty());
+
+        Random random = new Random(21);
+        String[] vocabulary = { "rivest", "Rivest", "talk", "talking", "TALK", "6.005", "much?", "", "caf\u00e9" };
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < KeywordMatcher.PARALLEL_THRESHOLD * 3 + 7; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = random.nextInt(6); j > 0; j--) {
+                text.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+            }
+            tweets.add(new Tweet(i, "alyssa", text.toString(), d1));
+        }
+        List<String> words = Arrays.asList("Talk", "CAF\u00c9", "6.005");
+
+        List<Tweet> expected = new ArrayList<>();
+        for (Tweet tweet : tweets) {
+            for (String word : tweet.getText().split(" ")) {
+                if (word.equalsIgnoreCase("talk") || word.equalsIgnoreCase("caf\u00e9") || word.equals("6.005")) {
+                    expected.add(tweet);
+                    break;
+                }
+            }
+        }
+        KeywordMatcher matcher = new KeywordMatcher(words);
+        assertEquals(expected, matcher.filter(tweets));
+        assertEquals(expected, matcher.filter(new LinkedList<>(tweets)));
+        assertEquals(expected, Filter.containing(tweets, words));
+    }
+}
@@ -0,0 +1,98 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MentionScannerTest {
+
+    /* Testing strategy
+     *
+     * Partition for scan(text, consumer)
+     *
+     * text contains 0, 1, >1 mentions
+     * mention at start, middle or end of text
+     * mention followed by space, punctuation, "@" or end of text
+     * "@" preceded by a username character, by "@", or by another character
+     * "@" followed by a username character, or not
+     * username contains letters, digits, "_" and "-"
+     *
+     * Partition for mentionedUsersParallel(tweets)
+     *
+     * tweets.length: below or above PARALLEL_THRESHOLD
+     * same username mentioned in different case in different tasks
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers text with 0 mentions, "@" not followed by a username character
+    @Test
+    public void testScanNoMentions() {
+        assertEquals("expected no mentions", Arrays.asList(), scan("talk @ 5pm, @! and @"));
+    }
+
+    // covers mentions at start, middle and end, username with all kinds of characters
+    @Test
+    public void testScanManyMentions() {
+        assertEquals("expected mentions in order", Arrays.asList("alyssa", "b_bit-diddle2", "Alex"),
+                scan("@alyssa meet @b_bit-diddle2 and @Alex"));
+    }
+
+    // covers mention followed by punctuation and by "@", "@" preceded by a username character
+    @Test
+    public void testScanBoundaries() {
+        assertEquals("expected alyssa and tim", Arrays.asList("alyssa", "tim"),
+                scan("bitdiddle@mit.edu @alyssa.@tim@bob"));
+    }
+
+    // covers "@" preceded by "@"
+    @Test
+    public void testScanDoubleAt() {
+        assertEquals("expected bob", Arrays.asList("bob"), scan("@@bob"));
+    }
+
+    // covers many tweets across parallel tasks, usernames repeated in different case
+    @Test
+    public void testMentionedUsersParallel() {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 3 * MentionScanner.PARALLEL_THRESHOLD; i++) {
+            String mention = i % 2 == 0 ? "@User" + (i % 100) : "@USER" + (i % 100);
+            tweets.add(new Tweet(i, "alyssa", "hi " + mention + " and @alyssa", d1));
+        }
+        UsernameDictionary parallel = MentionScanner.mentionedUsersParallel(tweets);
+        UsernameDictionary sequential = new UsernameDictionary();
+        MentionScanner.mentionedUsers(tweets, 0, tweets.size(), sequential);
+
+        assertEquals("expected 101 usernames", 101, parallel.size());
+        assertEquals("expected same usernames", names(sequential), names(parallel));
+    }
+
+    private static List<String> scan(String text) {
+        List<String> mentions = new ArrayList<>();
+        MentionScanner.scan(text, (t, start, end) -> mentions.add(t.subSequence(start, end).toString()));
+        return mentions;
+    }
+
+    private static Set<String> names(UsernameDictionary dictionary) {
+        Set<String> names = new HashSet<>();
+        for (int id = 0; id < dictionary.size(); id++) {
+            names.add(dictionary.name(id));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,189 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class MentionWindowTest {
+
+    /* Testing strategy
+     *
+     * Partition for add(tweet), advance(now), count(), counts(), top(k)
+     *
+     * window: empty, one bucket used, several buckets, slid past every bucket
+     * tweet: in newest bucket, in older retained bucket, older than window, newer than window
+     * tweet mentions: none, same user twice, same user in different case
+     * users: mentioned again after being evicted, many distinct users churning
+     *
+     * Partition for counts(timespan), top(timespan, k)
+     *
+     * timespan: covers whole window, part of a bucket, outside the window,
+     *           tweet timestamp equal to an endpoint
+     */
+
+    private static final Instant d0 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Duration minute = Duration.ofMinutes(1);
+
+    private static Instant at(int minutes, int seconds) {
+        return d0.plusSeconds(minutes * 60L + seconds);
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers empty window
+    @Test
+    public void testEmpty() {
+        MentionWindow window = new MentionWindow(minute, 60);
+
+        assertEquals(0, window.count("alyssa"));
+        assertEquals(Collections.emptyMap(), window.counts());
+        assertEquals(Collections.emptyList(), window.top(3));
+        assertEquals(Collections.emptyList(), window.top(new Timespan(d0, at(5, 0)), 3));
+    }
+
+    // covers same user twice in one tweet, different case, several buckets
+    @Test
+    public void testCounts() {
+        MentionWindow window = new MentionWindow(minute, 60);
+        assertTrue(window.add(new Tweet(1, "bbitdiddle", "@alyssa @ALYSSA and @ben", at(0, 10))));
+        assertTrue(window.add(new Tweet(2, "ben", "no mentions", at(0, 20))));
+        assertTrue(window.add(new Tweet(3, "ben", "@Alyssa again", at(2, 0))));
+
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("alyssa", 2);
+        expected.put("ben", 1);
+        assertEquals(expected, window.counts());
+        assertEquals(2, window.count("ALYSSA"));
+        assertEquals(Arrays.asList("alyssa", "ben"), window.top(5));
+        assertEquals(Arrays.asList("alyssa"), window.top(1));
+    }
+
+    // covers sliding out old buckets, tweet older than window, slid past every bucket
+    @Test
+    public void testEviction() {
+        MentionWindow window = new MentionWindow(minute, 3);
+        window.add(new Tweet(1, "a", "@old", at(0, 0)));
+        window.add(new Tweet(2, "a", "@mid", at(1, 0)));
+        window.add(new Tweet(3, "a", "@new", at(3, 30)));
+
+        assertEquals("expected minute 0 evicted", 0, window.count("old"));
+        assertEquals(1, window.count("mid"));
+        assertFalse("expected tweet older than window ignored", window.add(new Tweet(4, "a", "@old", at(0, 30))));
+        assertTrue("expected retained bucket accepted", window.add(new Tweet(5, "a", "@mid", at(2, 0))));
+        assertEquals(2, window.count("mid"));
+
+        window.advance(at(100, 0));
+        assertEquals(Collections.emptyMap(), window.counts());
+    }
+
+    // covers user mentioned again after being evicted
+    @Test
+    public void testRespelledAfterEviction() {
+        MentionWindow window = new MentionWindow(minute, 2);
+        window.add(new Tweet(1, "a", "@Alyssa", at(0, 0)));
+        assertEquals(Arrays.asList("Alyssa"), window.top(1));
+
+        window.add(new Tweet(2, "a", "@ALYSSA", at(5, 0)));
+        assertEquals("expected spelling first seen in the window", Arrays.asList("ALYSSA"), window.top(1));
+        assertEquals(1, window.count("alyssa"));
+    }
+
+    // covers many distinct users churning through the window
+    @Test
+    public void testChurnMatchesBruteForce() {
+        Random random = new Random(120);
+        MentionWindow window = new MentionWindow(minute, 5);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            int minutes = i / 20;
+            // a few users stay popular while most are mentioned in one stretch only
+            String text = "@hot" + random.nextInt(3) + " @user" + (i / 7 + random.nextInt(40))
+                    + " @USER" + random.nextInt(i + 1);
+            Tweet tweet = new Tweet(i, "a", text, at(minutes, random.nextInt(60)));
+            tweets.add(tweet);
+            window.add(tweet);
+            if (i % 97 != 0) {
+                continue;
+            }
+
+            Map<String, Integer> expected = new HashMap<>();
+            for (Tweet t : Filter.inTimespan(tweets, new Timespan(at(minutes - 4, 0).minusMillis(1), at(minutes + 1, 0)))) {
+                for (String user : Extract.getMentionedUsers(Arrays.asList(t))) {
+                    expected.merge(user.toLowerCase(), 1, Integer::sum);
+                }
+            }
+            Map<String, Integer> actual = new HashMap<>();
+            window.counts().forEach((user, count) -> actual.put(user.toLowerCase(), count));
+            assertEquals("expected counts after " + (i + 1) + " tweets", expected, actual);
+
+            List<String> expectedTop = new ArrayList<>(expected.keySet());
+            expectedTop.sort((x, y) -> expected.get(x).equals(expected.get(y))
+                    ? x.compareTo(y) : expected.get(y) - expected.get(x));
+            List<String> top = new ArrayList<>();
+            for (String user : window.top(5)) {
+                top.add(user.toLowerCase());
+            }
+            assertEquals("expected top users after " + (i + 1) + " tweets",
+                    expectedTop.subList(0, Math.min(5, expectedTop.size())), top);
+        }
+    }
+
+    // covers timespan inside the window and endpoints
+    @Test
+    public void testTimespan() {
+        MentionWindow window = new MentionWindow(minute, 10);
+        window.add(new Tweet(1, "a", "@x", at(1, 0)));
+        window.add(new Tweet(2, "a", "@y", at(1, 30)));
+        window.add(new Tweet(3, "a", "@y", at(2, 30)));
+        window.add(new Tweet(4, "a", "@z", at(4, 0)));
+
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("y", 2);
+        assertEquals("expected endpoints excluded", expected, window.counts(new Timespan(at(1, 0), at(4, 0))));
+        assertEquals(Arrays.asList("y", "x"), window.top(new Timespan(at(0, 0), at(3, 0)), 2));
+        assertEquals(Collections.emptyMap(), window.counts(new Timespan(at(20, 0), at(30, 0))));
+    }
+
+    // covers random stream against Filter.inTimespan and Extract.getMentionedUsers
+    @Test
+    public void testMatchesFilter() {
+        Random random = new Random(12);
+        MentionWindow window = new MentionWindow(minute, 15);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            Instant timestamp = at(i / 10, random.nextInt(60));
+            Tweet tweet = new Tweet(i, "a", "@u" + random.nextInt(8) + " @u" + random.nextInt(8), timestamp);
+            tweets.add(tweet);
+            window.add(tweet);
+
+            Timespan last = new Timespan(at(i / 10 - 10, 0), at(i / 10 + 1, 0));
+            List<Tweet> inSpan = Filter.inTimespan(tweets, last);
+            for (String user : Arrays.asList("u0", "u3", "u7")) {
+                int expected = 0;
+                for (Tweet t : inSpan) {
+                    Set<String> mentioned = Extract.getMentionedUsers(Arrays.asList(t));
+                    expected += mentioned.contains(user) ? 1 : 0;
+                }
+                assertEquals("expected count for " + user + " after " + (i + 1) + " tweets",
+                        expected, window.counts(last).getOrDefault(user, 0).intValue());
+            }
+        }
+    }
+}
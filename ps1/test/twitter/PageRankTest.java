@@ -0,0 +1,113 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PageRankTest {
+
+    /* Testing strategy
+     *
+     * Partition for CsrGraph(followsGraph), transpose()
+     *
+     * followsGraph empty or nonempty
+     * usernames repeated in different case
+     *
+     * Partition for PageRank.rank(graph, damping, tolerance, maxIterations, threads)
+     *
+     * graph: empty, symmetric, star, with users who follow nobody
+     * iteration stops by convergence or by maxIterations
+     * threads: 1, >1
+     */
+
+    private static final double EPSILON = 1e-6;
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers usernames in different case, transpose
+    @Test
+    public void testCsrGraph() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("tim", new HashSet<>(Arrays.asList("cedric", "fynn")));
+        graph.put("Fynn", new HashSet<>(Arrays.asList("CEDRIC")));
+        CsrGraph csr = new CsrGraph(graph);
+
+        assertEquals("expected three users", 3, csr.vertexCount());
+        assertEquals("expected three edges", 3, csr.edgeCount());
+        assertEquals("expected two followers of cedric", 2, csr.transpose().outDegree(csr.idOf("Cedric")));
+        assertEquals("expected cedric to follow nobody", 0, csr.outDegree(csr.idOf("cedric")));
+    }
+
+    // covers empty graph
+    @Test
+    public void testEmpty() {
+        PageRank ranks = PageRank.rank(new HashMap<>());
+
+        assertTrue("expected nobody", ranks.top(10).isEmpty());
+        assertEquals("expected no iterations", 0, ranks.iterations());
+    }
+
+    // covers symmetric graph, convergence
+    @Test
+    public void testCycleIsUniform() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("a", new HashSet<>(Arrays.asList("b")));
+        graph.put("b", new HashSet<>(Arrays.asList("c")));
+        graph.put("c", new HashSet<>(Arrays.asList("a")));
+        PageRank ranks = PageRank.rank(graph);
+
+        for (String user : Arrays.asList("a", "b", "c")) {
+            assertEquals("expected uniform rank", 1.0 / 3, ranks.rankOf(user), EPSILON);
+        }
+        assertTrue("expected convergence", ranks.residual() <= PageRank.DEFAULT_TOLERANCE);
+    }
+
+    // covers star graph with users who follow nobody, stopping at maxIterations
+    @Test
+    public void testStar() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (String user : Arrays.asList("alyssa", "ben", "cy", "dee")) {
+            graph.put(user, new HashSet<>(Arrays.asList("rivest")));
+        }
+        PageRank ranks = PageRank.rank(new CsrGraph(graph), 0.85, 0, 3, 2);
+
+        assertEquals("expected center first", "rivest", ranks.top(1).get(0));
+        assertEquals("expected ties ordered by username", Arrays.asList("rivest", "alyssa", "ben"), ranks.top(3));
+        assertEquals("expected maxIterations", 3, ranks.iterations());
+        double total = 0;
+        for (String user : Arrays.asList("alyssa", "ben", "cy", "dee", "rivest")) {
+            total += ranks.rankOf(user);
+        }
+        assertEquals("expected ranks to sum to 1", 1.0, total, EPSILON);
+    }
+
+    // covers threads > 1, compared with threads = 1
+    @Test
+    public void testThreadsAgree() {
+        Random random = new Random(6005);
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            graph.computeIfAbsent("user" + random.nextInt(10000), user -> new HashSet<>())
+                    .add("user" + random.nextInt(10000));
+        }
+        CsrGraph csr = new CsrGraph(graph);
+        PageRank one = PageRank.rank(csr, 0.85, 1e-10, 50, 1);
+        PageRank many = PageRank.rank(csr, 0.85, 1e-10, 50, 4);
+
+        assertEquals("expected same iterations", one.iterations(), many.iterations());
+        assertEquals("expected same ranking", one.top(20), many.top(20));
+    }
+}
@@ -0,0 +1,96 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class RoaringBitmapTest {
+
+    /* Testing strategy
+     *
+     * Partition for of(values, from, to), contains(value), cardinality(), toArray()
+     *
+     * values: empty, one chunk, several chunks
+     * chunk: sparse (array), dense (bitmap)
+     * value looked up: present, absent in a present chunk, in an absent chunk, negative
+     *
+     * Partition for andCardinality(other)
+     *
+     * chunk pairs: array-array of similar or very different sizes,
+     *              array-bitmap, bitmap-bitmap, no common chunks
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers empty, negative lookup
+    @Test
+    public void testEmpty() {
+        RoaringBitmap empty = RoaringBitmap.of(new int[] { 1, 2 }, 1, 1);
+        assertEquals(0, empty.cardinality());
+        assertFalse(empty.contains(1));
+        assertFalse(empty.contains(-1));
+        assertEquals(0, empty.andCardinality(RoaringBitmap.of(new int[] { 1 }, 0, 1)));
+    }
+
+    // covers one and several chunks, sparse and dense, present and absent lookups
+    @Test
+    public void testContains() {
+        int[] values = { 3, 70000, 70001, 1 << 30 };
+        RoaringBitmap sparse = RoaringBitmap.of(values, 0, values.length);
+        assertEquals(4, sparse.cardinality());
+        assertTrue(sparse.contains(70001));
+        assertFalse(sparse.contains(70002));
+        assertFalse(sparse.contains(200000));
+        assertArrayEquals(values, sparse.toArray());
+
+        int[] dense = new int[10000];
+        for (int i = 0; i < dense.length; i++) {
+            dense[i] = 2 * i + 1;
+        }
+        RoaringBitmap bitmap = RoaringBitmap.of(dense, 0, dense.length);
+        assertTrue(bitmap.contains(19999));
+        assertFalse(bitmap.contains(20000));
+        assertArrayEquals(dense, bitmap.toArray());
+    }
+
+    // covers every pair of chunk kinds against a TreeSet
+    @Test
+    public void testAndCardinality() {
+        Random random = new Random(23);
+        int[] sizes = { 0, 1, 50, 3000, 6000, 40000 };
+        RoaringBitmap[] bitmaps = new RoaringBitmap[sizes.length];
+        List<TreeSet<Integer>> sets = new ArrayList<>();
+        for (int s = 0; s < sizes.length; s++) {
+            TreeSet<Integer> set = new TreeSet<>();
+            while (set.size() < sizes[s]) {
+                set.add(random.nextInt(3 << 16));
+            }
+            sets.add(set);
+            int[] values = set.stream().mapToInt(Integer::intValue).toArray();
+            bitmaps[s] = RoaringBitmap.of(values, 0, values.length);
+            assertEquals(sizes[s], bitmaps[s].cardinality());
+        }
+        for (int a = 0; a < sizes.length; a++) {
+            for (int b = 0; b < sizes.length; b++) {
+                TreeSet<Integer> both = new TreeSet<>(sets.get(a));
+                both.retainAll(sets.get(b));
+                assertEquals("sizes " + sizes[a] + ", " + sizes[b], both.size(), bitmaps[a].andCardinality(bitmaps[b]));
+            }
+        }
+        assertEquals(0, RoaringBitmap.of(new int[] { 5 }, 0, 1)
+                .andCardinality(RoaringBitmap.of(new int[] { 5 + (1 << 16) }, 0, 1)));
+        assertTrue(Arrays.stream(bitmaps[5].toArray()).allMatch(bitmaps[5]::contains));
+    }
+}
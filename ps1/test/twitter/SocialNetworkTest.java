@@ -24,6 +24,7 @@ public class SocialNetworkTest {
      *
      *  tweets.length = 0, 1, >1
      *  Nobody follows nobody, everyone follows everyone else, >=1 users follow >=1 other users
+     *  user mentions themself
      *
      *
      *  Partition for influencers(Map<String, Set<String>> followsGraph) -> List<String>
@@ -45,6 +46,7 @@ public class SocialNetworkTest {
     private static final Tweet tweet5 = new Tweet(5, "cedric", "@tim yes @fynn", d2);
     private static final Tweet tweet6 = new Tweet(6, "fynn", "@tim yes @cedric", d2);
     private static final Tweet tweet7 = new Tweet(7, "Fynn", "@Tim is a good guy :)", d2);
+    private static final Tweet tweet8 = new Tweet(8, "tim", "note to @TIM: @cedric", d2);
 
     /*
      * Warning: all the tests you write here must be runnable against any
@@ -178,6 +180,19 @@ public class SocialNetworkTest {
         }
     }
 
+    // covers tweets.length = 1 and user mentions themself
+    @Test
+    public void testGuessFollowsGraphSelfMention() {
+        Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(Arrays.asList(tweet8));
+
+        Map<String, Set<String>> expectedResult = new HashMap<String, Set<String>>();
+        Set<String> followsSet = new HashSet<String>();
+        followsSet.add("cedric");
+        expectedResult.put("tim", followsSet);
+
+        assertEquals("expected graphs to be equal", expectedResult, followsGraph);
+    }
+
     @Test
     public void testInfluencersEmpty() {
         Map<String, Set<String>> followsGraph = new HashMap<>();
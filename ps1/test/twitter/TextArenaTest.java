@@ -0,0 +1,162 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TextArenaTest {
+
+    /* Testing strategy
+     *
+     * Partition for add(text), text(handle), byteLength(handle)
+     *
+     * text: empty, ASCII, 2-, 3- and 4-byte UTF-8 characters, unpaired surrogate
+     * segment: text fits in the current segment, starts a new one, is longer
+     *          than a segment
+     * handle: valid, out of range
+     *
+     * Partition for add(tweet), isTweet(handle), tweet(handle)
+     *
+     * handle: of a tweet, of a plain text
+     * timestamp: whole seconds, with nanoseconds
+     *
+     * Partition for mentionedUsers(), filter(matcher), and scans of one text
+     *
+     * mentions: none, ASCII next to non-ASCII characters, several
+     * keywords: ASCII, non-ASCII in different case, outside the BMP
+     * arena: tweets only, tweets and plain texts
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers empty, ASCII, multibyte and 4-byte texts, unpaired surrogate
+    @Test
+    public void testRoundTrip() {
+        TextArena arena = new TextArena();
+        List<String> texts = Arrays.asList("", "talk about rivest", "caf\u00e9 \u20ac5", "\ud83d\ude00 ok");
+        for (int i = 0; i < texts.size(); i++) {
+            assertEquals(i, arena.add(texts.get(i)));
+        }
+        for (int i = 0; i < texts.size(); i++) {
+            assertEquals(texts.get(i), arena.text(i));
+            assertEquals(texts.get(i).getBytes(StandardCharsets.UTF_8).length, arena.byteLength(i));
+        }
+        int unpaired = arena.add("a\ud83d b");
+        assertEquals("a? b", arena.text(unpaired));
+        assertEquals(5, arena.size());
+    }
+
+    // covers new segment, text longer than a segment
+    @Test
+    public void testSegments() {
+        TextArena arena = new TextArena(8);
+        arena.add("12345");
+        arena.add("6789");
+        arena.add("a text longer than one segment");
+        assertEquals("12345", arena.text(0));
+        assertEquals("6789", arena.text(1));
+        assertEquals("a text longer than one segment", arena.text(2));
+        assertEquals(5 + 4 + 30, arena.bytesUsed());
+        assertEquals(8 + 8 + 30, arena.bytesAllocated());
+    }
+
+    // covers handle out of range
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testHandleOutOfRange() {
+        TextArena arena = new TextArena();
+        arena.add("one");
+        arena.text(1);
+    }
+
+    // covers handle of a tweet and of a plain text, timestamps with and without nanoseconds
+    @Test
+    public void testTweets() {
+        Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+        Tweet tweet2 = new Tweet(2, "Alyssa", "caf\u00e9", d1.plusNanos(123_456_789));
+        TextArena arena = new TextArena();
+        int handle1 = arena.add(tweet1);
+        int text = arena.add("just text");
+        int handle2 = arena.add(tweet2);
+
+        assertTrue(arena.isTweet(handle1));
+        assertFalse(arena.isTweet(text));
+        for (Tweet expected : Arrays.asList(tweet1, tweet2)) {
+            Tweet actual = arena.tweet(expected == tweet1 ? handle1 : handle2);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getAuthor(), actual.getAuthor());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            assertEquals(expected.getText(), actual.getText());
+        }
+        assertEquals("just text", arena.text(text));
+    }
+
+    // covers tweet() of a plain text
+    @Test(expected=IllegalArgumentException.class)
+    public void testTweetOfPlainText() {
+        TextArena arena = new TextArena();
+        arena.tweet(arena.add("just text"));
+    }
+
+    // covers mentions: none, next to non-ASCII, several
+    @Test
+    public void testMentions() {
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "no mentions here", d1),
+                new Tweet(2, "alyssa", "caf\u00e9@bbitdiddle and \u00e9t\u00e9 @Alyssa\u00e9", d1),
+                new Tweet(3, "bbitdiddle", "\ud83d\ude00@rivest @6-005 x@not", d1));
+        TextArena arena = new TextArena(16);
+        for (Tweet tweet : tweets) {
+            arena.add(tweet);
+        }
+        for (int i = 0; i < tweets.size(); i++) {
+            List<String> expected = new ArrayList<>();
+            List<String> actual = new ArrayList<>();
+            MentionScanner.scan(tweets.get(i).getText(), (text, start, end) -> expected.add(text.subSequence(start, end).toString()));
+            arena.scanMentions(i, (text, start, end) -> actual.add(text.subSequence(start, end).toString()));
+            assertEquals(expected, actual);
+        }
+        assertEquals(Extract.getMentionedUsers(tweets), arena.mentionedUsers());
+    }
+
+    // covers keywords: ASCII, non-ASCII in different case, outside the BMP; tweets and plain texts
+    @Test
+    public void testKeywordsMatchDecodedText() {
+        Random random = new Random(22);
+        String[] vocabulary = { "talk", "TALK", "caf\u00e9", "CAF\u00c9", "\u20ac5", "\ud83d\ude00", "\u00e9t\u00e9", "a\ud83d" };
+        TextArena arena = new TextArena(256);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = random.nextInt(5); j > 0; j--) {
+                text.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+            }
+            if (i % 10 == 0) {
+                arena.add(text.toString()); // plain texts are matched but never returned as tweets
+            }
+            Tweet tweet = new Tweet(i, "alyssa", text.toString(), d1);
+            tweets.add(tweet);
+            arena.add(tweet);
+        }
+        KeywordMatcher matcher = new KeywordMatcher(Arrays.asList("Talk", "caf\u00c9", "\ud83d\ude00"));
+        for (int handle = 0; handle < arena.size(); handle++) {
+            assertEquals("expected same match for " + arena.text(handle),
+                    matcher.matches(arena.text(handle)), arena.matches(handle, matcher));
+        }
+        assertEquals(matcher.filter(tweets), arena.filter(matcher));
+    }
+}
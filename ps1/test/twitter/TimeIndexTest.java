@@ -0,0 +1,111 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimeIndexTest {
+
+    /* Testing strategy
+     *
+     * Partition for inTimespan(timespan), inTimespanView(timespan), count(timespan)
+     *
+     * tweets.length: 0, 1, >1
+     * tweets sorted by timestamp, or not
+     * tweets with timestamps equal to the start or end of the timespan
+     * tweets with timestamps in the same millisecond but different nanoseconds
+     * result contains 0, 1, >1 tweets
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "rivest is talking now", d3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers tweets.length = 0
+    @Test
+    public void testEmptyIndex() {
+        TimeIndex index = new TimeIndex(new ArrayList<>());
+
+        assertTrue("expected empty list", index.inTimespan(new Timespan(d1, d3)).isEmpty());
+        assertEquals("expected zero count", 0, index.count(new Timespan(d1, d3)));
+    }
+
+    // covers tweets.length = 1, result contains 1 tweet
+    @Test
+    public void testSingleTweet() {
+        TimeIndex index = new TimeIndex(Arrays.asList(tweet2));
+
+        assertEquals("expected singleton list", Arrays.asList(tweet2), index.inTimespan(new Timespan(d1, d3)));
+    }
+
+    // covers sorted tweets with timestamps equal to the endpoints
+    @Test
+    public void testEndpointsExcluded() {
+        TimeIndex index = new TimeIndex(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals("expected only the middle tweet", Arrays.asList(tweet2), index.inTimespan(new Timespan(d1, d3)));
+        assertTrue("expected empty list", index.inTimespan(new Timespan(d2, d2)).isEmpty());
+    }
+
+    // covers unsorted tweets, result contains >1 tweets in input order
+    @Test
+    public void testUnsortedInputOrder() {
+        TimeIndex index = new TimeIndex(Arrays.asList(tweet3, tweet1, tweet2));
+        Timespan span = new Timespan(d1.minusSeconds(1), d3.plusSeconds(1));
+
+        assertEquals("expected input order", Arrays.asList(tweet3, tweet1, tweet2), index.inTimespanView(span));
+        assertEquals("expected time order", Arrays.asList(tweet1, tweet2, tweet3), index.inTimespanByTime(span));
+    }
+
+    // covers timestamps in the same millisecond but different nanoseconds
+    @Test
+    public void testSubMillisecondTimestamps() {
+        Tweet early = new Tweet(4, "alyssa", "early", d2.plusNanos(100));
+        Tweet late = new Tweet(5, "alyssa", "late", d2.plusNanos(900));
+        TimeIndex index = new TimeIndex(Arrays.asList(late, early));
+
+        assertEquals("expected only late", Arrays.asList(late),
+                index.inTimespan(new Timespan(d2.plusNanos(500), d3)));
+        assertEquals("expected only early", Arrays.asList(early),
+                index.inTimespan(new Timespan(d1, d2.plusNanos(500))));
+    }
+
+    // covers many unsorted tweets with repeated timestamps, compared with Filter.inTimespan
+    @Test
+    public void testMatchesFilter() {
+        Random random = new Random(6005);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            tweets.add(new Tweet(i, "user" + i, "text", d1.plusSeconds(random.nextInt(500))));
+        }
+        TimeIndex index = new TimeIndex(tweets);
+
+        for (int q = 0; q < 200; q++) {
+            Instant start = d1.plusSeconds(random.nextInt(500));
+            Instant end = start.plusSeconds(random.nextInt(100));
+            Timespan span = new Timespan(start, end);
+            List<Tweet> expected = Filter.inTimespan(tweets, span);
+
+            assertEquals("expected same tweets as Filter", expected, index.inTimespan(span));
+            assertEquals("expected same count as Filter", expected.size(), index.count(span));
+        }
+    }
+}
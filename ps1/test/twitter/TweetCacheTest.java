@@ -0,0 +1,198 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class TweetCacheTest {
+
+    /* Testing strategy
+     *
+     * Partition for TweetReader.readTweetsFromWeb(url, cacheDirectory)
+     *
+     * cache: empty, holds a current response, holds a stale response
+     * server validators: ETag, Last-Modified, none
+     * server answers: 200, 304, error status, nothing within the timeout,
+     *                 headers and then part of the body within the timeout
+     */
+
+    private static final String TWEET1 = "{\"id\": 1, \"user.screen_name\": \"alyssa\", "
+            + "\"text\": \"@bbitdiddle hi\", \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}";
+    private static final String TWEET2 = "{\"id\": 2, \"user.screen_name\": \"bbitdiddle\", "
+            + "\"text\": \"rivest talk\", \"created_at\": \"Wed Feb 17 11:00:00 +0000 2016\"}";
+    private static final String LAST_MODIFIED = "Wed, 17 Feb 2016 11:00:00 GMT";
+
+    private HttpServer server;
+    private Path cacheDirectory;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private volatile String body = "[" + TWEET1 + "]";
+    private volatile String etag = "\"v1\"";
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @Before
+    public void startServer() throws IOException {
+        cacheDirectory = Files.createTempDirectory("tweet-cache");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/etag", exchange -> {
+            String current = etag;
+            if (current.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified(exchange);
+            } else {
+                exchange.getResponseHeaders().set("ETag", current);
+                respond(exchange, 200, body);
+            }
+        });
+        server.createContext("/modified", exchange -> {
+            if (LAST_MODIFIED.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"))) {
+                notModified(exchange);
+            } else {
+                exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+                respond(exchange, 200, body);
+            }
+        });
+        server.createContext("/plain", exchange -> respond(exchange, 200, body));
+        server.createContext("/broken", exchange -> respond(exchange, 500, "oops"));
+        server.createContext("/stalled", exchange -> {
+            try {
+                released.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, body);
+        });
+        server.createContext("/stalledBody", exchange -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            try {
+                exchange.sendResponseHeaders(200, bytes.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(bytes, 0, bytes.length / 2);
+                out.flush();
+                released.await(10, TimeUnit.SECONDS);
+                out.write(bytes, bytes.length / 2, bytes.length - bytes.length / 2);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ioe) {
+                // client gave up
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        released.countDown();
+        server.stop(0);
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(cacheDirectory);
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers empty cache, current cache, ETag, 200 then 304
+    @Test
+    public void testRevalidateWithETag() throws IOException {
+        List<Tweet> first = TweetReader.readTweetsFromWeb(url("/etag"), cacheDirectory);
+        List<Tweet> second = TweetReader.readTweetsFromWeb(url("/etag"), cacheDirectory);
+
+        assertEquals("expected one full download", 1, fullResponses.get());
+        assertEquals(1, second.size());
+        assertEquals(first.get(0).getId(), second.get(0).getId());
+        assertEquals(first.get(0).getAuthor(), second.get(0).getAuthor());
+        assertEquals(first.get(0).getText(), second.get(0).getText());
+        assertEquals(first.get(0).getTimestamp(), second.get(0).getTimestamp());
+    }
+
+    // covers stale cache
+    @Test
+    public void testStaleCache() throws IOException {
+        TweetReader.readTweetsFromWeb(url("/etag"), cacheDirectory);
+        body = "[" + TWEET1 + ", " + TWEET2 + "]";
+        etag = "\"v2\"";
+
+        List<Tweet> tweets = TweetReader.readTweetsFromWeb(url("/etag"), cacheDirectory);
+        assertEquals("expected new response", 2, tweets.size());
+        assertEquals(2, TweetReader.readTweetsFromWeb(url("/etag"), cacheDirectory).size());
+        assertEquals("expected two full downloads", 2, fullResponses.get());
+    }
+
+    // covers Last-Modified, no validators
+    @Test
+    public void testLastModifiedAndNoValidators() throws IOException {
+        TweetReader.readTweetsFromWeb(url("/modified"), cacheDirectory);
+        assertEquals(1, TweetReader.readTweetsFromWeb(url("/modified"), cacheDirectory).size());
+        assertEquals("expected revalidation by date", 1, fullResponses.get());
+
+        TweetReader.readTweetsFromWeb(url("/plain"), cacheDirectory);
+        TweetReader.readTweetsFromWeb(url("/plain"), cacheDirectory);
+        assertEquals("expected no caching without validators", 3, fullResponses.get());
+    }
+
+    // covers error status
+    @Test(expected=IOException.class)
+    public void testErrorStatus() throws IOException {
+        TweetReader.readTweetsFromWeb(url("/broken"), cacheDirectory);
+    }
+
+    // covers server answering nothing within the timeout
+    @Test(expected=IOException.class)
+    public void testTimeout() throws IOException {
+        new TweetCache(cacheDirectory, Duration.ofMillis(200)).fetch(url("/stalled"));
+    }
+
+    // covers server sending headers and then stalling part way through the body
+    @Test(expected=IOException.class)
+    public void testStalledBody() throws IOException {
+        new TweetCache(cacheDirectory, Duration.ofMillis(200)).fetch(url("/stalledBody"));
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private void respond(HttpExchange exchange, int status, String text) throws IOException {
+        if (status == 200) {
+            fullResponses.incrementAndGet();
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void notModified(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+    }
+}
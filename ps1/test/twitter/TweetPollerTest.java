@@ -0,0 +1,213 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class TweetPollerTest {
+
+    /* Testing strategy
+     *
+     * Partition for pollOnce(), start(interval), close()
+     *
+     * response: plain, gzip-compressed, error status, headers too slow, body
+     *           stalled part way
+     * endpoints: 1, >1, more than maxConcurrentRequests
+     * queue: roomy, smaller than one response
+     * polling: once, continuously
+     */
+
+    private static final String TWEETS = "[{\"id\": 1, \"user.screen_name\": \"alyssa\", "
+            + "\"text\": \"@bbitdiddle hi\", \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}, "
+            + "{\"id\": 2, \"user.screen_name\": \"bbitdiddle\", "
+            + "\"text\": \"rivest talk\", \"created_at\": \"Wed Feb 17 11:00:00 +0000 2016\"}]";
+
+    private HttpServer server;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final List<String> acceptEncodings = new ArrayList<>();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/plain", exchange -> respond(exchange, false, 0));
+        server.createContext("/gzip", exchange -> respond(exchange, true, 0));
+        server.createContext("/slow", exchange -> respond(exchange, false, 100));
+        server.createContext("/hang", exchange -> respond(exchange, false, 5000));
+        server.createContext("/stalled", exchange -> {
+            byte[] body = TWEETS.getBytes(StandardCharsets.UTF_8);
+            try {
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body, 0, body.length / 2);
+                out.flush();
+                Thread.sleep(5000);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ioe) {
+                // client gave up
+            } finally {
+                exchange.close();
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers plain and gzip responses, >1 endpoints, roomy queue
+    @Test
+    public void testPollOnce() throws Exception {
+        BlockingQueue<Tweet> queue = new ArrayBlockingQueue<>(10);
+        try (TweetPoller poller = new TweetPoller(Arrays.asList(uri("/plain"), uri("/gzip")), queue, 2,
+                Duration.ofSeconds(5))) {
+            assertEquals("expected tweets from both endpoints", 4, poller.pollOnce());
+        }
+        assertEquals(4, queue.size());
+        assertEquals("alyssa", queue.peek().getAuthor());
+        synchronized (acceptEncodings) {
+            assertEquals(Arrays.asList("gzip", "gzip"), acceptEncodings);
+        }
+    }
+
+    // covers more endpoints than maxConcurrentRequests
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        BlockingQueue<Tweet> queue = new ArrayBlockingQueue<>(100);
+        List<URI> endpoints = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            endpoints.add(uri("/slow"));
+        }
+        try (TweetPoller poller = new TweetPoller(endpoints, queue, 2, Duration.ofSeconds(5))) {
+            assertEquals(12, poller.pollOnce());
+        }
+        assertTrue("expected at most 2 requests in flight, was " + maxInFlight.get(), maxInFlight.get() <= 2);
+    }
+
+    // covers error status and a response too slow for the timeout
+    @Test
+    public void testFailures() throws Exception {
+        BlockingQueue<Tweet> queue = new ArrayBlockingQueue<>(10);
+        try (TweetPoller poller = new TweetPoller(Arrays.asList(uri("/missing"), uri("/plain"), uri("/hang")),
+                queue, 3, Duration.ofMillis(300))) {
+            poller.pollOnce();
+            fail("expected IOException");
+        } catch (IOException ioe) {
+            assertEquals("expected both failures reported", 1, ioe.getSuppressed().length);
+        }
+        assertEquals("expected tweets of the healthy endpoint", 2, queue.size());
+    }
+
+    // covers body stalled part way
+    @Test
+    public void testStalledBody() throws Exception {
+        BlockingQueue<Tweet> queue = new ArrayBlockingQueue<>(10);
+        try (TweetPoller poller = new TweetPoller(Arrays.asList(uri("/stalled")), queue, 1,
+                Duration.ofMillis(300))) {
+            for (int i = 0; i < 2; i++) {
+                // a permit still held by the first poll would block the second forever
+                try {
+                    poller.pollOnce();
+                    fail("expected IOException");
+                } catch (IOException ioe) {
+                    // expected
+                }
+            }
+            assertEquals(2, poller.failureCount());
+        }
+        assertEquals("expected only the tweet sent before each stall", 2, queue.size());
+    }
+
+    // covers queue smaller than one response, continuous polling
+    @Test
+    public void testBackpressure() throws Exception {
+        BlockingQueue<Tweet> queue = new ArrayBlockingQueue<>(1);
+        try (TweetPoller poller = new TweetPoller(Arrays.asList(uri("/plain")), queue, 1,
+                Duration.ofSeconds(5))) {
+            poller.start(Duration.ofMillis(10));
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                Tweet tweet = queue.poll(5, TimeUnit.SECONDS);
+                assertNotNull("expected a tweet", tweet);
+                ids.add(tweet.getId());
+            }
+            assertEquals(Arrays.asList(1L, 2L, 1L, 2L, 1L, 2L), ids);
+            assertEquals(0, poller.failureCount());
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private void respond(HttpExchange exchange, boolean gzip, long delayMillis) throws IOException {
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        try {
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            synchronized (acceptEncodings) {
+                acceptEncodings.add(acceptEncoding);
+            }
+            Thread.sleep(delayMillis);
+            byte[] body = TWEETS.getBytes(StandardCharsets.UTF_8);
+            if (gzip) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                    out.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ioe) {
+            // client gave up
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class TweetReaderTest {
+
+    /* Testing strategy
+     *
+     * Partition for streamTweets(reader) -> stream of tweets
+     *
+     * array length: 0, 1, >1
+     * author given as literal "user.screen_name" key or nested "user" object
+     * tweet has no extra fields, or extra scalar, object and array fields
+     * stream consumed fully or only partially
+     *
+     * Partition for readTweetsFromFile(file) -> list of tweets
+     *
+     * file holds a JSON array or newline-delimited JSON
+     * file holds 0, 1 or >1 tweets
+     * file is decoded as one chunk or several chunks
+     */
+
+    private static final String TWEET1 = "{\"id\": 1, \"user.screen_name\": \"alyssa\", "
+            + "\"text\": \"is it reasonable to talk about rivest so much?\", "
+            + "\"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}";
+    private static final String TWEET2 = "{\"retweeted\": false, \"entities\": {\"hashtags\": [{\"text\": \"hype\"}]}, "
+            + "\"id\": 2, \"user\": {\"id\": 99, \"screen_name\": \"bbitdiddle\", \"urls\": [1, [2, 3]]}, "
+            + "\"text\": \"rivest talk in 30 minutes #hype\", \"geo\": null, "
+            + "\"created_at\": \"Wed Feb 17 11:00:00 +0000 2016\"}";
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers array length = 0
+    @Test
+    public void testStreamTweetsEmptyArray() {
+        try (Stream<Tweet> tweets = TweetReader.streamTweets(new StringReader("[]"))) {
+            assertEquals("expected no tweets", 0, tweets.count());
+        }
+    }
+
+    // covers array length = 1, literal "user.screen_name" key, no extra fields
+    @Test
+    public void testStreamTweetsSingleTweet() {
+        try (Stream<Tweet> tweets = TweetReader.streamTweets(new StringReader("[" + TWEET1 + "]"))) {
+            List<Tweet> list = tweets.collect(Collectors.toList());
+
+            assertEquals("expected singleton list", 1, list.size());
+            Tweet tweet = list.get(0);
+            assertEquals("expected id", 1, tweet.getId());
+            assertEquals("expected author", "alyssa", tweet.getAuthor());
+            assertEquals("expected text", "is it reasonable to talk about rivest so much?", tweet.getText());
+            assertEquals("expected timestamp", Instant.parse("2016-02-17T10:00:00Z"), tweet.getTimestamp());
+        }
+    }
+
+    // covers array length > 1, nested "user" object, extra fields skipped
+    @Test
+    public void testStreamTweetsSkipsOtherFields() {
+        try (Stream<Tweet> tweets = TweetReader.streamTweets(new StringReader("[" + TWEET1 + ", " + TWEET2 + "]"))) {
+            List<Tweet> list = tweets.collect(Collectors.toList());
+
+            assertEquals("expected two tweets", 2, list.size());
+            Tweet tweet = list.get(1);
+            assertEquals("expected id of tweet, not of user", 2, tweet.getId());
+            assertEquals("expected author", "bbitdiddle", tweet.getAuthor());
+            assertEquals("expected text of tweet, not of hashtag", "rivest talk in 30 minutes #hype", tweet.getText());
+            assertEquals("expected timestamp", Instant.parse("2016-02-17T11:00:00Z"), tweet.getTimestamp());
+        }
+    }
+
+    // covers stream consumed only partially
+    @Test
+    public void testStreamTweetsLazily() {
+        // the second element is malformed, but is never decoded
+        try (Stream<Tweet> tweets = TweetReader.streamTweets(new StringReader("[" + TWEET1 + ", 42]"))) {
+            Iterator<Tweet> iterator = tweets.iterator();
+
+            assertTrue("expected a tweet", iterator.hasNext());
+            assertEquals("expected first tweet", 1, iterator.next().getId());
+        }
+    }
+
+    // covers JSON array file with 0 tweets
+    @Test
+    public void testReadTweetsFromFileEmptyArray() throws IOException {
+        Path file = writeTempFile(" [ ]\n");
+
+        assertTrue("expected empty list", TweetReader.readTweetsFromFile(file).isEmpty());
+    }
+
+    // covers JSON array file with >1 tweets, one chunk
+    @Test
+    public void testReadTweetsFromFileArray() throws IOException {
+        Path file = writeTempFile("[" + TWEET1 + ",\n" + TWEET2 + "]\n");
+        List<Tweet> tweets = TweetReader.readTweetsFromFile(file);
+
+        assertEquals("expected tweets in file order", Arrays.asList(1L, 2L), ids(tweets));
+        assertEquals("expected author", "bbitdiddle", tweets.get(1).getAuthor());
+    }
+
+    // covers JSON array file with >1 tweets, several chunks
+    @Test
+    public void testReadTweetsFromFileArrayManyChunks() throws IOException {
+        Path file = writeTempFile("[" + TWEET1 + ", " + TWEET2 + ", " + TWEET1 + "]");
+        List<Tweet> tweets = TweetFileReader.read(file, 1);
+
+        assertEquals("expected tweets in file order", Arrays.asList(1L, 2L, 1L), ids(tweets));
+    }
+
+    // covers newline-delimited file with 1 tweet
+    @Test
+    public void testReadTweetsFromFileSingleLine() throws IOException {
+        Path file = writeTempFile(TWEET2);
+        List<Tweet> tweets = TweetReader.readTweetsFromFile(file);
+
+        assertEquals("expected singleton list", Arrays.asList(2L), ids(tweets));
+    }
+
+    // covers newline-delimited file with >1 tweets, several chunks
+    @Test
+    public void testReadTweetsFromFileLinesManyChunks() throws IOException {
+        Path file = writeTempFile(TWEET1 + "\n\n" + TWEET2 + "\r\n" + TWEET1 + "\n");
+        List<Tweet> tweets = TweetFileReader.read(file, 10);
+
+        assertEquals("expected tweets in file order", Arrays.asList(1L, 2L, 1L), ids(tweets));
+    }
+
+    private static Path writeTempFile(String contents) throws IOException {
+        Path file = Files.createTempFile("tweets", ".json");
+        file.toFile().deleteOnExit();
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<Long> ids(List<Tweet> tweets) {
+        return tweets.stream().map(Tweet::getId).collect(Collectors.toList());
+    }
+}
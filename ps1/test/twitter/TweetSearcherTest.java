@@ -0,0 +1,152 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TweetSearcherTest {
+
+    /* Testing strategy
+     *
+     * Partition for search(query), count(query), explain(query)
+     *
+     * query: single leaf, AND, OR, nested AND of OR
+     * AND: children in selectivity order or not, an empty child,
+     *      a child checked per candidate or intersected
+     * child checked per candidate: unknown author, absent word, nested OR
+     * OR: sparse (merged lists) or dense (bitset)
+     * tweets: sorted by timestamp or not
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00Z");
+    private static final Instant d3 = Instant.parse("2016-02-17T12:00:00Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d2);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d1);
+    private static final Tweet tweet3 = new Tweet(3, "Alyssa", "talk to me", d3);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers single leaves, unsorted tweets
+    @Test
+    public void testLeaves() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        TweetSearcher searcher = new TweetSearcher(tweets);
+
+        assertEquals(Arrays.asList(tweet1, tweet3), searcher.search(TweetQuery.writtenBy("ALYSSA")));
+        assertEquals(Arrays.asList(tweet1),
+                searcher.search(TweetQuery.inTimespan(new Timespan(d1, d3))));
+        assertEquals(Arrays.asList(tweet1, tweet2),
+                searcher.search(TweetQuery.containing(Arrays.asList("Rivest"))));
+    }
+
+    // covers AND out of selectivity order, empty child, OR
+    @Test
+    public void testAndOr() {
+        List<Tweet> tweets = Arrays.asList(tweet1, tweet2, tweet3);
+        TweetSearcher searcher = new TweetSearcher(tweets);
+
+        TweetQuery talkByAlyssa = TweetQuery.containing(Arrays.asList("talk"))
+                .and(TweetQuery.writtenBy("alyssa"));
+        assertEquals(Arrays.asList(tweet1, tweet3), searcher.search(talkByAlyssa));
+        assertEquals(0, searcher.count(talkByAlyssa.and(TweetQuery.writtenBy("nobody"))));
+        assertEquals(Arrays.asList(tweet1, tweet2, tweet3),
+                searcher.search(TweetQuery.writtenBy("bbitdiddle").or(TweetQuery.containing(Arrays.asList("me", "much?")))));
+    }
+
+    // covers planner ordering AND children by estimate
+    @Test
+    public void testExplainOrdersBySelectivity() {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tweets.add(new Tweet(i, i == 7 ? "rare" : "common", "word" + (i % 10) + " everyone", d1.plusSeconds(i)));
+        }
+        TweetSearcher searcher = new TweetSearcher(tweets);
+
+        String plan = searcher.explain(TweetQuery.and(
+                TweetQuery.containing(Arrays.asList("everyone")),
+                TweetQuery.containing(Arrays.asList("word7")),
+                TweetQuery.writtenBy("rare")));
+        assertTrue("expected most selective first: " + plan, plan.indexOf("writtenBy(rare)~1")
+                < plan.indexOf("containing[word7]~10"));
+        assertTrue("expected least selective last: " + plan, plan.indexOf("containing[word7]~10")
+                < plan.indexOf("containing[everyone]~100"));
+        assertTrue("expected dense OR as bitset: " + searcher.explain(
+                TweetQuery.writtenBy("common").or(TweetQuery.writtenBy("rare"))),
+                searcher.explain(TweetQuery.writtenBy("common").or(TweetQuery.writtenBy("rare"))).startsWith("OR-bitset"));
+    }
+
+    // covers children checked per candidate: unknown author, absent word, nested OR
+    @Test
+    public void testAndChecksCandidates() {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tweets.add(new Tweet(i, i == 7 || i == 57 ? "rare" : "common", "word" + (i % 10) + " everyone",
+                    d1.plusSeconds(i)));
+        }
+        TweetSearcher searcher = new TweetSearcher(tweets);
+
+        TweetQuery common = TweetQuery.or(TweetQuery.writtenBy("nobody"),
+                TweetQuery.containing(Arrays.asList("absent", "WORD7")));
+        TweetQuery query = TweetQuery.writtenBy("RARE").and(common);
+        // 20 matches of the OR are more than FILTER_FACTOR times 2 candidates
+        assertTrue("expected rare author first: " + searcher.explain(query),
+                searcher.explain(query).startsWith("AND[writtenBy(RARE)~2, "
+                        + "OR-bitset[writtenBy(nobody)~0, containing[absent, WORD7]~20]~20]"));
+        assertEquals(Arrays.asList(tweets.get(7), tweets.get(57)), searcher.search(query));
+        assertEquals(0, searcher.count(TweetQuery.writtenBy("rare").and(
+                TweetQuery.or(TweetQuery.writtenBy("nobody"), TweetQuery.containing(Arrays.asList("absent", "word8"))))));
+        assertEquals(Arrays.asList(tweets.get(57)), searcher.search(TweetQuery.and(TweetQuery.writtenBy("rare"),
+                TweetQuery.containing(Arrays.asList("everyone")), TweetQuery.inTimespan(new Timespan(d1.plusSeconds(10), d2)))));
+    }
+
+    // covers random nested queries against chained Filter calls
+    @Test
+    public void testMatchesFilter() {
+        Random random = new Random(19);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String text = "w" + random.nextInt(30) + " w" + random.nextInt(300) + " W" + random.nextInt(5);
+            tweets.add(new Tweet(i, "user" + random.nextInt(40), text, d1.plusSeconds(random.nextInt(7200))));
+        }
+        TweetSearcher searcher = new TweetSearcher(tweets);
+
+        for (int trial = 0; trial < 200; trial++) {
+            String author = "USER" + random.nextInt(40);
+            List<String> words = Arrays.asList("w" + random.nextInt(30), "w" + random.nextInt(300));
+            Instant start = d1.plusSeconds(random.nextInt(7200));
+            Timespan timespan = new Timespan(start, start.plusSeconds(random.nextInt(7200)));
+
+            // (author OR words) AND timespan
+            TweetQuery query = TweetQuery.writtenBy(author).or(TweetQuery.containing(words))
+                    .and(TweetQuery.inTimespan(timespan));
+            Set<Tweet> union = new LinkedHashSet<>(Filter.writtenBy(tweets, author));
+            union.addAll(Filter.containing(tweets, words));
+            List<Tweet> expected = new ArrayList<>(Filter.inTimespan(new ArrayList<>(union), timespan));
+            Collections.sort(expected, (a, b) -> Long.compare(a.getId(), b.getId()));
+            assertEquals("expected same tweets for " + query, expected, searcher.search(query));
+
+            // author AND words AND timespan
+            TweetQuery narrow = TweetQuery.and(TweetQuery.writtenBy(author), TweetQuery.containing(words),
+                    TweetQuery.inTimespan(timespan));
+            List<Tweet> chained = Filter.inTimespan(Filter.containing(Filter.writtenBy(tweets, author), words), timespan);
+            assertEquals("expected same tweets for " + narrow, chained, searcher.search(narrow));
+        }
+    }
+}
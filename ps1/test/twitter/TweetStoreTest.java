@@ -0,0 +1,175 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetStoreTest {
+
+    /* Testing strategy
+     *
+     * Partition for TweetStore(tweets), get(index), asList()
+     *
+     * store size: 0, 1, >1
+     * authors: all distinct, or some repeated
+     * text: ASCII only, or containing multi-byte characters
+     *
+     * Partition for save(file), load(file)
+     *
+     * store size: 0, >1
+     * author names: short, or longer than the I/O buffer
+     * file is a snapshot, is not a snapshot, or is a snapshot with corrupt
+     *   text offsets: decreasing, or past the end of the text
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+    private static final Instant d2 = Instant.parse("2016-02-17T11:00:00.123Z");
+
+    private static final Tweet tweet1 = new Tweet(1, "alyssa", "is it reasonable to talk about rivest so much?", d1);
+    private static final Tweet tweet2 = new Tweet(2, "bbitdiddle", "rivest talk in 30 minutes #hype", d2);
+    private static final Tweet tweet3 = new Tweet(3, "alyssa", "caf\u00e9 \u2615 with @bbitdiddle", d2);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    // covers store size 0
+    @Test
+    public void testEmptyStore() {
+        TweetStore store = new TweetStore(new ArrayList<>());
+
+        assertEquals("expected empty store", 0, store.size());
+        assertTrue("expected empty view", store.asList().isEmpty());
+    }
+
+    // covers store size 1, ASCII text
+    @Test
+    public void testSingleTweet() {
+        TweetStore store = new TweetStore();
+        store.add(tweet1);
+
+        assertEquals("expected one tweet", 1, store.size());
+        assertTweetEquals(tweet1, store.get(0));
+    }
+
+    // covers store size > 1, repeated authors, multi-byte text
+    @Test
+    public void testManyTweets() {
+        TweetStore store = new TweetStore(Arrays.asList(tweet1, tweet2, tweet3));
+
+        assertEquals("expected three tweets", 3, store.size());
+        assertEquals("expected view in order", Arrays.asList(tweet1, tweet2, tweet3), store.asList());
+        assertTweetEquals(tweet2, store.get(1));
+        assertTweetEquals(tweet3, store.get(2));
+        assertEquals("expected millisecond timestamp", d2.toEpochMilli(), store.getEpochMilli(1));
+    }
+
+    // covers save and load of store size 0
+    @Test
+    public void testSaveLoadEmpty() throws IOException {
+        Path file = tempFile();
+        new TweetStore().save(file);
+
+        assertEquals("expected empty store", 0, TweetStore.load(file).size());
+    }
+
+    // covers save and load of store size > 1
+    @Test
+    public void testSaveLoadManyTweets() throws IOException {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 50000; i++) {
+            tweets.add(new Tweet(i, "user" + (i % 97), "tweet number " + i + " \u00e9", d1.plusSeconds(i)));
+        }
+        Path file = tempFile();
+        new TweetStore(tweets).save(file);
+        TweetStore loaded = TweetStore.load(file);
+
+        assertEquals("expected same size", tweets.size(), loaded.size());
+        for (int i = 0; i < tweets.size(); i += 997) {
+            assertTweetEquals(tweets.get(i), loaded.get(i));
+        }
+        assertTweetEquals(tweets.get(tweets.size() - 1), loaded.get(tweets.size() - 1));
+    }
+
+    // covers save and load of an author name longer than the I/O buffer
+    @Test
+    public void testSaveLoadLongAuthor() throws IOException {
+        StringBuilder author = new StringBuilder();
+        while (author.length() < 3 * 1000 * 1000) {
+            author.append("alyssa\u00e9");
+        }
+        Tweet tweet = new Tweet(4, author.toString(), "a very long name", d1);
+        Path file = tempFile();
+        new TweetStore(Arrays.asList(tweet1, tweet, tweet2)).save(file);
+        TweetStore loaded = TweetStore.load(file);
+
+        assertEquals("expected three tweets", 3, loaded.size());
+        assertTweetEquals(tweet1, loaded.get(0));
+        assertTweetEquals(tweet, loaded.get(1));
+        assertTweetEquals(tweet2, loaded.get(2));
+    }
+
+    // covers load of a file that is not a snapshot
+    @Test(expected=IOException.class)
+    public void testLoadNotSnapshot() throws IOException {
+        Path file = tempFile();
+        Files.write(file, "[{\"id\": 1}]".getBytes("UTF-8"));
+
+        TweetStore.load(file);
+    }
+
+    // covers load of a snapshot with decreasing text offsets
+    @Test(expected=IOException.class)
+    public void testLoadDecreasingOffsets() throws IOException {
+        Path file = tempFile();
+        new TweetStore(Arrays.asList(tweet1, tweet2)).save(file);
+        // the offsets follow the header, one author, and three columns of two tweets
+        int offsets = 4 * Integer.BYTES + Integer.BYTES + "alyssa".length()
+                + Integer.BYTES + "bbitdiddle".length() + 2 * (2 * Long.BYTES + Integer.BYTES);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        bytes.putInt(offsets + Integer.BYTES, bytes.getInt(offsets + 2 * Integer.BYTES) + 1);
+        Files.write(file, bytes.array());
+
+        TweetStore.load(file);
+    }
+
+    // covers load of a snapshot with text offsets past the end of the text
+    @Test(expected=IOException.class)
+    public void testLoadOffsetsPastText() throws IOException {
+        Path file = tempFile();
+        new TweetStore(Arrays.asList(tweet1)).save(file);
+        // the last offset follows the header, one author, three columns of one tweet, and offset 0
+        int end = 4 * Integer.BYTES + Integer.BYTES + "alyssa".length() + 2 * Long.BYTES + 2 * Integer.BYTES;
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        bytes.putInt(end, Integer.MAX_VALUE);
+        Files.write(file, bytes.array());
+
+        TweetStore.load(file);
+    }
+
+    private static void assertTweetEquals(Tweet expected, Tweet actual) {
+        assertEquals("expected id", expected.getId(), actual.getId());
+        assertEquals("expected author", expected.getAuthor(), actual.getAuthor());
+        assertEquals("expected text", expected.getText(), actual.getText());
+        assertEquals("expected timestamp", expected.getTimestamp(), actual.getTimestamp());
+    }
+
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("tweets", ".store");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+}